@@ -1,28 +1,135 @@
 package Controllers;
 
+import Models.ExecutionMode;
 import Models.HomePageModel;
 import ilcompiler.edit.Language;
 import ilcompiler.memoryvariable.MemoryVariable;
-import ilcompiler.input.InputActions;
 import ilcompiler.output.OutputActions;
-import ilcompiler.interpreter.Interpreter;
+import ilcompiler.compiler.Instruction;
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.Diagnostic;
+import ilcompiler.compiler.IncrementalCompiler;
+import ilcompiler.compiler.ProgramCompiler;
+import ilcompiler.coverage.Coverage;
+import ilcompiler.profiler.Profiler;
+import ilcompiler.debug.Breakpoints;
+import ilcompiler.debug.TimeTravelDebugger;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.TaskScheduler;
+import ilcompiler.trace.TraceRecorder;
+import ilcompiler.trace.VcdWriter;
+import plant.PlantModel;
+import screens.CoverageOverlay;
+import screens.HeatMapOverlay;
 import screens.HomePg;
 import save.Save;
 
 import javax.swing.*;
+import javax.swing.text.Document;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class HomePageController {
 
+    // Trace contínuo das varreduras, mantido após quedas do programa. Cada processo grava no seu
+    // próprio arquivo scan-trace-<pid>-*.bin, então duas janelas abertas não se sobrescrevem; dos
+    // processos já encerrados ficam só os TRACES_KEPT traces mais recentes
+    private static final Path TRACE_FOLDER = Path.of(System.getProperty("user.home"), ".simulador-clp");
+    private static final String TRACE_PREFIX = "scan-trace-";
+    private static final int TRACES_KEPT = 3;
+    private static final int TRACE_CAPACITY = 32 * 1024 * 1024;
+    private static final int TRACE_KEYFRAME_INTERVAL = 600;
+
+    // Histórico do depurador: checkpoint a cada 100 varreduras, até 16 MB
+    private static final int DEBUG_CHECKPOINT_INTERVAL = 100;
+    private static final long DEBUG_BUDGET_BYTES = 16L * 1024 * 1024;
+
     private final HomePg homePage;
+    private final TaskScheduler scheduler;
+    private TraceRecorder traceRecorder;
+    private Path traceFile;
+    private VcdWriter vcdWriter;
+    private final TimeTravelDebugger debugger;
+    private final Breakpoints breakpoints = new Breakpoints();
+    private Coverage shownCoverage;
+    private final ExecutorService compileExecutor;
+    // Texto do editor espelhado linha a linha; só a thread do compilador o usa
+    private final IncrementalCompiler editorProgram = new IncrementalCompiler();
+    private long lastScanNanos;
+    // Conta os starts: só o último carrega o programa compilado
+    private int startCount;
+    private int defaultPeriodMs;
 
     public HomePageController(HomePg homePage) {
         this.homePage = homePage;
+        ScanEngine engine = new ScanEngine(HomePageModel.getContext());
+        this.scheduler = new TaskScheduler(engine);
+        this.debugger = new TimeTravelDebugger(scheduler, DEBUG_CHECKPOINT_INTERVAL, DEBUG_BUDGET_BYTES);
+        engine.addScanListener(debugger);
+        this.compileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "compilador");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Files.createDirectories(TRACE_FOLDER);
+            deleteOldTraces();
+            traceFile = Files.createTempFile(TRACE_FOLDER, TRACE_PREFIX + ProcessHandle.current().pid() + "-", ".bin");
+            traceRecorder = TraceRecorder.open(traceFile, TRACE_CAPACITY, TRACE_KEYFRAME_INTERVAL);
+            engine.addScanListener(traceRecorder);
+        } catch (IOException ex) {
+            System.err.println("Trace de varreduras desativado: " + ex.getMessage());
+        }
+    }
+
+    // Arquivo de trace desta janela (null se o trace estiver desativado)
+    public Path getTraceFile() {
+        return traceRecorder != null ? traceFile : null;
+    }
+
+    // Apaga os traces de processos encerrados, exceto os mais recentes
+    private static void deleteOldTraces() throws IOException {
+        List<Path> finished = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(TRACE_FOLDER, TRACE_PREFIX + "*.bin")) {
+            for (Path file : files) {
+                if (!traceOwnerAlive(file)) {
+                    finished.add(file);
+                }
+            }
+        }
+
+        finished.sort(Comparator.comparingLong((Path file) -> file.toFile().lastModified()).reversed());
+        for (Path file : finished.subList(Math.min(TRACES_KEPT, finished.size()), finished.size())) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                // Arquivo ainda aberto (Windows), fica para a próxima abertura
+            }
+        }
+    }
+
+    private static boolean traceOwnerAlive(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf('-', TRACE_PREFIX.length());
+        try {
+            long pid = Long.parseLong(name.substring(TRACE_PREFIX.length(), end));
+            return pid != ProcessHandle.current().pid() && ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+            return false;
+        }
     }
 
     // -------------------- Funções para Labels --------------------
@@ -66,46 +173,32 @@ public class HomePageController {
 
         if (Language.getArquivar().getItemAt(2).equals(arquivarComboBox.getSelectedItem().toString())) {
             JFileChooser c = new JFileChooser();
-            String filename = "";
-            String dir = "";
             int rVal = c.showOpenDialog(homePageInstance);
             if (rVal == JFileChooser.APPROVE_OPTION) {
-                filename = c.getSelectedFile().getName();
-                dir = c.getCurrentDirectory().toString();
-            }
-            List<String> memory;
-            try {
-                memory = Save.load(dir + "\\" + filename);
-                codigoCampTextArea.setText("");
-                for (String line : memory) {
-                    codigoCampTextArea.append(line);
-                    codigoCampTextArea.append("\n");
-                }
-            } catch (IOException ex) {
-                ex.printStackTrace();
+                homePageInstance.loadProgram(c.getSelectedFile().getPath());
             }
             arquivarComboBox.setSelectedIndex(0);
         }
 
+        if (arquivarComboBox.getItemAt(3).equals(arquivarComboBox.getSelectedItem())) {
+            arquivarComboBox.setSelectedIndex(0);
+            homePageInstance.toggleVcdExport();
+        }
+
         if (arquivarComboBox.getItemAt(1).equals(arquivarComboBox.getSelectedItem())) {
             arquivarComboBox.setSelectedIndex(0);
 
             JFileChooser c = new JFileChooser();
-            String filename = "";
-            String dir = "";
             int rVal = c.showSaveDialog(homePageInstance);
-            if (rVal == JFileChooser.APPROVE_OPTION) {
-                filename = c.getSelectedFile().getName();
-                dir = c.getCurrentDirectory().toString();
+            if (rVal != JFileChooser.APPROVE_OPTION) {
+                return;
             }
 
-            List<String> memory = new ArrayList<>();
-            memory = homePageInstance.saveLines(memory);
-
             try {
-                Save.save(dir + "\\" + filename, memory);
+                homePageInstance.saveProgram(c.getSelectedFile().getPath());
             } catch (IOException ex) {
-                ex.printStackTrace();
+                JOptionPane.showMessageDialog(homePageInstance, "Não foi possível salvar o arquivo: "
+                        + ex.getMessage());
             }
         }
     }
@@ -123,72 +216,378 @@ public class HomePageController {
         }
     }
 
-    public void runCycle(ActionEvent evt) {
-        if (!HomePageModel.isRunning()) {
-            ((Timer) evt.getSource()).stop();
+    // Compila na thread do compilador, depois das edições e leituras ainda na fila, sem prender
+    // a EDT; de volta na EDT carrega as tarefas e entrega a onStarted o período do tick base do
+    // ciclo. Se o CLP saiu de RUNNING ou houve outro start nesse meio tempo, nada é carregado.
+    public void startCycle(int defaultPeriodMs, IntConsumer onStarted) {
+        lastScanNanos = 0;
+        this.defaultPeriodMs = defaultPeriodMs;
+        if (traceRecorder != null) {
+            traceRecorder.requestKeyframe();
+        }
+        debugger.reset();
+        breakpoints.resetPause();
+        homePage.highlightLine(-1);
+
+        int start = ++startCount;
+        compileExecutor.execute(() -> {
+            List<Diagnostic> diagnostics = new ArrayList<>();
+            CompiledProgram program = editorProgram.compile(defaultPeriodMs, diagnostics);
+            SwingUtilities.invokeLater(() -> {
+                if (start == startCount && HomePageModel.isRunning()) {
+                    loadCycle(program, diagnostics, onStarted);
+                }
+            });
+        });
+    }
+
+    // Programa com erros não chega à varredura: os erros ficam marcados no editor
+    private void loadCycle(CompiledProgram program, List<Diagnostic> diagnostics, IntConsumer onStarted) {
+        if (program == null) {
+            HomePageModel.setMode(ExecutionMode.IDLE);
+            homePage.showDiagnostics(diagnostics);
+            return;
+        }
+        scheduler.load(program);
+
+        // Cada execução começa uma cobertura e um perfil novos
+        if (isCoverageEnabled()) {
+            Coverage coverage = Coverage.forProgram(scheduler.getProgram());
+            scheduler.getEngine().setCoverage(coverage);
+            showCoverage(coverage);
+        }
+        if (isProfiling()) {
+            startProfiling(scheduler.getEngine().getProfiler().getSampleInterval());
+        }
+        onStarted.accept(scheduler.getTickMs());
+    }
+
+    // Modelo de processo da cena atual (null sem processo), avançado pelo ScanEngine a cada varredura
+    public void setPlant(PlantModel plant) {
+        scheduler.getEngine().setPlant(plant);
+    }
+
+    // -------------------- Perfil --------------------
+    public boolean isProfiling() {
+        return scheduler.getEngine().getProfiler() != null;
+    }
+
+    // Cronometra em média uma instrução a cada sampleInterval (1 = todas)
+    public void startProfiling(int sampleInterval) {
+        Profiler profiler = new Profiler(sampleInterval);
+        scheduler.getEngine().setProfiler(profiler);
+        homePage.setLineOverlay(new HeatMapOverlay(profiler));
+    }
+
+    public void stopProfiling() {
+        if (homePage.getLineOverlay() instanceof HeatMapOverlay) {
+            homePage.setLineOverlay(null);
+        }
+        scheduler.getEngine().setProfiler(null);
+    }
+
+    public void exportFoldedStacks(Path file) throws IOException {
+        Profiler profiler = scheduler.getEngine().getProfiler();
+        CompiledProgram program = currentProgram();
+        if (profiler == null || program == null) {
+            throw new IllegalArgumentException("Ligue o perfil e execute o programa antes de exportar!");
+        }
+        profiler.writeFolded(file, program, homePage.saveLines(new ArrayList<>()));
+    }
+
+    public String getProfileSummary() {
+        Profiler profiler = scheduler.getEngine().getProfiler();
+        CompiledProgram program = currentProgram();
+        if (profiler == null || program == null) {
+            return "";
+        }
+        List<String> hot = profiler.hotRungs(program, homePage.saveLines(new ArrayList<>()), 1);
+        return String.format("Perfil: %d amostras, %.3f ms no programa", profiler.getSamples(),
+                profiler.getTotalNanos() / 1e6) + (hot.isEmpty() ? "" : " | " + hot.get(0));
+    }
+
+    // -------------------- Cobertura --------------------
+    public boolean isCoverageEnabled() {
+        return scheduler.getEngine().getCoverage() != null;
+    }
+
+    public void setCoverageEnabled(boolean enabled) {
+        if (!enabled) {
+            scheduler.getEngine().setCoverage(null);
+            shownCoverage = null;
+            homePage.setLineOverlay(null);
             return;
         }
+        if (!isCoverageEnabled()) {
+            Coverage coverage = new Coverage(0);
+            scheduler.getEngine().setCoverage(coverage);
+            showCoverage(coverage);
+        }
+    }
 
-        List<String> lineList = homePage.saveLines(new ArrayList<>());
+    // Relatório salvo: somado à cobertura em andamento, ou só exibido se ela estiver desligada
+    public void loadCoverageReport(Path file) throws IOException {
+        Coverage loaded = Coverage.read(file);
+        Coverage live = scheduler.getEngine().getCoverage();
+        if (live != null) {
+            live.merge(loaded);
+            showCoverage(live);
+        } else {
+            showCoverage(loaded);
+        }
+    }
 
-        HomePageModel.setInputs(InputActions.read(HomePageModel.getInputs()));
-        /* TODO - Investigar se podemos realmente deixar isso aqui comentado */
-        // HomePageModel.setOutputs(OutputActions.resetOutputs(HomePageModel.getOutputs()));
-        HomePageModel.setOutputs(
-                Interpreter.receiveLines(lineList, HomePageModel.getInputs(), HomePageModel.getOutputs(),
-                        HomePageModel.getMemoryVariables()));
+    public void saveCoverageReport(Path file) throws IOException {
+        if (shownCoverage == null) {
+            throw new IllegalArgumentException("Nenhuma cobertura para salvar!");
+        }
+        shownCoverage.write(file, homePage.saveLines(new ArrayList<>()));
+    }
 
-        updateTimersState();
+    public String getCoverageSummary() {
+        CompiledProgram program = currentProgram();
+        return shownCoverage == null || program == null ? "" : shownCoverage.summary(program);
+    }
 
-        homePage.updateMode();
+    private void showCoverage(Coverage coverage) {
+        CompiledProgram program = currentProgram();
+        shownCoverage = coverage;
+        homePage.setLineOverlay(program == null ? null : new CoverageOverlay(coverage, program));
+    }
+
+    // Programa em execução, ou o texto do editor compilado na hora
+    private CompiledProgram currentProgram() {
+        if (scheduler.getProgram() != null) {
+            return scheduler.getProgram();
+        }
+        try {
+            return ProgramCompiler.compile(homePage.saveLines(new ArrayList<>()), defaultPeriodMs);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    // -------------------- Exportação VCD --------------------
+    public boolean isExportingVcd() {
+        return vcdWriter != null;
+    }
+
+    public void startVcdExport(Path file) throws IOException {
+        stopVcdExport();
+        vcdWriter = VcdWriter.open(file);
+        scheduler.getEngine().addScanListener(vcdWriter);
+    }
+
+    public void stopVcdExport() {
+        if (vcdWriter == null) {
+            return;
+        }
+        scheduler.getEngine().removeScanListener(vcdWriter);
+        try {
+            vcdWriter.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        vcdWriter = null;
+    }
+
+    // -------------------- Depurador --------------------
+    // As operações só valem com o CLP parado; devolvem o texto de situação para a tela do depurador
+    public String debugJumpTo(long scan) {
+        checkDebugAllowed();
+        debugger.jumpTo(scan);
+        return afterDebugStep();
+    }
+
+    public String debugStepBack() {
+        checkDebugAllowed();
+        debugger.stepBack();
+        return afterDebugStep();
+    }
+
+    public String debugStepInstruction() {
+        checkDebugAllowed();
+        debugger.stepInstruction();
+        return afterDebugStep();
+    }
+
+    public String debugStepScan() {
+        checkDebugAllowed();
+        debugger.stepScan();
+        return afterDebugStep();
+    }
+
+    public String getDebugStatus() {
+        StringBuilder status = new StringBuilder();
+        status.append("Varredura ").append(scheduler.getEngine().getScanCount());
+        if (debugger.hasHistory()) {
+            status.append(" (histórico ").append(debugger.getFirstScan())
+                    .append(" a ").append(debugger.getLastScan()).append(')');
+        }
+
+        Instruction next = scheduler.getNextInstruction();
+        if (next != null) {
+            status.append(" | Próxima: linha ").append(next.getLine() + 1).append(": ").append(next);
+        }
+        status.append(" | Acumulador: ").append(HomePageModel.getContext().getAccumulator());
+        return status.toString();
+    }
+
+    public Breakpoints getBreakpoints() {
+        return breakpoints;
+    }
+
+    // Linha da próxima instrução da varredura interrompida, ou -1
+    public int getNextLine() {
+        Instruction next = scheduler.getNextInstruction();
+        return next == null ? -1 : next.getLine();
+    }
+
+    // Substitui os endereços observados, separados por vírgula ou espaço
+    public void setWatches(String addresses) {
+        breakpoints.setWatches(List.of(addresses.split("[,\\s]+")));
+    }
+
+    // Varredura interrompida no meio (breakpoint ou passo a passo): o start continua dela
+    public boolean isPausedInScan() {
+        return scheduler.isStepping();
+    }
+
+    // Retoma o ciclo sem recarregar o programa e devolve o período do tick
+    public int resumeCycle() {
+        lastScanNanos = 0;
+        homePage.highlightLine(-1);
+        return scheduler.getTickMs();
+    }
+
+    public long getCurrentScan() {
+        return scheduler.getEngine().getScanCount();
+    }
+
+    private void checkDebugAllowed() {
+        if (HomePageModel.isRunning()) {
+            throw new IllegalArgumentException("Pare a execução do CLP para depurar!");
+        }
+        if (scheduler.getProgram() == null) {
+            throw new IllegalArgumentException("Execute o programa antes de depurar!");
+        }
+    }
+
+    private String afterDebugStep() {
+        breakpoints.resetPause();
+
+        // O trace passa a valer a partir do novo estado
+        if (traceRecorder != null) {
+            traceRecorder.requestKeyframe();
+        }
+
+        homePage.highlightLine(getNextLine());
+        homePage.refreshLineOverlay();
         homePage.updateSceneUI();
         homePage.updateMemoryVariables();
+        return getDebugStatus();
+    }
+
+    // Edições do editor: a cópia do compilador troca removed linhas a partir de first por added
+    // e reanalisa só essas linhas
+    public void editProgram(int first, int removed, List<String> added) {
+        compileExecutor.execute(() -> editorProgram.edit(first, removed, added));
     }
 
-    public void updateTimersState() {
-        for (Map.Entry<String, MemoryVariable> variable : HomePageModel.getMemoryVariables().entrySet()) {
-            if (variable.getKey().charAt(0) != 'T') {
-                continue;
+    // Lê o arquivo no documento na thread do compilador; onLoaded recebe na EDT as linhas do
+    // documento, já pronto para ser exibido
+    public void loadProgram(String file, Document document, Consumer<List<String>> onLoaded) {
+        compileExecutor.execute(() -> {
+            try {
+                Save.loadDocument(file, document);
+                List<String> lines = Save.lines(document);
+                SwingUtilities.invokeLater(() -> onLoaded.accept(lines));
+            } catch (IOException ex) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(homePage,
+                        "Não foi possível carregar o arquivo: " + ex.getMessage()));
             }
+        });
+    }
 
-            MemoryVariable var = variable.getValue();
-            boolean isOnTimer = "ON".equals(var.timerType);
-            boolean isOffTimer = "OFF".equals(var.timerType);
-
-            if (isOnTimer) {
-                if (var.currentValue) {
-                    var.timer.start();
-                } else {
-                    var.timer.stop();
-                    var.counter = 0;
-                    var.endTimer = false;
-                }
-            } else if (isOffTimer) {
-                if (var.currentValue) {
-                    var.timer.stop();
-                    var.counter = 0;
-                    var.endTimer = true;
-                } else {
-                    var.timer.start();
-                }
+    public void resetProgram(List<String> lineList) {
+        compileExecutor.execute(() -> editorProgram.reset(lineList));
+    }
+
+    // Diagnóstico enquanto se digita: compila fora da EDT juntando todos os erros e, se swap
+    // (CLP rodando) e o programa não tiver erros, agenda a troca online para o próximo tick.
+    // onResult recebe, na EDT, a lista de diagnósticos (vazia em caso de sucesso).
+    public void checkProgram(boolean swap, Consumer<List<Diagnostic>> onResult) {
+        int periodMs = defaultPeriodMs;
+        compileExecutor.execute(() -> {
+            List<Diagnostic> diagnostics = new ArrayList<>();
+            CompiledProgram program = editorProgram.compile(periodMs, diagnostics);
+            if (program != null && swap) {
+                scheduler.requestSwap(program);
             }
+            SwingUtilities.invokeLater(() -> onResult.accept(diagnostics));
+        });
+    }
+
+    // Atende imediatamente as tarefas de evento ligadas às entradas alteradas, entre as varreduras
+    public void dispatchInputEvents() {
+        if (HomePageModel.isRunning()) {
+            scheduler.dispatchEvents();
         }
     }
 
-    public void stopTimers() {
-        for (Map.Entry<String, MemoryVariable> variable : HomePageModel.getMemoryVariables().entrySet()) {
-            if (variable.getKey().charAt(0) == 'T') {
-                variable.getValue().timer.stop();
+    public void runCycle(ActionEvent evt) {
+        if (!HomePageModel.isRunning()) {
+            ((Timer) evt.getSource()).stop();
+            return;
+        }
+
+        // Sem breakpoints nem varredura interrompida, o tick normal não tem custo extra
+        if (breakpoints.isEmpty() && !scheduler.isStepping()) {
+            scheduler.tick(elapsedSinceLastScan());
+        } else {
+            String hit = breakpoints.run(scheduler, elapsedSinceLastScan());
+            if (hit != null) {
+                ((Timer) evt.getSource()).stop();
+                // Os temporizadores ficam como estão: o tempo parado não conta ao continuar
+                HomePageModel.setMode(ExecutionMode.STOPPED);
+                homePage.showBreakpointHit(hit + " | " + getDebugStatus());
+                return;
             }
         }
+
+        // Uma troca online pode mudar os períodos das tarefas
+        Timer cycleTimer = (Timer) evt.getSource();
+        if (cycleTimer.getDelay() != scheduler.getTickMs()) {
+            cycleTimer.setDelay(scheduler.getTickMs());
+        }
+
+        homePage.updateMode();
+        homePage.updateSceneUI();
+        homePage.updateMemoryVariables();
+        if (isCoverageEnabled() || isProfiling()) {
+            homePage.refreshLineOverlay();
+        }
     }
 
-    public void resetTimers() {
-        for (Map.Entry<String, MemoryVariable> variable : HomePageModel.getMemoryVariables().entrySet()) {
-            if (variable.getKey().charAt(0) == 'T') {
-                variable.getValue().counter = 0;
-            }
+    // Tempo real decorrido desde a última varredura; a primeira após o start conta como zero
+    private int elapsedSinceLastScan() {
+        long now = System.nanoTime();
+        if (lastScanNanos == 0) {
+            lastScanNanos = now;
+            return 0;
         }
+        int elapsedMs = (int) ((now - lastScanNanos) / 1_000_000);
+        lastScanNanos += elapsedMs * 1_000_000L;
+        return elapsedMs;
+    }
+
+    public void stopTimers() {
+        HomePageModel.getContext().stopTimers();
+        lastScanNanos = 0;
+    }
+
+    public void resetTimers() {
+        HomePageModel.getContext().resetTimers();
     }
 
     public void handleRefreshAction() {
@@ -200,10 +599,11 @@ public class HomePageController {
 
         for (Map.Entry<String, MemoryVariable> entry : HomePageModel.getMemoryVariables().entrySet()) {
             MemoryVariable variable = entry.getValue();
-            variable.timer.stop();
+            variable.stopTimer();
             variable.counter = 0;
             variable.currentValue = false;
         }
+        HomePageModel.getContext().clearWords();
 
         homePage.updateMemoryVariables();
         homePage.updateSceneUI();
@@ -2,18 +2,21 @@ package Models;
 
 import ilcompiler.input.Input.InputType;
 import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.runtime.PlcContext;
 import java.util.HashMap;
 import java.util.Map;
 
+// Estado da tela principal; o estado da CLP fica na instância de PlcContext exibida
 public class HomePageModel {
 
     private static Map<String, InputType> inputsType = new HashMap<>();
-    private static Map<String, Boolean> inputs = new HashMap<>();
-    private static Map<String, Boolean> outputs = new HashMap<>();
-    private static Map<String, MemoryVariable> memoryVariables = new HashMap<>();
-    private static ExecutionMode mode = ExecutionMode.IDLE;
+    private static PlcContext context = new PlcContext();
     private static Integer color = 1;
 
+    public static PlcContext getContext() {
+        return context;
+    }
+
     public static Map<String, InputType> getInputsType() {
         return inputsType;
     }
@@ -23,27 +26,27 @@ public class HomePageModel {
     }
 
     public static Map<String, Boolean> getInputs() {
-        return inputs;
+        return context.getInputs();
     }
 
     public static void setInputs(Map<String, Boolean> map) {
-        inputs = map;
+        context.setInputs(map);
     }
 
     public static Map<String, Boolean> getOutputs() {
-        return outputs;
+        return context.getOutputs();
     }
 
     public static void setOutputs(Map<String, Boolean> map) {
-        outputs = map;
+        context.setOutputs(map);
     }
 
     public static Map<String, MemoryVariable> getMemoryVariables() {
-        return memoryVariables;
+        return context.getMemoryVariables();
     }
 
     public static void setMemoryVariables(Map<String, MemoryVariable> map) {
-        memoryVariables = map;
+        context.setMemoryVariables(map);
     }
 
     public static Integer getColor() {
@@ -55,22 +58,22 @@ public class HomePageModel {
     }
 
     public static void setMode(ExecutionMode newMode) {
-        mode = newMode;
+        context.setMode(newMode);
     }
 
     public static ExecutionMode getMode() {
-        return mode;
+        return context.getMode();
     }
 
     public static boolean isRunning() {
-        return mode == ExecutionMode.RUNNING;
+        return context.getMode() == ExecutionMode.RUNNING;
     }
 
     public static boolean isStopped() {
-        return mode == ExecutionMode.STOPPED;
+        return context.getMode() == ExecutionMode.STOPPED;
     }
 
     public static boolean isIdle() {
-        return mode == ExecutionMode.IDLE;
+        return context.getMode() == ExecutionMode.IDLE;
     }
 }
@@ -1,8 +1,14 @@
+import ilcompiler.runtime.HeadlessCli;
 import screens.HomePg;
 
 public class SimuladorClp {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            HeadlessCli.run(args);
+            return;
+        }
+
         HomePg tela = new HomePg();
         tela.setVisible(true);
     }
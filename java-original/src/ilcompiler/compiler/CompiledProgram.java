@@ -0,0 +1,33 @@
+package ilcompiler.compiler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Resultado imutável da compilação; pode ser compartilhado entre várias instâncias de CLP
+public class CompiledProgram {
+
+    private final List<CompiledTask> tasks;
+    private final Set<String> addresses;
+    private final int defaultPeriodMs;
+
+    public CompiledProgram(List<CompiledTask> tasks, Set<String> addresses, int defaultPeriodMs) {
+        this.tasks = List.copyOf(tasks);
+        this.addresses = Collections.unmodifiableSet(new TreeSet<>(addresses));
+        this.defaultPeriodMs = defaultPeriodMs;
+    }
+
+    public List<CompiledTask> getTasks() {
+        return tasks;
+    }
+
+    // Endereços (I, Q, M, T, C) referenciados pelo programa, em ordem alfabética
+    public Set<String> getAddresses() {
+        return addresses;
+    }
+
+    public int getDefaultPeriodMs() {
+        return defaultPeriodMs;
+    }
+}
@@ -0,0 +1,57 @@
+package ilcompiler.compiler;
+
+// Seção compilada do programa: tarefa cíclica (período) ou de evento (entrada e borda)
+public class CompiledTask {
+
+    private final String name;
+    private final int periodMs;
+    private final int priority;
+    private final String eventAddress;
+    private final boolean risingEdge;
+    private final int firstLine;
+    private final Instruction[] code;
+
+    public CompiledTask(String name, int periodMs, int priority, String eventAddress, boolean risingEdge,
+            int firstLine, Instruction[] code) {
+        this.name = name;
+        this.periodMs = periodMs;
+        this.priority = priority;
+        this.eventAddress = eventAddress;
+        this.risingEdge = risingEdge;
+        this.firstLine = firstLine;
+        this.code = code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPeriodMs() {
+        return periodMs;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public boolean isEvent() {
+        return eventAddress != null;
+    }
+
+    public String getEventAddress() {
+        return eventAddress;
+    }
+
+    public boolean isRisingEdge() {
+        return risingEdge;
+    }
+
+    // Índice (base 0) da primeira linha da seção no programa completo
+    public int getFirstLine() {
+        return firstLine;
+    }
+
+    public Instruction[] getCode() {
+        return code;
+    }
+}
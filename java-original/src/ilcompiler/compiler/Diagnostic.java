@@ -0,0 +1,70 @@
+package ilcompiler.compiler;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Erro de compilação ou de execução localizado no texto: linha (base 0, -1 para o programa todo),
+// coluna do primeiro caractere e tamanho do trecho a sublinhar
+public class Diagnostic {
+
+    // "Linha 3: ..." dos erros de compilação e "... na linha 3!" dos erros de execução
+    private static final Pattern LINE = Pattern.compile("(?i)linha (\\d+)");
+
+    private final int line;
+    private final int column;
+    private final int length;
+    private final String message;
+
+    public Diagnostic(int line, int column, int length, String message) {
+        this.line = line;
+        this.column = column;
+        this.length = length;
+        this.message = message;
+    }
+
+    // Localiza a mensagem pela linha citada nela; o trecho é a linha sem os espaços das pontas.
+    // Sem o texto (lineList null) fica só a linha.
+    public static Diagnostic of(String message, List<String> lineList) {
+        Matcher matcher = LINE.matcher(message);
+        int line = matcher.find() ? Integer.parseInt(matcher.group(1)) - 1 : -1;
+        if (lineList == null) {
+            return new Diagnostic(Math.max(line, -1), 0, 0, message);
+        }
+        if (line < 0 || line >= lineList.size()) {
+            return new Diagnostic(-1, 0, 0, message);
+        }
+        return at(line, lineList.get(line), message);
+    }
+
+    // Erro numa linha conhecida (ex.: a da instrução em execução), com o texto só dessa linha
+    public static Diagnostic at(int line, String text, String message) {
+        if (line < 0) {
+            return new Diagnostic(-1, 0, 0, message);
+        }
+        String trimmed = text.stripTrailing();
+        int column = trimmed.length() - trimmed.stripLeading().length();
+        return new Diagnostic(line, column, trimmed.length() - column, message);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return line < 0 ? message : (line + 1) + ":" + (column + 1) + ": " + message;
+    }
+}
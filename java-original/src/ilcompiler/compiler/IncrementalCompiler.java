@@ -0,0 +1,88 @@
+package ilcompiler.compiler;
+
+import ilcompiler.io.IoMap;
+import java.util.ArrayList;
+import java.util.List;
+
+// Texto do programa mantido linha a linha junto com a análise de cada linha. Uma edição só
+// reanalisa as linhas tocadas; a compilação refaz apenas a montagem das seções e a ligação, um
+// passo linear sobre as instruções já validadas. Linhas abaixo de uma inserção ou remoção são
+// renumeradas na compilação seguinte, sem reanálise.
+// Não é thread-safe: no editor, é usado só pela thread do compilador.
+public class IncrementalCompiler {
+
+    private final List<String> lines = new ArrayList<>();
+    private final List<ProgramCompiler.ParsedLine> parsed = new ArrayList<>();
+    private IoMap ioMap;
+    // Primeira linha que pode estar com o índice antigo
+    private int shiftedFrom = Integer.MAX_VALUE;
+
+    public IncrementalCompiler() {
+        reset(List.of(""));
+    }
+
+    public void reset(List<String> lineList) {
+        lines.clear();
+        lines.addAll(lineList);
+        reparse();
+    }
+
+    // Troca removed linhas a partir de first pelas linhas de added
+    public void edit(int first, int removed, List<String> added) {
+        if (first < 0 || removed < 0 || first + removed > lines.size()) {
+            throw new IllegalArgumentException("Edição fora do programa: linhas " + first + " a "
+                    + (first + removed) + " de " + lines.size() + "!");
+        }
+        lines.subList(first, first + removed).clear();
+        lines.addAll(first, added);
+
+        List<ProgramCompiler.ParsedLine> replaced = new ArrayList<>(added.size());
+        for (int i = 0; i < added.size(); i++) {
+            replaced.add(ProgramCompiler.parse(added.get(i), first + i));
+        }
+        parsed.subList(first, first + removed).clear();
+        parsed.addAll(first, replaced);
+
+        if (removed != added.size()) {
+            shiftedFrom = Math.min(shiftedFrom, first + added.size());
+        }
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    public CompiledProgram compile(int defaultPeriodMs) {
+        prepare();
+        return ProgramCompiler.compile(parsed, lines, defaultPeriodMs, null);
+    }
+
+    // Como ProgramCompiler.compile(lineList, defaultPeriodMs, diagnostics)
+    public CompiledProgram compile(int defaultPeriodMs, List<Diagnostic> diagnostics) {
+        prepare();
+        return ProgramCompiler.compile(parsed, lines, defaultPeriodMs, diagnostics);
+    }
+
+    // Operandos de E/S foram resolvidos contra o mapa vigente na análise; outro mapa reanalisa tudo
+    private void prepare() {
+        if (ioMap != IoMap.getCurrent()) {
+            reparse();
+            return;
+        }
+        for (int i = shiftedFrom; i < parsed.size(); i++) {
+            if (parsed.get(i).index != i) {
+                parsed.set(i, parsed.get(i).at(i));
+            }
+        }
+        shiftedFrom = Integer.MAX_VALUE;
+    }
+
+    private void reparse() {
+        ioMap = IoMap.getCurrent();
+        parsed.clear();
+        for (int i = 0; i < lines.size(); i++) {
+            parsed.add(ProgramCompiler.parse(lines.get(i), i));
+        }
+        shiftedFrom = Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,166 @@
+package ilcompiler.compiler;
+
+import ilcompiler.interpreter.Interpreter;
+import ilcompiler.io.IoMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Instrução já separada em operador e operandos; line é o índice (base 0) da linha no programa.
+// Um operando de E/S é resolvido aqui, uma vez, para o seu índice no mapa de E/S vigente;
+// um operando de palavra (MW, IW ou constante) para o índice ou o valor.
+// Desvios e chamadas recebem na compilação o índice de destino no código da tarefa.
+public class Instruction {
+
+    // Destino de um desvio para um rótulo no fim do bloco: retorna como um RET
+    public static final int RETURN = -1;
+
+    private static final Pattern MEMORY_WORD = Pattern.compile("MW\\d+");
+    private static final Pattern ANALOG_WORD = Pattern.compile("IW\\d+");
+    private static final Pattern CONSTANT = Pattern.compile("-?\\d+");
+
+    public enum WordOperand {
+        NONE, MEMORY, ANALOG, CONSTANT
+    }
+
+    private final String operator;
+    private final List<String> operands;
+    private final int line;
+    private final IoMap ioMap;
+    private final int ioIndex;
+    private final WordOperand wordOperand;
+    private final int wordValue;
+    private final boolean flow;
+    private final byte nesting;
+    private final int target;
+    private final boolean blockEnd;
+
+    public Instruction(String operator, List<String> operands, int line) {
+        this.operator = operator;
+        this.operands = List.copyOf(operands);
+        this.line = line;
+        this.ioMap = IoMap.getCurrent();
+        this.ioIndex = this.operands.isEmpty() ? -1 : ioMap.indexOf(this.operands.get(0));
+
+        String operand = this.operands.isEmpty() ? "" : this.operands.get(0);
+        WordOperand kind = WordOperand.NONE;
+        int value = 0;
+        try {
+            if (operand.startsWith("MW") && MEMORY_WORD.matcher(operand).matches()) {
+                value = Integer.parseInt(operand.substring(2));
+                kind = WordOperand.MEMORY;
+            } else if (operand.startsWith("IW") && ANALOG_WORD.matcher(operand).matches()) {
+                value = Integer.parseInt(operand.substring(2));
+                kind = WordOperand.ANALOG;
+            } else if (!operand.isEmpty() && !Character.isLetter(operand.charAt(0))
+                    && CONSTANT.matcher(operand).matches()) {
+                value = Integer.parseInt(operand);
+                kind = WordOperand.CONSTANT;
+            }
+        } catch (NumberFormatException ex) {
+            // Fora da faixa de int: fica sem resolver e a compilação recusa o operando
+        }
+        this.wordOperand = kind;
+        this.wordValue = value;
+        this.flow = Interpreter.isFlowOperator(operator);
+        this.nesting = Interpreter.nestingOf(operator);
+        this.target = RETURN;
+        this.blockEnd = false;
+    }
+
+    // Instrução já compilada, lida do cache (ProgramCache) sem nova análise
+    Instruction(String operator, List<String> operands, int line, IoMap ioMap, int ioIndex, WordOperand wordOperand,
+            int wordValue, boolean flow, byte nesting, int target, boolean blockEnd) {
+        this.operator = operator;
+        this.operands = operands;
+        this.line = line;
+        this.ioMap = ioMap;
+        this.ioIndex = ioIndex;
+        this.wordOperand = wordOperand;
+        this.wordValue = wordValue;
+        this.flow = flow;
+        this.nesting = nesting;
+        this.target = target;
+        this.blockEnd = blockEnd;
+    }
+
+    private Instruction(Instruction base, int line, int target, boolean blockEnd) {
+        this.operator = base.operator;
+        this.operands = base.operands;
+        this.line = line;
+        this.ioMap = base.ioMap;
+        this.ioIndex = base.ioIndex;
+        this.wordOperand = base.wordOperand;
+        this.wordValue = base.wordValue;
+        this.flow = base.flow;
+        this.nesting = base.nesting;
+        this.target = target;
+        this.blockEnd = blockEnd;
+    }
+
+    // Cópia posicionada no código de uma tarefa
+    Instruction resolve(int newTarget, boolean newBlockEnd) {
+        return new Instruction(this, line, newTarget, newBlockEnd);
+    }
+
+    // Cópia em outra linha, quando linhas acima são inseridas ou removidas
+    Instruction atLine(int newLine) {
+        return new Instruction(this, newLine, target, blockEnd);
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public List<String> getOperands() {
+        return operands;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    // Mapa de E/S usado na resolução do operando
+    public IoMap getIoMap() {
+        return ioMap;
+    }
+
+    // Índice do operando na imagem de entradas (I) ou de saídas (Q); -1 nos demais operandos
+    public int getIoIndex() {
+        return ioIndex;
+    }
+
+    public WordOperand getWordOperand() {
+        return wordOperand;
+    }
+
+    // Índice em MW ou IW, ou o valor da constante
+    public int getWordValue() {
+        return wordValue;
+    }
+
+    // JMP, CAL, RET e variantes condicionais: só mudam a próxima instrução
+    public boolean isFlow() {
+        return flow;
+    }
+
+    // Parênteses: operação guardada pela abertura (PlcContext.NESTED_*), Interpreter.CLOSE_NESTING
+    // no ')' ou Interpreter.NO_NESTING
+    public byte getNesting() {
+        return nesting;
+    }
+
+    // Índice de destino de JMP/CAL no código da tarefa, ou RETURN
+    public int getTarget() {
+        return target;
+    }
+
+    // Última instrução da tarefa ou da função: depois dela o bloco retorna
+    public boolean isBlockEnd() {
+        return blockEnd;
+    }
+
+    @Override
+    public String toString() {
+        return operator + " " + String.join(",", operands);
+    }
+}
@@ -0,0 +1,422 @@
+package ilcompiler.compiler;
+
+import ilcompiler.io.IoMap;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Cache em disco dos programas compilados: um arquivo por programa, com o nome do SHA-256 da
+// versão do compilador, do período padrão, do mapa de E/S e do texto (as linhas, ou os bytes do
+// arquivo de origem, lido mapeado sem montar as linhas). O arquivo do cache é lido inteiro para a
+// memória e as instruções são montadas sem nova análise das linhas. Só entram no cache programas
+// compilados sem nenhum diagnóstico: um acerto não tem diagnósticos a devolver.
+// Layout: [MAGIC][VERSION][ProgramCompiler.VERSION][chave][período padrão][tabela de textos]
+//         [endereços][tarefas, cada uma com as suas instruções]; textos são índices na tabela.
+// A pasta é a da propriedade simulador.cache ("off" desliga) ou ~/.simulador-clp/cache.
+// O total da pasta fica abaixo do limite (simulador.cache.limite, em MB; 1024 por padrão): cada
+// gravação apaga os programas usados há mais tempo (a data de modificação é renovada a cada
+// leitura) e temporários esquecidos há mais de um dia.
+public class ProgramCache {
+
+    public static final int MAGIC = 0x494C4350; // "ILCP"
+    public static final int VERSION = 1;
+    public static final String PROPERTY = "simulador.cache";
+    public static final String OFF = "off";
+    public static final String LIMIT_PROPERTY = "simulador.cache.limite";
+    public static final long DEFAULT_LIMIT_MB = 1024;
+
+    private static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("user.home"), ".simulador-clp", "cache");
+    private static final String EXTENSION = ".ilc";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final long STALE_TEMP_MS = 24 * 60 * 60 * 1000L;
+    private static final int NO_STRING = -1;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+    private static final long HASH_CHUNK_BYTES = 1 << 26;
+    // Origem do texto na chave: linhas em memória ou bytes do arquivo
+    private static final int LINES_SOURCE = 0;
+    private static final int FILE_SOURCE = 1;
+    // Bits de flags de cada instrução
+    private static final int FLOW_BIT = 1;
+    private static final int BLOCK_END_BIT = 2;
+
+    private static volatile Path directory = initialDirectory();
+    private static volatile long limitBytes = initialLimitMb() << 20;
+
+    private static Path initialDirectory() {
+        String property = System.getProperty(PROPERTY);
+        if (property == null) {
+            return DEFAULT_DIRECTORY;
+        }
+        return property.equals(OFF) ? null : Path.of(property);
+    }
+
+    // Valor inválido na propriedade fica com o limite padrão
+    private static long initialLimitMb() {
+        try {
+            long limitMb = Long.parseLong(System.getProperty(LIMIT_PROPERTY, String.valueOf(DEFAULT_LIMIT_MB)));
+            return limitMb > 0 ? limitMb : DEFAULT_LIMIT_MB;
+        } catch (NumberFormatException ex) {
+            return DEFAULT_LIMIT_MB;
+        }
+    }
+
+    // Pasta em uso, ou null com o cache desligado
+    public static Path getDirectory() {
+        return directory;
+    }
+
+    public static void setDirectory(Path newDirectory) {
+        directory = newDirectory;
+    }
+
+    public static long getLimitMb() {
+        return limitBytes >> 20;
+    }
+
+    public static void setLimitMb(long limitMb) {
+        if (limitMb <= 0) {
+            throw new IllegalArgumentException("Limite do cache deve ser positivo!");
+        }
+        limitBytes = limitMb << 20;
+    }
+
+    public static CompiledProgram compile(List<String> lineList, int defaultPeriodMs) {
+        return compile(lineList, defaultPeriodMs, null);
+    }
+
+    // Como ProgramCompiler.compile(lineList, defaultPeriodMs, diagnostics), passando pelo cache
+    public static CompiledProgram compile(List<String> lineList, int defaultPeriodMs, List<Diagnostic> diagnostics) {
+        Path folder = directory;
+        if (folder == null) {
+            return ProgramCompiler.compile(lineList, defaultPeriodMs, diagnostics);
+        }
+
+        MessageDigest digest = digest(LINES_SOURCE, defaultPeriodMs);
+        for (String line : lineList) {
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        byte[] key = digest.digest();
+        Path file = folder.resolve(hex(key) + EXTENSION);
+        CompiledProgram program = load(file, key);
+        if (program != null) {
+            return program;
+        }
+
+        int diagnosticCount = diagnostics == null ? 0 : diagnostics.size();
+        program = ProgramCompiler.compile(lineList, defaultPeriodMs, diagnostics);
+        if (program != null && (diagnostics == null || diagnostics.size() == diagnosticCount)) {
+            store(folder, file, key, program);
+        }
+        return program;
+    }
+
+    public static CompiledProgram compileFile(String file, int defaultPeriodMs) throws IOException {
+        return compileFile(file, defaultPeriodMs, null);
+    }
+
+    // A chave sai dos bytes do arquivo mapeado; só uma falta de cache lê as linhas, compilando
+    // enquanto lê (ProgramCompiler.compileFile)
+    public static CompiledProgram compileFile(String file, int defaultPeriodMs, List<Diagnostic> diagnostics)
+            throws IOException {
+        Path folder = directory;
+        if (folder == null) {
+            return ProgramCompiler.compileFile(file, defaultPeriodMs, diagnostics);
+        }
+
+        MessageDigest digest = digest(FILE_SOURCE, defaultPeriodMs);
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += HASH_CHUNK_BYTES) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(HASH_CHUNK_BYTES, size - position)));
+            }
+        }
+        byte[] key = digest.digest();
+        Path cached = folder.resolve(hex(key) + EXTENSION);
+        CompiledProgram program = load(cached, key);
+        if (program != null) {
+            return program;
+        }
+
+        int diagnosticCount = diagnostics == null ? 0 : diagnostics.size();
+        program = ProgramCompiler.compileFile(file, defaultPeriodMs, diagnostics);
+        if (program != null && (diagnostics == null || diagnostics.size() == diagnosticCount)) {
+            store(folder, cached, key, program);
+        }
+        return program;
+    }
+
+    // Início comum das chaves: tudo o que, além do texto, muda o resultado da compilação
+    private static MessageDigest digest(int source, int defaultPeriodMs) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(16);
+        header.putInt(VERSION).putInt(ProgramCompiler.VERSION).putInt(source).putInt(defaultPeriodMs);
+        digest.update(header.array());
+
+        IoMap ioMap = IoMap.getCurrent();
+        digest.update((String.join(" ", ioMap.getInputIds()) + "|" + String.join(" ", ioMap.getOutputIds()) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        return digest;
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder text = new StringBuilder(bytes.length * 2);
+        for (byte value : bytes) {
+            text.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return text.toString();
+    }
+
+    // -------------------- Leitura --------------------
+    // Arquivo ausente, de outra versão, de outra chave ou truncado: null, e o programa é compilado de novo
+    private static CompiledProgram load(Path file, byte[] key) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        CompiledProgram program;
+        try {
+            // Lido para o heap: um mapeamento só seria solto pelo GC e, no Windows, impediria o evict
+            program = read(ByteBuffer.wrap(Files.readAllBytes(file)), key);
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+        // Último uso, para a remoção dos mais antigos
+        if (program != null) {
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ex) {
+                // Sem permissão para renovar: o programa só sai do cache mais cedo
+            }
+        }
+        return program;
+    }
+
+    private static CompiledProgram read(ByteBuffer buffer, byte[] key) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != ProgramCompiler.VERSION) {
+            return null;
+        }
+        byte[] storedKey = new byte[key.length];
+        buffer.get(storedKey);
+        if (!Arrays.equals(storedKey, key)) {
+            return null;
+        }
+        int defaultPeriodMs = buffer.getInt();
+
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Set<String> addresses = new HashSet<>();
+        int addressCount = buffer.getInt();
+        for (int i = 0; i < addressCount; i++) {
+            addresses.add(strings[buffer.getInt()]);
+        }
+
+        IoMap ioMap = IoMap.getCurrent();
+        Instruction.WordOperand[] wordOperands = Instruction.WordOperand.values();
+        List<CompiledTask> tasks = new ArrayList<>();
+        int taskCount = buffer.getInt();
+        for (int t = 0; t < taskCount; t++) {
+            String name = strings[buffer.getInt()];
+            int periodMs = buffer.getInt();
+            int priority = buffer.getInt();
+            int event = buffer.getInt();
+            boolean risingEdge = buffer.get() != 0;
+            int firstLine = buffer.getInt();
+
+            Instruction[] code = new Instruction[buffer.getInt()];
+            for (int i = 0; i < code.length; i++) {
+                String operator = strings[buffer.getInt()];
+                String[] operands = new String[buffer.get()];
+                for (int o = 0; o < operands.length; o++) {
+                    operands[o] = strings[buffer.getInt()];
+                }
+                int line = buffer.getInt();
+                int ioIndex = buffer.getInt();
+                Instruction.WordOperand wordOperand = wordOperands[buffer.get()];
+                int wordValue = buffer.getInt();
+                byte flags = buffer.get();
+                byte nesting = buffer.get();
+                int target = buffer.getInt();
+                code[i] = new Instruction(operator, List.of(operands), line, ioMap, ioIndex, wordOperand, wordValue,
+                        (flags & FLOW_BIT) != 0, nesting, target, (flags & BLOCK_END_BIT) != 0);
+            }
+            tasks.add(new CompiledTask(name, periodMs, priority, event == NO_STRING ? null : strings[event],
+                    risingEdge, firstLine, code));
+        }
+        return new CompiledProgram(tasks, addresses, defaultPeriodMs);
+    }
+
+    // -------------------- Gravação --------------------
+    // Grava num arquivo temporário e renomeia: processos em paralelo nunca leem um arquivo pela metade.
+    // Uma falha só deixa o programa fora do cache.
+    private static void store(Path folder, Path file, byte[] key, CompiledProgram program) {
+        Path temp = null;
+        try {
+            Files.createDirectories(folder);
+            temp = Files.createTempFile(folder, "programa", TEMP_EXTENSION);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp),
+                    WRITE_BUFFER_BYTES))) {
+                write(out, key, program);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+                // O temporário fica para trás; não afeta a leitura do cache
+            }
+            return;
+        }
+        evict(folder, file);
+    }
+
+    // Apaga os programas usados há mais tempo até o total caber no limite; o recém-gravado fica
+    // mesmo que sozinho passe do limite. Um arquivo em uso por outro processo que não possa ser
+    // apagado é só pulado.
+    private static void evict(Path folder, Path kept) {
+        long now = System.currentTimeMillis();
+        List<Path> entries = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path entry : stream) {
+                String name = entry.getFileName().toString();
+                try {
+                    BasicFileAttributes entryAttributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (name.endsWith(TEMP_EXTENSION)
+                            && now - entryAttributes.lastModifiedTime().toMillis() > STALE_TEMP_MS) {
+                        Files.deleteIfExists(entry);
+                    } else if (name.endsWith(EXTENSION)) {
+                        entries.add(entry);
+                        attributes.put(entry, entryAttributes);
+                        total += entryAttributes.size();
+                    }
+                } catch (IOException ex) {
+                    // Apagado por outro processo durante a listagem
+                }
+            }
+        } catch (IOException ex) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(entry -> attributes.get(entry).lastModifiedTime()));
+        for (Path entry : entries) {
+            if (total <= limitBytes) {
+                break;
+            }
+            if (entry.equals(kept)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry);
+                total -= attributes.get(entry).size();
+            } catch (IOException ex) {
+                // Em uso (aberto por outro processo no Windows): fica para a próxima gravação
+            }
+        }
+    }
+
+    private static void write(DataOutputStream out, byte[] key, CompiledProgram program) throws IOException {
+        Map<String, Integer> index = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (String address : program.getAddresses()) {
+            intern(address, index, strings);
+        }
+        for (CompiledTask task : program.getTasks()) {
+            intern(task.getName(), index, strings);
+            if (task.isEvent()) {
+                intern(task.getEventAddress(), index, strings);
+            }
+            for (Instruction instruction : task.getCode()) {
+                intern(instruction.getOperator(), index, strings);
+                for (String operand : instruction.getOperands()) {
+                    intern(operand, index, strings);
+                }
+            }
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(ProgramCompiler.VERSION);
+        out.write(key);
+        out.writeInt(program.getDefaultPeriodMs());
+
+        out.writeInt(strings.size());
+        for (String text : strings) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeInt(program.getAddresses().size());
+        for (String address : program.getAddresses()) {
+            out.writeInt(index.get(address));
+        }
+
+        out.writeInt(program.getTasks().size());
+        for (CompiledTask task : program.getTasks()) {
+            out.writeInt(index.get(task.getName()));
+            out.writeInt(task.getPeriodMs());
+            out.writeInt(task.getPriority());
+            out.writeInt(task.isEvent() ? index.get(task.getEventAddress()) : NO_STRING);
+            out.writeByte(task.isRisingEdge() ? 1 : 0);
+            out.writeInt(task.getFirstLine());
+
+            out.writeInt(task.getCode().length);
+            for (Instruction instruction : task.getCode()) {
+                out.writeInt(index.get(instruction.getOperator()));
+                out.writeByte(instruction.getOperands().size());
+                for (String operand : instruction.getOperands()) {
+                    out.writeInt(index.get(operand));
+                }
+                out.writeInt(instruction.getLine());
+                out.writeInt(instruction.getIoIndex());
+                out.writeByte(instruction.getWordOperand().ordinal());
+                out.writeInt(instruction.getWordValue());
+                out.writeByte((instruction.isFlow() ? FLOW_BIT : 0) | (instruction.isBlockEnd() ? BLOCK_END_BIT : 0));
+                out.writeByte(instruction.getNesting());
+                out.writeInt(instruction.getTarget());
+            }
+        }
+    }
+
+    private static void intern(String text, Map<String, Integer> index, List<String> strings) {
+        if (!index.containsKey(text)) {
+            index.put(text, strings.size());
+            strings.add(text);
+        }
+    }
+}
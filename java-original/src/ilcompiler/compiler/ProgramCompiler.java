@@ -0,0 +1,634 @@
+package ilcompiler.compiler;
+
+import ilcompiler.input.InputActions;
+import ilcompiler.interpreter.Interpreter;
+import ilcompiler.io.IoMap;
+import ilcompiler.runtime.PlcContext;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import save.Save;
+
+// Compila o texto do programa: divide em tarefas e separa cada linha em operador e operandos.
+// Seções são abertas pelas diretivas:
+//   TASK <nome>, <período ms>[, <prioridade>]               tarefa cíclica
+//   EVENT <nome>, <entrada>, RISING|FALLING[, <prioridade>]  tarefa de evento
+//   FUNCTION <nome>                                          função chamada com CAL <nome>
+// As linhas antes da primeira diretiva formam a tarefa MAIN com o período padrão.
+// Uma linha pode começar com um rótulo ("NOME:"), destino de JMP/JMPC/JMPCN na mesma seção.
+// AND(, ANDN(, OR( e ORN( abrem parênteses, fechados por ')' na mesma seção.
+// Cada tarefa recebe uma cópia das funções que chama, com os destinos já resolvidos para índices.
+public class ProgramCompiler {
+
+    public static final String DEFAULT_TASK = "MAIN";
+    public static final int DEFAULT_PRIORITY = 10;
+    // Mude sempre que a compilação mudar de resultado: invalida os programas guardados no ProgramCache
+    public static final int VERSION = 1;
+    private static final String TASK_DIRECTIVE = "TASK";
+    private static final String EVENT_DIRECTIVE = "EVENT";
+    private static final String FUNCTION_DIRECTIVE = "FUNCTION";
+    private static final Pattern LABEL = Pattern.compile("\\s*([A-Za-z_]\\w*):(.*)", Pattern.DOTALL);
+    // Padrões da análise de cada linha, compilados uma vez (String.matches recompila a cada chamada)
+    private static final Pattern CONSTANT = Pattern.compile("-?\\d+");
+    private static final Pattern WORD_LITERAL = Pattern.compile("-?\\d+|[MI]W\\d+");
+    private static final Pattern TIMER = Pattern.compile("T\\d+");
+    private static final Pattern RESETTABLE = Pattern.compile("[TC]\\d+");
+    private static final Pattern IO_ADDRESS = Pattern.compile("[IQ]\\d+(\\.\\d+)+");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s,]+");
+    private static final Set<String> PRESET_OPERATORS = Set.of("TON", "TOFF", "TP", "TONR", "CTU", "CTD");
+
+    public static CompiledProgram compile(List<String> lineList, int defaultPeriodMs) {
+        return build(parseAll(lineList), defaultPeriodMs, null);
+    }
+
+    // Compila juntando todos os erros em diagnostics em vez de parar no primeiro; devolve null se
+    // houver algum. Sem diagnostics (null), o primeiro erro é lançado.
+    public static CompiledProgram compile(List<String> lineList, int defaultPeriodMs, List<Diagnostic> diagnostics) {
+        return compile(parseAll(lineList), lineList, defaultPeriodMs, diagnostics);
+    }
+
+    // Compila direto do arquivo, analisando cada linha enquanto lê, sem guardar o texto nem passar
+    // pelo editor; os diagnósticos trazem só a linha (sem coluna)
+    public static CompiledProgram compileFile(String file, int defaultPeriodMs, List<Diagnostic> diagnostics)
+            throws IOException {
+        List<ParsedLine> parsed = new ArrayList<>();
+        Save.forEachLine(file, line -> parsed.add(parse(line, parsed.size())));
+        return compile(parsed, null, defaultPeriodMs, diagnostics);
+    }
+
+    public static CompiledProgram compileFile(String file, int defaultPeriodMs) throws IOException {
+        return compileFile(file, defaultPeriodMs, null);
+    }
+
+    // Compilação sobre linhas já analisadas (IncrementalCompiler); lineList, se houver, localiza os diagnósticos
+    static CompiledProgram compile(List<ParsedLine> parsed, List<String> lineList, int defaultPeriodMs,
+            List<Diagnostic> diagnostics) {
+        List<String> errors = diagnostics == null ? null : new ArrayList<>();
+        CompiledProgram program = build(parsed, defaultPeriodMs, errors);
+        if (errors == null || errors.isEmpty()) {
+            return program;
+        }
+        List<Diagnostic> found = new ArrayList<>();
+        for (String error : errors) {
+            found.add(Diagnostic.of(error, lineList));
+        }
+        found.sort(Comparator.comparingInt(Diagnostic::getLine));
+        diagnostics.addAll(found);
+        return null;
+    }
+
+    private static List<ParsedLine> parseAll(List<String> lineList) {
+        List<ParsedLine> parsed = new ArrayList<>(lineList.size());
+        for (int i = 0; i < lineList.size(); i++) {
+            parsed.add(parse(lineList.get(i), i));
+        }
+        return parsed;
+    }
+
+    // Linha analisada sem olhar as demais: diretiva, ou rótulo e instrução validada, ou o erro da
+    // linha. Rótulos, parênteses, destinos e tarefas dependem do resto do programa e ficam para o build.
+    static final class ParsedLine {
+
+        final int index;
+        final String[] directive;
+        final String label;
+        final Instruction instruction;
+        final String error;
+
+        ParsedLine(int index, String[] directive, String label, Instruction instruction, String error) {
+            this.index = index;
+            this.directive = directive;
+            this.label = label;
+            this.instruction = instruction;
+            this.error = error;
+        }
+
+        // A mesma linha deslocada por linhas inseridas ou removidas acima dela
+        ParsedLine at(int newIndex) {
+            String where = "Linha " + (index + 1) + ":";
+            String moved = error != null && error.startsWith(where)
+                    ? "Linha " + (newIndex + 1) + ":" + error.substring(where.length()) : error;
+            return new ParsedLine(newIndex, directive, label, instruction == null ? null
+                    : instruction.atLine(newIndex), moved);
+        }
+    }
+
+    static ParsedLine parse(String line, int index) {
+        String label = null;
+        String text = line;
+        Matcher matcher = LABEL.matcher(line);
+        if (line.indexOf(':') >= 0 && matcher.matches()) {
+            label = matcher.group(1);
+            text = matcher.group(2);
+        }
+
+        try {
+            String[] directive = label == null ? parseDirective(line, index) : null;
+            if (directive != null) {
+                return new ParsedLine(index, directive, null, null, null);
+            }
+            Instruction instruction = parseLine(text, index);
+            if (instruction != null) {
+                validate(instruction);
+            }
+            return new ParsedLine(index, null, label, instruction, null);
+        } catch (IllegalArgumentException ex) {
+            return new ParsedLine(index, null, label, null, ex.getMessage());
+        }
+    }
+
+    private static CompiledProgram build(List<ParsedLine> parsed, int defaultPeriodMs, Collection<String> errors) {
+        List<Section> sections = new ArrayList<>();
+        Section section = new Section(null, 0);
+
+        for (ParsedLine line : parsed) {
+            try {
+                if (line.directive == null) {
+                    section.addLine(line);
+                    continue;
+                }
+
+                sections.add(section);
+                section = new Section(line.directive, line.index + 1);
+            } catch (IllegalArgumentException ex) {
+                report(errors, ex);
+            }
+        }
+        sections.add(section);
+
+        Map<String, Section> functions = new HashMap<>();
+        for (Section function : sections) {
+            if (!function.isFunction()) {
+                continue;
+            }
+            if (functions.put(function.header[1], function) != null) {
+                report(errors, new IllegalArgumentException("Linha " + function.firstLine + ": Função "
+                        + function.header[1] + " declarada mais de uma vez!"));
+            }
+            if (function.code.isEmpty()) {
+                report(errors, new IllegalArgumentException("Linha " + function.firstLine + ": Função "
+                        + function.header[1] + " sem instruções!"));
+            }
+        }
+
+        Set<String> addresses = new HashSet<>();
+        for (Section checked : sections) {
+            try {
+                checked.checkClosed();
+            } catch (IllegalArgumentException ex) {
+                report(errors, ex);
+            }
+            checked.checkTargets(functions, errors);
+            for (Instruction instruction : checked.code) {
+                if (!instruction.isFlow() && !instruction.getOperands().get(0).isEmpty()) {
+                    addresses.add(instruction.getOperands().get(0));
+                }
+            }
+        }
+        // Profundidade de chamadas e ligação só com todos os destinos resolvidos
+        if (errors != null && !errors.isEmpty()) {
+            return null;
+        }
+
+        Map<Section, Integer> depths = new HashMap<>();
+        List<CompiledTask> tasks = new ArrayList<>();
+        for (Section task : sections) {
+            try {
+                Set<Section> active = new HashSet<>(Set.of(task));
+                if (callDepth(task, functions, active, depths) > PlcContext.MAX_CALL_DEPTH) {
+                    throw new IllegalArgumentException("Linha " + task.firstLine + ": Chamadas aninhadas além de "
+                            + PlcContext.MAX_CALL_DEPTH + " níveis!");
+                }
+                if (!task.isFunction()) {
+                    addSection(tasks, addresses, task, link(task, functions), defaultPeriodMs);
+                }
+            } catch (IllegalArgumentException ex) {
+                report(errors, ex);
+            }
+        }
+
+        int instructions = 0;
+        for (CompiledTask task : tasks) {
+            instructions += task.getCode().length;
+        }
+        if (instructions == 0) {
+            report(errors, new IllegalArgumentException("Insira as intruções para o CLP!"));
+        }
+
+        return errors != null && !errors.isEmpty() ? null : new CompiledProgram(tasks, addresses, defaultPeriodMs);
+    }
+
+    private static void report(Collection<String> errors, IllegalArgumentException ex) {
+        if (errors == null) {
+            throw ex;
+        }
+        errors.add(ex.getMessage());
+    }
+
+    // Seção do texto ainda sem ligação: instruções e rótulos (nome -> índice da instrução seguinte)
+    private static class Section {
+
+        final String[] header;
+        final int firstLine;
+        final List<Instruction> code = new ArrayList<>();
+        final Map<String, Integer> labels = new HashMap<>();
+        // Linhas dos parênteses ainda abertos
+        final Deque<Integer> openLines = new ArrayDeque<>();
+
+        Section(String[] header, int firstLine) {
+            this.header = header;
+            this.firstLine = firstLine;
+        }
+
+        boolean isFunction() {
+            return header != null && header[0].equals(FUNCTION_DIRECTIVE);
+        }
+
+        // Linha com rótulo opcional ("NOME:"), seguido ou não de uma instrução
+        void addLine(ParsedLine line) {
+            if (line.label != null) {
+                if (!openLines.isEmpty()) {
+                    throw new IllegalArgumentException("Linha " + (line.index + 1) + ": Rótulo " + line.label
+                            + " dentro de parênteses!");
+                }
+                if (labels.putIfAbsent(line.label, code.size()) != null) {
+                    throw new IllegalArgumentException("Linha " + (line.index + 1) + ": Rótulo " + line.label
+                            + " declarado mais de uma vez!");
+                }
+            }
+            if (line.error != null) {
+                throw new IllegalArgumentException(line.error);
+            }
+
+            if (line.instruction != null) {
+                nest(line.instruction);
+                code.add(line.instruction);
+            }
+        }
+
+        // Parênteses balanceados dentro da seção, sem desvios no meio e até a profundidade da pilha
+        // da instância
+        private void nest(Instruction instruction) {
+            String where = "Linha " + (instruction.getLine() + 1) + ": ";
+            byte nesting = instruction.getNesting();
+            if (nesting == Interpreter.CLOSE_NESTING) {
+                if (openLines.isEmpty()) {
+                    throw new IllegalArgumentException(where + "Sintaxe incorreta! ')' sem '(' correspondente!");
+                }
+                openLines.pop();
+            } else if (nesting != Interpreter.NO_NESTING) {
+                if (openLines.size() == PlcContext.MAX_NESTING) {
+                    throw new IllegalArgumentException(where + "Parênteses aninhados além de "
+                            + PlcContext.MAX_NESTING + " níveis!");
+                }
+                openLines.push(instruction.getLine());
+            } else if (instruction.isFlow() && !openLines.isEmpty()) {
+                throw new IllegalArgumentException(where + "Sintaxe incorreta! " + instruction.getOperator()
+                        + " dentro de parênteses!");
+            }
+        }
+
+        void checkClosed() {
+            if (!openLines.isEmpty()) {
+                throw new IllegalArgumentException("Linha " + (openLines.peek() + 1)
+                        + ": Sintaxe incorreta! Falta o ')' deste parêntese!");
+            }
+        }
+
+        // Desvios só para rótulos da própria seção; chamadas só para funções declaradas
+        void checkTargets(Map<String, Section> functions, Collection<String> errors) {
+            for (Instruction instruction : code) {
+                String name = instruction.getOperands().get(0);
+                if (isJump(instruction) && !labels.containsKey(name)) {
+                    report(errors, new IllegalArgumentException("Linha " + (instruction.getLine() + 1)
+                            + ": Sintaxe incorreta! Rótulo " + name + " não existe nesta seção!"));
+                }
+                if (isCall(instruction) && !functions.containsKey(name)) {
+                    report(errors, new IllegalArgumentException("Linha " + (instruction.getLine() + 1)
+                            + ": Sintaxe incorreta! Função " + name + " não existe!"));
+                }
+            }
+        }
+    }
+
+    private static boolean isJump(Instruction instruction) {
+        return instruction.isFlow() && instruction.getOperator().startsWith("JMP");
+    }
+
+    private static boolean isCall(Instruction instruction) {
+        return instruction.isFlow() && instruction.getOperator().startsWith("CAL");
+    }
+
+    // Maior profundidade de chamadas a partir da seção; recursão é recusada, pois a pilha de
+    // chamadas da instância tem tamanho fixo
+    private static int callDepth(Section section, Map<String, Section> functions, Set<Section> active,
+            Map<Section, Integer> depths) {
+        Integer known = depths.get(section);
+        if (known != null) {
+            return known;
+        }
+
+        int depth = 0;
+        for (Instruction instruction : section.code) {
+            if (!isCall(instruction)) {
+                continue;
+            }
+            Section callee = functions.get(instruction.getOperands().get(0));
+            if (!active.add(callee)) {
+                throw new IllegalArgumentException("Linha " + (instruction.getLine() + 1) + ": Chamada recursiva da "
+                        + "função " + callee.header[1] + "!");
+            }
+            depth = Math.max(depth, 1 + callDepth(callee, functions, active, depths));
+            active.remove(callee);
+        }
+        depths.put(section, depth);
+        return depth;
+    }
+
+    // Código de uma tarefa: o corpo seguido das funções que ele chama, direta ou indiretamente,
+    // com desvios e chamadas resolvidos para índices nesse vetor
+    private static Instruction[] link(Section task, Map<String, Section> functions) {
+        List<Section> blocks = new ArrayList<>(List.of(task));
+        Map<Section, Integer> offsets = new HashMap<>();
+        int size = 0;
+        for (int b = 0; b < blocks.size(); b++) {
+            Section block = blocks.get(b);
+            offsets.put(block, size);
+            size += block.code.size();
+            for (Instruction instruction : block.code) {
+                Section callee = isCall(instruction) ? functions.get(instruction.getOperands().get(0)) : null;
+                if (callee != null && !blocks.contains(callee)) {
+                    blocks.add(callee);
+                }
+            }
+        }
+
+        Instruction[] code = new Instruction[size];
+        for (Section block : blocks) {
+            int offset = offsets.get(block);
+            int length = block.code.size();
+            for (int j = 0; j < length; j++) {
+                Instruction instruction = block.code.get(j);
+                String name = instruction.getOperands().get(0);
+                int target = Instruction.RETURN;
+                if (isCall(instruction)) {
+                    target = offsets.get(functions.get(name));
+                } else if (isJump(instruction) && block.labels.get(name) < length) {
+                    target = offset + block.labels.get(name);
+                }
+                code[offset + j] = instruction.resolve(target, j == length - 1);
+            }
+        }
+        return code;
+    }
+
+    // Separa operador e operandos de uma linha; devolve null para linhas vazias
+    public static Instruction parseLine(String line, int index) {
+        if (line.isBlank()) {
+            return null;
+        }
+
+        char character;
+        boolean spaceDetected = false;
+        StringBuilder operatorText = new StringBuilder();
+        StringBuilder variable = new StringBuilder();
+        List<String> variables = new ArrayList<>();
+
+        for (int j = 0; j < line.length(); j++) {
+            character = line.charAt(j);
+
+            if (character != ' ' && character != '\n' && character != '\t' && character != ','
+                    && !spaceDetected) {
+                operatorText.append(character);
+            }
+
+            if ((character == ' ' || character == '\t') && operatorText.length() > 0) {
+                spaceDetected = true;
+            }
+
+            if (character == ',' && operatorText.length() > 0) {
+                variables.add(variable.toString());
+                variable.setLength(0);
+            }
+
+            if (character != ' ' && character != '\n' && character != '\t' && character != ','
+                    && spaceDetected) {
+                variable.append(character);
+            }
+        }
+
+        // Abertura de parênteses colada ao operando: "AND(I0.1"
+        String operator = operatorText.toString();
+        int open = operator.indexOf('(');
+        if (open > 0 && open < operator.length() - 1 && variables.isEmpty()) {
+            variable.insert(0, operator.substring(open + 1));
+            operator = operator.substring(0, open + 1);
+        }
+
+        variables.add(variable.toString());
+
+        return new Instruction(operator, variables, index);
+    }
+
+    private static void validate(Instruction instruction) {
+        String operator = instruction.getOperator();
+        List<String> operands = instruction.getOperands();
+        String where = "Linha " + (instruction.getLine() + 1) + ": ";
+
+        if (!Interpreter.operatorIsValid(operator)) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador " + operator + " não existe!");
+        }
+
+        if (operator.startsWith("RET") || operator.equals(")")) {
+            if (operands.size() != 1 || !operands.get(0).isEmpty()) {
+                throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador " + operator
+                        + " não aceita operandos!");
+            }
+            return;
+        }
+
+        // A abertura de parênteses sem operando espera um LD na linha seguinte
+        if (operands.get(0).isEmpty() && Interpreter.nestingOf(operator) == Interpreter.NO_NESTING) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador " + operator
+                    + " precisa de um operando!");
+        }
+
+        if (PRESET_OPERATORS.contains(operator)) {
+            if (operands.size() != 2 || !CONSTANT.matcher(operands.get(1)).matches()) {
+                throw new IllegalArgumentException(where + "Sintaxe incorreta! Use " + operator
+                        + " <memória>, <valor>!");
+            }
+        } else if (operands.size() != 1) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador " + operator
+                    + " aceita apenas um operando!");
+        }
+
+        String operand = operands.get(0);
+        validateWord(instruction, where);
+
+        // TP e TONR só em temporizadores (o pulso precisa de duração); RES em temporizadores e contadores
+        if ((operator.equals("TP") || operator.equals("TONR")) && !TIMER.matcher(operand).matches()) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador " + operator
+                    + " só aceita temporizadores (T)!");
+        }
+        if (operator.equals("TP") && Integer.parseInt(operands.get(1)) <= 0) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! A duração do pulso deve ser positiva!");
+        }
+        if (operator.equals("RES") && !RESETTABLE.matcher(operand).matches()) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador RES só aceita temporizadores (T) "
+                    + "e contadores (C)!");
+        }
+
+        // Endereços de E/S são conferidos contra o mapa de E/S aqui, não a cada varredura
+        if (instruction.getIoIndex() < 0 && IO_ADDRESS.matcher(operand).matches()) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! " + (operand.charAt(0) == 'I' ? "Entrada "
+                    : "Saída ") + operand + " não existe no mapa de E/S (" + IoMap.getCurrent() + ")!");
+        }
+
+        // Bordas vêm da cópia da imagem de E/S da varredura anterior
+        if ((operator.equals("R_TRIG") || operator.equals("F_TRIG")) && instruction.getIoIndex() < 0) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! " + operator
+                    + " só aceita entradas e saídas do mapa de E/S!");
+        }
+    }
+
+    // Palavras: MW e IW dentro das memórias da instância; ST só em MW; demais operadores lógicos
+    // não aceitam palavras e os operadores de palavra só aceitam palavras
+    private static void validateWord(Instruction instruction, String where) {
+        String operator = instruction.getOperator();
+        String operand = instruction.getOperands().get(0);
+        Instruction.WordOperand kind = instruction.getWordOperand();
+
+        if (kind == Instruction.WordOperand.NONE) {
+            if (WORD_LITERAL.matcher(operand).matches()) {
+                throw new IllegalArgumentException(where + "Sintaxe incorreta! Valor " + operand
+                        + " fora da faixa!");
+            }
+            if (Interpreter.isWordOperator(operator)) {
+                throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador " + operator
+                        + " precisa de uma palavra (MW, IW) ou de uma constante!");
+            }
+            return;
+        }
+
+        if (!operator.equals("LD") && !operator.equals("ST") && !Interpreter.isWordOperator(operator)) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Operador " + operator
+                    + " não aceita a palavra " + operand + "!");
+        }
+        if (kind == Instruction.WordOperand.MEMORY && instruction.getWordValue() >= PlcContext.WORD_MEMORY_SIZE) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Palavra " + operand + " não existe (MW0 a MW"
+                    + (PlcContext.WORD_MEMORY_SIZE - 1) + ")!");
+        }
+        if (kind == Instruction.WordOperand.ANALOG && instruction.getWordValue() >= PlcContext.ANALOG_INPUTS) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! Entrada analógica " + operand
+                    + " não existe (IW0 a IW" + (PlcContext.ANALOG_INPUTS - 1) + ")!");
+        }
+        if (operator.equals("ST") && kind != Instruction.WordOperand.MEMORY) {
+            throw new IllegalArgumentException(where + "Sintaxe incorreta! " + operand
+                    + " não pode ser modificado, use ST com uma palavra MW!");
+        }
+    }
+
+    private static void addSection(List<CompiledTask> tasks, Set<String> addresses, Section section,
+            Instruction[] compiled, int defaultPeriodMs) {
+        String[] header = section.header;
+        int firstLine = section.firstLine;
+
+        CompiledTask task;
+        if (header == null) {
+            // Linhas antes da primeira diretiva só viram a tarefa MAIN se tiverem instruções
+            if (compiled.length == 0) {
+                return;
+            }
+            task = new CompiledTask(DEFAULT_TASK, defaultPeriodMs, DEFAULT_PRIORITY, null, false, firstLine, compiled);
+        } else if (header[0].equals(TASK_DIRECTIVE)) {
+            int period = parseNumber(header, 2, true, firstLine - 1);
+            int priority = header.length > 3 ? parseNumber(header, 3, false, firstLine - 1) : DEFAULT_PRIORITY;
+            task = new CompiledTask(header[1], period, priority, null, false, firstLine, compiled);
+        } else {
+            boolean rising = switch (header[3]) {
+                case "RISING" ->
+                    true;
+                case "FALLING" ->
+                    false;
+                default ->
+                    throw new IllegalArgumentException("Linha " + firstLine + ": Sintaxe incorreta! Borda "
+                            + header[3] + " inválida, use RISING ou FALLING!");
+            };
+            int priority = header.length > 4 ? parseNumber(header, 4, false, firstLine - 1) : DEFAULT_PRIORITY;
+            task = new CompiledTask(header[1], 0, priority, header[2], rising, firstLine, compiled);
+            addresses.add(header[2]);
+        }
+
+        for (CompiledTask other : tasks) {
+            if (other.getName().equals(task.getName())) {
+                throw new IllegalArgumentException("Linha " + firstLine + ": Tarefa " + task.getName()
+                        + " declarada mais de uma vez!");
+            }
+        }
+
+        tasks.add(task);
+    }
+
+    private static String[] parseDirective(String line, int index) {
+        String trimmed = line.trim();
+        // A maioria das linhas é instrução: só as que começam por uma diretiva são separadas
+        if (!trimmed.startsWith(TASK_DIRECTIVE) && !trimmed.startsWith(FUNCTION_DIRECTIVE)
+                && !trimmed.startsWith(EVENT_DIRECTIVE)) {
+            return null;
+        }
+        String[] tokens = SEPARATORS.split(trimmed);
+        String where = "Linha " + (index + 1) + ": ";
+
+        if (tokens[0].equals(TASK_DIRECTIVE)) {
+            if (tokens.length < 3 || tokens.length > 4) {
+                throw new IllegalArgumentException(where
+                        + "Sintaxe incorreta! Use TASK <nome>, <período ms>, <prioridade>!");
+            }
+            return tokens;
+        }
+
+        if (tokens[0].equals(FUNCTION_DIRECTIVE)) {
+            if (tokens.length != 2) {
+                throw new IllegalArgumentException(where + "Sintaxe incorreta! Use FUNCTION <nome>!");
+            }
+            return tokens;
+        }
+
+        if (tokens[0].equals(EVENT_DIRECTIVE)) {
+            if (tokens.length < 4 || tokens.length > 5) {
+                throw new IllegalArgumentException(where
+                        + "Sintaxe incorreta! Use EVENT <nome>, <entrada>, RISING|FALLING, <prioridade>!");
+            }
+            if (!InputActions.exists(tokens[2])) {
+                throw new IllegalArgumentException(where + "Sintaxe incorreta! Entrada " + tokens[2] + " não existe!");
+            }
+            return tokens;
+        }
+
+        return null;
+    }
+
+    private static int parseNumber(String[] tokens, int index, boolean positive, int line) {
+        try {
+            int value = Integer.parseInt(tokens[index]);
+            if (value < 0 || positive && value == 0) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Linha " + (line + 1) + ": Sintaxe incorreta! Valor "
+                    + tokens[index] + " inválido na diretiva " + tokens[0] + "!");
+        }
+    }
+}
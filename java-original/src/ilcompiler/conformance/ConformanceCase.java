@@ -0,0 +1,104 @@
+package ilcompiler.conformance;
+
+import ilcompiler.input.InputActions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Programa IL e sequência de entradas executados nas duas implementações
+public class ConformanceCase {
+
+    private final int id;
+    private final String name;
+    private final List<String> program;
+    private final int periodMs;
+    private final int scans;
+    // Mudanças aplicadas antes da varredura: {varredura, índice da entrada, valor}
+    private final List<int[]> changes;
+
+    public ConformanceCase(int id, String name, List<String> program, int periodMs, int scans, List<int[]> changes) {
+        this.id = id;
+        this.name = name;
+        this.program = List.copyOf(program);
+        this.periodMs = periodMs;
+        this.scans = scans;
+        this.changes = List.copyOf(changes);
+    }
+
+    // Cada entrada troca de valor com a chance indicada a cada varredura
+    public static List<int[]> randomChanges(long seed, int scans, double toggleProbability) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int inputs = InputActions.getIds().size();
+        boolean[] values = new boolean[inputs];
+        List<int[]> changes = new ArrayList<>();
+        for (int scan = 0; scan < scans; scan++) {
+            for (int input = 0; input < inputs; input++) {
+                if (random.nextDouble() < toggleProbability) {
+                    values[input] = !values[input];
+                    changes.add(new int[]{scan, input, values[input] ? 1 : 0});
+                }
+            }
+        }
+        return changes;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getProgram() {
+        return program;
+    }
+
+    public int getPeriodMs() {
+        return periodMs;
+    }
+
+    public int getScans() {
+        return scans;
+    }
+
+    public List<int[]> getChanges() {
+        return changes;
+    }
+
+    // Entradas ligadas durante a varredura, para o relatório de divergência
+    public List<String> inputsAt(int scan) {
+        List<String> ids = InputActions.getIds();
+        boolean[] values = new boolean[ids.size()];
+        for (int[] change : changes) {
+            if (change[0] > scan) {
+                break;
+            }
+            values[change[1]] = change[2] == 1;
+        }
+        List<String> on = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i]) {
+                on.add(ids.get(i));
+            }
+        }
+        return on;
+    }
+
+    // Linha do protocolo do driver web (ver webConversion/scripts/conformance-driver.js)
+    public String toRequest() {
+        StringBuilder request = new StringBuilder();
+        request.append(id).append('\t').append(periodMs).append('\t').append(scans).append('\t');
+        for (int i = 0; i < program.size(); i++) {
+            request.append(i == 0 ? "" : "|").append(program.get(i).replace('\t', ' ').replace('|', ' '));
+        }
+        request.append('\t');
+        List<String> ids = InputActions.getIds();
+        for (int i = 0; i < changes.size(); i++) {
+            int[] change = changes.get(i);
+            request.append(i == 0 ? "" : ",").append(change[0]).append(':').append(ids.get(change[1]))
+                    .append(':').append(change[2]);
+        }
+        return request.toString();
+    }
+}
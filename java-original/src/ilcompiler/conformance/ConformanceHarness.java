@@ -0,0 +1,235 @@
+package ilcompiler.conformance;
+
+import Models.ExecutionMode;
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.ProgramCompiler;
+import ilcompiler.input.InputActions;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.TaskScheduler;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Teste diferencial entre o interpretador Java e o da versão web (webConversion/src/services).
+// Os casos são enviados em fluxo para um processo Node (webConversion/scripts/conformance-driver.js)
+// pela entrada padrão; enquanto o Node executa, o lado Java roda os mesmos casos em paralelo.
+// As respostas chegam na ordem dos pedidos e cada caso é comparado varredura a varredura.
+public class ConformanceHarness {
+
+    private final List<String> command;
+    private int maxDivergences = 10;
+
+    // command: ex.: ["node", "../webConversion/scripts/conformance-driver.js"]
+    public ConformanceHarness(List<String> command) {
+        this.command = List.copyOf(command);
+    }
+
+    // Quantas divergências entram no relatório por extenso (todas são contadas)
+    public void setMaxDivergences(int maxDivergences) {
+        this.maxDivergences = maxDivergences;
+    }
+
+    private static class Run {
+
+        final List<String> states;
+        final String error;
+
+        Run(List<String> states, String error) {
+            this.states = states;
+            this.error = error;
+        }
+    }
+
+    private static class Pending {
+
+        final ConformanceCase conformanceCase;
+        final Future<Run> java;
+
+        Pending(ConformanceCase conformanceCase, Future<Run> java) {
+            this.conformanceCase = conformanceCase;
+            this.java = java;
+        }
+    }
+
+    public ConformanceReport run(Iterator<ConformanceCase> cases) throws IOException, InterruptedException {
+        Process process;
+        try {
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        } catch (IOException ex) {
+            throw new IOException("Não foi possível iniciar o driver web (" + String.join(" ", command) + "): "
+                    + ex.getMessage() + ". Instale o Node.js 18 ou mais recente e deixe o node no PATH!", ex);
+        }
+        ExecutorService pool = Executors.newWorkStealingPool();
+        BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+        AtomicReference<IOException> writeError = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            try (BufferedWriter out = new BufferedWriter(
+                    new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8))) {
+                while (cases.hasNext()) {
+                    ConformanceCase next = cases.next();
+                    pending.add(new Pending(next, pool.submit(() -> runJava(next))));
+                    out.write(next.toRequest());
+                    out.newLine();
+                }
+            } catch (IOException ex) {
+                writeError.set(ex);
+            }
+        }, "conformance-writer");
+        writer.setDaemon(true);
+
+        long start = System.nanoTime();
+        int total = 0;
+        long scans = 0;
+        int divergent = 0;
+        int bothFailed = 0;
+        List<Divergence> divergences = new ArrayList<>();
+        writer.start();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Pending next = pending.poll();
+                String[] fields = line.split("\t", -1);
+                if (next == null || !fields[0].equals(String.valueOf(next.conformanceCase.getId()))) {
+                    throw new IllegalStateException("Resposta inesperada do driver web: " + line);
+                }
+
+                Run java = next.java.get();
+                Run web = parseResponse(fields);
+                total++;
+                scans += java.states.size();
+                if (java.error != null && web.error != null && java.states.size() == web.states.size()) {
+                    bothFailed++;
+                    continue;
+                }
+                Divergence divergence = compare(next.conformanceCase, java, web);
+                if (divergence != null) {
+                    divergent++;
+                    if (divergences.size() < maxDivergences) {
+                        divergences.add(divergence);
+                    }
+                }
+            }
+            writer.join();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Falha ao executar caso no interpretador Java", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+            process.destroy();
+        }
+
+        if (writeError.get() != null || !pending.isEmpty()) {
+            throw new IOException("O driver web terminou (código " + process.waitFor()
+                    + ") antes de responder todos os casos"
+                    + (writeError.get() != null ? ": " + writeError.get().getMessage() : "")
+                    + " (veja a saída de erro do Node; rode npm install em webConversion)");
+        }
+        return new ConformanceReport(total, scans, divergent, bothFailed, System.nanoTime() - start, divergences);
+    }
+
+    private static Run parseResponse(String[] fields) {
+        if (fields.length < 4) {
+            throw new IllegalStateException("Resposta inválida do driver web: " + String.join("\t", fields));
+        }
+        int count = Integer.parseInt(fields[2]);
+        List<String> states = count == 0 ? List.of() : Arrays.asList(fields[3].split(";", -1));
+        return new Run(states, fields[1].equals("OK") ? null : (fields.length > 4 ? fields[4] : ""));
+    }
+
+    private static Divergence compare(ConformanceCase conformanceCase, Run java, Run web) {
+        int common = Math.min(java.states.size(), web.states.size());
+        for (int scan = 0; scan < common; scan++) {
+            if (!java.states.get(scan).equals(web.states.get(scan))) {
+                return new Divergence(conformanceCase, scan, java.states.get(scan), web.states.get(scan));
+            }
+        }
+        if (java.states.size() == web.states.size() && java.error == null && web.error == null) {
+            return null;
+        }
+        return new Divergence(conformanceCase, common, describe(java, common), describe(web, common));
+    }
+
+    private static String describe(Run run, int scan) {
+        if (scan < run.states.size()) {
+            return run.states.get(scan);
+        }
+        return "erro: " + run.error;
+    }
+
+    // Executa o caso no ScanEngine, com o estado de cada varredura no mesmo formato do driver web
+    static Run runJava(ConformanceCase conformanceCase) {
+        CompiledProgram program;
+        try {
+            program = ProgramCompiler.compile(conformanceCase.getProgram(), conformanceCase.getPeriodMs());
+        } catch (IllegalArgumentException ex) {
+            return new Run(List.of(), ex.getMessage());
+        }
+
+        PlcContext context = new PlcContext();
+        ScanEngine engine = new ScanEngine(context);
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        scheduler.load(program);
+        context.setMode(ExecutionMode.RUNNING);
+
+        List<String> ids = InputActions.getIds();
+        List<int[]> changes = conformanceCase.getChanges();
+        List<String> states = new ArrayList<>(conformanceCase.getScans());
+        int next = 0;
+        for (int scan = 0; scan < conformanceCase.getScans(); scan++) {
+            while (next < changes.size() && changes.get(next)[0] == scan) {
+                int[] change = changes.get(next++);
+                context.setInput(ids.get(change[1]), change[2] == 1);
+            }
+            scheduler.tick(conformanceCase.getPeriodMs());
+            if (context.getMode() != ExecutionMode.RUNNING) {
+                return new Run(states, context.getLastError());
+            }
+            states.add(encode(context));
+        }
+        return new Run(states, null);
+    }
+
+    // Endereços ligados (saídas, memórias M e bits de fim de T/C) em ordem, depois C<n>=<contagem>
+    static String encode(PlcContext context) {
+        List<String> on = new ArrayList<>();
+        for (Map.Entry<String, Boolean> output : context.getOutputs().entrySet()) {
+            if (output.getValue()) {
+                on.add(output.getKey());
+            }
+        }
+        List<String> counters = new ArrayList<>();
+        for (MemoryVariable variable : context.getMemoryVariables().values()) {
+            boolean bit = variable.id.charAt(0) == 'M' ? variable.currentValue : variable.endTimer;
+            if (bit) {
+                on.add(variable.id);
+            }
+            if (variable.id.charAt(0) == 'C') {
+                counters.add(variable.id);
+            }
+        }
+        on.sort(null);
+        counters.sort(null);
+        for (String counter : counters) {
+            on.add(counter + "=" + context.getMemoryVariables().get(counter).counter);
+        }
+        return String.join(" ", on);
+    }
+}
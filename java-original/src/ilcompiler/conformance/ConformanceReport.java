@@ -0,0 +1,51 @@
+package ilcompiler.conformance;
+
+import java.util.List;
+
+// Resultado de uma execução do harness: quantos casos concordaram e as primeiras divergências
+public class ConformanceReport {
+
+    private final int cases;
+    private final long scans;
+    private final int divergent;
+    private final int bothFailed;
+    private final long elapsedNanos;
+    private final List<Divergence> divergences;
+
+    public ConformanceReport(int cases, long scans, int divergent, int bothFailed, long elapsedNanos,
+            List<Divergence> divergences) {
+        this.cases = cases;
+        this.scans = scans;
+        this.divergent = divergent;
+        this.bothFailed = bothFailed;
+        this.elapsedNanos = elapsedNanos;
+        this.divergences = List.copyOf(divergences);
+    }
+
+    public int getCases() {
+        return cases;
+    }
+
+    public int getDivergent() {
+        return divergent;
+    }
+
+    public List<Divergence> getDivergences() {
+        return divergences;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Divergence divergence : divergences) {
+            text.append(divergence).append("\n\n");
+        }
+        text.append(String.format("Casos: %d, iguais: %d (com erro nas duas: %d), divergentes: %d, varreduras: %d, "
+                + "tempo: %.3f s, casos/s: %.0f", cases, cases - divergent, bothFailed, divergent, scans,
+                elapsedNanos / 1e9, elapsedNanos == 0 ? 0 : cases * 1e9 / elapsedNanos));
+        if (divergences.size() < divergent) {
+            text.append(" (mostradas as ").append(divergences.size()).append(" primeiras divergências)");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package ilcompiler.conformance;
+
+// Primeira varredura em que as duas implementações discordam num caso
+public class Divergence {
+
+    private final ConformanceCase conformanceCase;
+    private final int scan;
+    private final String javaState;
+    private final String webState;
+
+    public Divergence(ConformanceCase conformanceCase, int scan, String javaState, String webState) {
+        this.conformanceCase = conformanceCase;
+        this.scan = scan;
+        this.javaState = javaState;
+        this.webState = webState;
+    }
+
+    public ConformanceCase getCase() {
+        return conformanceCase;
+    }
+
+    public int getScan() {
+        return scan;
+    }
+
+    public String getJavaState() {
+        return javaState;
+    }
+
+    public String getWebState() {
+        return webState;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(conformanceCase.getName()).append(": varredura ").append(scan);
+        if (scan >= 0) {
+            text.append(" (t=").append((long) scan * conformanceCase.getPeriodMs()).append(" ms, entradas ligadas: ")
+                    .append(conformanceCase.inputsAt(scan).isEmpty() ? "nenhuma"
+                    : String.join(" ", conformanceCase.inputsAt(scan))).append(')');
+        }
+        text.append("\n  Java: ").append(javaState.isEmpty() ? "(tudo desligado)" : javaState);
+        text.append("\n  Web:  ").append(webState.isEmpty() ? "(tudo desligado)" : webState);
+        text.append("\n  Programa:");
+        for (int i = 0; i < conformanceCase.getProgram().size(); i++) {
+            text.append(String.format("%n    %3d  %s", i + 1, conformanceCase.getProgram().get(i)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package ilcompiler.conformance;
+
+import ilcompiler.input.InputActions;
+import ilcompiler.output.OutputActions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Programas IL aleatórios no subconjunto aceito pelas duas implementações.
+// Memórias, temporizadores e contadores só são lidos depois de escritos ou declarados, e cada
+// temporizador/contador é declarado numa condição seguida de ST, como nos exemplos:
+//   LD I0.1 / TON T1,30 / ST T1
+public class ProgramGenerator {
+
+    private static final int MEMORIES = 8;
+
+    public static List<String> generate(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> inputs = InputActions.getIds();
+        List<String> outputs = OutputActions.getIds();
+        List<String> readable = new ArrayList<>(inputs);
+        readable.addAll(outputs);
+        List<String> lines = new ArrayList<>();
+
+        int timers = 0;
+        int counters = 0;
+        int rungs = 2 + random.nextInt(9);
+        for (int rung = 0; rung < rungs; rung++) {
+            lines.add((random.nextBoolean() ? "LD " : "LDN ") + pick(random, readable));
+            int conditions = random.nextInt(5);
+            for (int i = 0; i < conditions; i++) {
+                String[] operators = {"AND ", "ANDN ", "OR ", "ORN "};
+                lines.add(operators[random.nextInt(operators.length)] + pick(random, readable));
+            }
+
+            int kind = random.nextInt(10);
+            if (kind == 0 && timers < 4) {
+                String timer = "T" + (++timers);
+                lines.add((random.nextBoolean() ? "TON " : "TOFF ") + timer + "," + (1 + random.nextInt(30)));
+                lines.add("ST " + timer);
+                readable.add(timer);
+            } else if (kind == 1 && counters < 4) {
+                String counter = "C" + (++counters);
+                lines.add((random.nextBoolean() ? "CTU " : "CTD ") + counter + "," + (1 + random.nextInt(10)));
+                lines.add("ST " + counter);
+                readable.add(counter);
+            } else if (kind < 5) {
+                String memory = "M" + (1 + random.nextInt(MEMORIES));
+                lines.add((random.nextInt(4) == 0 ? "STN " : "ST ") + memory);
+                if (!readable.contains(memory)) {
+                    readable.add(memory);
+                }
+            } else {
+                lines.add((random.nextInt(4) == 0 ? "STN " : "ST ") + pick(random, outputs));
+            }
+        }
+        return lines;
+    }
+
+    private static String pick(SplittableRandom random, List<String> addresses) {
+        return addresses.get(random.nextInt(addresses.size()));
+    }
+}
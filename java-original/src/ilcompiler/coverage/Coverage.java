@@ -0,0 +1,260 @@
+package ilcompiler.coverage;
+
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.CompiledTask;
+import ilcompiler.compiler.Instruction;
+import ilcompiler.interpreter.Interpreter;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.runtime.PlcContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Cobertura de instruções e condições por linha do programa IL, em vetores de contadores:
+// quantas vezes a linha executou, com o acumulador verdadeiro e falso depois dela e, nas linhas
+// ST/STN, quantas escritas mudaram o valor do alvo. Cada instância usa a sua; junte com merge().
+public class Coverage {
+
+    private static final String HEADER = "linha;instrução;execuções;acumulador verdadeiro;acumulador falso;alterações";
+
+    private long[] executions;
+    private long[] accumulatorTrue;
+    private long[] accumulatorFalse;
+    private long[] changes;
+
+    public Coverage(int lines) {
+        executions = new long[lines];
+        accumulatorTrue = new long[lines];
+        accumulatorFalse = new long[lines];
+        changes = new long[lines];
+    }
+
+    public static Coverage forProgram(CompiledProgram program) {
+        return new Coverage(lineCount(program));
+    }
+
+    // Última linha com instrução + 1
+    public static int lineCount(CompiledProgram program) {
+        int lines = 0;
+        for (CompiledTask task : program.getTasks()) {
+            for (Instruction instruction : task.getCode()) {
+                lines = Math.max(lines, instruction.getLine() + 1);
+            }
+        }
+        return lines;
+    }
+
+    public int getLineCount() {
+        return executions.length;
+    }
+
+    public long getExecutions(int line) {
+        return line < executions.length ? executions[line] : 0;
+    }
+
+    public long getAccumulatorTrue(int line) {
+        return line < accumulatorTrue.length ? accumulatorTrue[line] : 0;
+    }
+
+    public long getAccumulatorFalse(int line) {
+        return line < accumulatorFalse.length ? accumulatorFalse[line] : 0;
+    }
+
+    public long getChanges(int line) {
+        return line < changes.length ? changes[line] : 0;
+    }
+
+    // Mesmo laço do Interpreter.execute, contando cada instrução
+    public void execute(Instruction[] code, PlcContext context) {
+        context.startTask();
+        int pc = 0;
+        while (pc >= 0 && pc < code.length) {
+            executeInstruction(code[pc], context);
+            pc = Interpreter.next(code[pc], pc, context);
+        }
+    }
+
+    public void executeInstruction(Instruction instruction, PlcContext context) {
+        int line = instruction.getLine();
+        if (line >= executions.length) {
+            grow(line + 1);
+        }
+
+        String target = storeTarget(instruction);
+        boolean before = target != null && stored(context, target);
+
+        Interpreter.executeInstruction(instruction, context);
+
+        executions[line]++;
+        Boolean accumulator = context.getAccumulator();
+        if (accumulator != null) {
+            if (accumulator) {
+                accumulatorTrue[line]++;
+            } else {
+                accumulatorFalse[line]++;
+            }
+        }
+        if (target != null && stored(context, target) != before) {
+            changes[line]++;
+        }
+    }
+
+    private static String storeTarget(Instruction instruction) {
+        String operator = instruction.getOperator();
+        if ((operator.equals("ST") || operator.equals("STN")) && !instruction.getOperands().isEmpty()
+                && instruction.getWordOperand() == Instruction.WordOperand.NONE) {
+            return instruction.getOperands().get(0);
+        }
+        return null;
+    }
+
+    // Valor escrito pelo ST: saída ou bit da memória
+    private static boolean stored(PlcContext context, String address) {
+        if (address.charAt(0) == 'Q') {
+            return Boolean.TRUE.equals(context.getOutputs().get(address));
+        }
+        MemoryVariable variable = context.getMemoryVariables().get(address);
+        return variable != null && Boolean.TRUE.equals(variable.currentValue);
+    }
+
+    private void grow(int lines) {
+        executions = Arrays.copyOf(executions, lines);
+        accumulatorTrue = Arrays.copyOf(accumulatorTrue, lines);
+        accumulatorFalse = Arrays.copyOf(accumulatorFalse, lines);
+        changes = Arrays.copyOf(changes, lines);
+    }
+
+    // Soma os contadores de outra execução (outra instância, outro teste ou um relatório salvo)
+    public synchronized void merge(Coverage other) {
+        if (other.executions.length > executions.length) {
+            grow(other.executions.length);
+        }
+        for (int line = 0; line < other.executions.length; line++) {
+            executions[line] += other.executions[line];
+            accumulatorTrue[line] += other.accumulatorTrue[line];
+            accumulatorFalse[line] += other.accumulatorFalse[line];
+            changes[line] += other.changes[line];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(executions, 0);
+        Arrays.fill(accumulatorTrue, 0);
+        Arrays.fill(accumulatorFalse, 0);
+        Arrays.fill(changes, 0);
+    }
+
+    // Resumo sobre as instruções do programa: linhas executadas, condições (LD, AND, OR...) que
+    // deixaram o acumulador verdadeiro e falso e alvos de ST/STN que mudaram pelo menos uma vez
+    public String summary(CompiledProgram program) {
+        int instructions = 0;
+        int executed = 0;
+        int conditions = 0;
+        int bothValues = 0;
+        int stores = 0;
+        int changed = 0;
+
+        // Funções chamadas por várias tarefas aparecem no código de cada uma; contam uma vez
+        BitSet counted = new BitSet();
+        for (CompiledTask task : program.getTasks()) {
+            for (Instruction instruction : task.getCode()) {
+                int line = instruction.getLine();
+                if (counted.get(line)) {
+                    continue;
+                }
+                counted.set(line);
+                instructions++;
+                if (getExecutions(line) > 0) {
+                    executed++;
+                }
+                if (isCondition(instruction)) {
+                    conditions++;
+                    if (getAccumulatorTrue(line) > 0 && getAccumulatorFalse(line) > 0) {
+                        bothValues++;
+                    }
+                }
+                if (storeTarget(instruction) != null) {
+                    stores++;
+                    if (getChanges(line) > 0) {
+                        changed++;
+                    }
+                }
+            }
+        }
+
+        return String.format("Instruções executadas: %d/%d (%s), condições com os dois valores: %d/%d (%s), "
+                + "alvos de ST alterados: %d/%d (%s)", executed, instructions, percent(executed, instructions),
+                bothValues, conditions, percent(bothValues, conditions), changed, stores, percent(changed, stores));
+    }
+
+    // Instruções que avaliam o acumulador lógico; com palavras, só as comparações
+    public static boolean isCondition(Instruction instruction) {
+        if (instruction.getWordOperand() != Instruction.WordOperand.NONE) {
+            return switch (instruction.getOperator()) {
+                case "GT", "GE", "EQ", "NE", "LE", "LT" ->
+                    true;
+                default ->
+                    false;
+            };
+        }
+        switch (instruction.getOperator()) {
+            case "LD", "LDN", "AND", "ANDN", "OR", "ORN", ")", "R_TRIG", "F_TRIG":
+                return true;
+            case "AND(", "ANDN(", "OR(", "ORN(":
+                return !instruction.getOperands().get(0).isEmpty();
+            default:
+                return false;
+        }
+    }
+
+    private static String percent(int part, int total) {
+        return total == 0 ? "-" : String.format("%.1f%%", 100.0 * part / total);
+    }
+
+    // Relatório por linha em CSV (;), com o texto da linha para leitura humana
+    public void write(Path file, List<String> source) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int line = 0; line < executions.length; line++) {
+                String text = line < source.size() ? source.get(line).trim().replace(';', ',') : "";
+                if (text.isEmpty() && executions[line] == 0) {
+                    continue;
+                }
+                writer.write((line + 1) + ";" + text + ";" + executions[line] + ";" + accumulatorTrue[line] + ";"
+                        + accumulatorFalse[line] + ";" + changes[line]);
+                writer.newLine();
+            }
+        }
+    }
+
+    public static Coverage read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+            throw new IllegalArgumentException("Arquivo " + file + " não é um relatório de cobertura!");
+        }
+
+        Coverage coverage = new Coverage(0);
+        for (int i = 1; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split(";", -1);
+            try {
+                int line = Integer.parseInt(fields[0]) - 1;
+                if (line >= coverage.executions.length) {
+                    coverage.grow(line + 1);
+                }
+                coverage.executions[line] = Long.parseLong(fields[2]);
+                coverage.accumulatorTrue[line] = Long.parseLong(fields[3]);
+                coverage.accumulatorFalse[line] = Long.parseLong(fields[4]);
+                coverage.changes[line] = Long.parseLong(fields[5]);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Relatório de cobertura inválido na linha " + (i + 1) + "!");
+            }
+        }
+        return coverage;
+    }
+}
@@ -0,0 +1,186 @@
+package ilcompiler.debug;
+
+import ilcompiler.input.InputActions;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.output.OutputActions;
+import ilcompiler.runtime.PlcContext;
+
+// Condição de um breakpoint, ex.: "Q0.1 && I1.0", "!(M1 || T1)".
+// Aceita endereços I, Q, M, MW, T e C, os operadores !, && e || e parênteses.
+// T e C valem o bit de fim de contagem, como no LD; MW vale verdadeiro quando diferente de zero.
+public class BreakCondition {
+
+    private interface Node {
+        boolean test(PlcContext context);
+    }
+
+    private final String text;
+    private final Node root;
+
+    // Posição do analisador durante o parse
+    private int position;
+
+    private BreakCondition(String text) {
+        this.text = text;
+        this.root = parseOr();
+        skipSpaces();
+        if (position < text.length()) {
+            throw error("símbolo inesperado '" + text.charAt(position) + "'");
+        }
+    }
+
+    public static BreakCondition parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Condição inválida: expressão vazia!");
+        }
+        return new BreakCondition(text.trim().toUpperCase());
+    }
+
+    public boolean test(PlcContext context) {
+        return root.test(context);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    // Valor lógico de um endereço como o programa o enxerga; endereço inexistente vale falso
+    public static boolean read(PlcContext context, String address) {
+        if (isWord(address)) {
+            return value(context, address) != 0;
+        }
+        switch (address.charAt(0)) {
+            case 'I':
+                return Boolean.TRUE.equals(context.getInputs().get(address));
+            case 'Q':
+                return Boolean.TRUE.equals(context.getOutputs().get(address));
+            default:
+                MemoryVariable variable = context.getMemoryVariables().get(address);
+                if (variable == null) {
+                    return false;
+                }
+                return Boolean.TRUE.equals(address.charAt(0) == 'M' ? variable.currentValue : variable.endTimer);
+        }
+    }
+
+    // Valor numérico: o conteúdo da palavra em MW, 1 ou 0 nos demais endereços
+    public static int value(PlcContext context, String address) {
+        if (isWord(address)) {
+            return context.getWords()[Integer.parseInt(address.substring(2))];
+        }
+        return read(context, address) ? 1 : 0;
+    }
+
+    // MW0..MW255
+    public static boolean isWord(String address) {
+        if (address.length() < 3 || !address.startsWith("MW")
+                || !address.substring(2).chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(address.substring(2)) < PlcContext.WORD_MEMORY_SIZE;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    // Verifica se o endereço pode ser observado ou usado numa condição
+    public static void checkAddress(String address) {
+        boolean valid;
+        switch (address.isEmpty() ? ' ' : address.charAt(0)) {
+            case 'I':
+                valid = InputActions.exists(address);
+                break;
+            case 'Q':
+                valid = OutputActions.exists(address);
+                break;
+            case 'M':
+            case 'T':
+            case 'C':
+                valid = isWord(address)
+                        || address.length() > 1 && address.substring(1).chars().allMatch(Character::isDigit);
+                break;
+            default:
+                valid = false;
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("Endereço " + address + " não existe!");
+        }
+    }
+
+    // ou := e ("||" e)*
+    private Node parseOr() {
+        Node left = parseAnd();
+        while (accept("||")) {
+            Node a = left;
+            Node b = parseAnd();
+            left = context -> a.test(context) || b.test(context);
+        }
+        return left;
+    }
+
+    // e := fator ("&&" fator)*
+    private Node parseAnd() {
+        Node left = parseFactor();
+        while (accept("&&")) {
+            Node a = left;
+            Node b = parseFactor();
+            left = context -> a.test(context) && b.test(context);
+        }
+        return left;
+    }
+
+    // fator := "!" fator | "(" ou ")" | endereço
+    private Node parseFactor() {
+        if (accept("!")) {
+            Node operand = parseFactor();
+            return context -> !operand.test(context);
+        }
+        if (accept("(")) {
+            Node inner = parseOr();
+            if (!accept(")")) {
+                throw error("falta ')'");
+            }
+            return inner;
+        }
+
+        skipSpaces();
+        int start = position;
+        while (position < text.length()
+                && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+            position++;
+        }
+        if (start == position) {
+            throw error(position < text.length() ? "símbolo inesperado '" + text.charAt(position) + "'"
+                    : "expressão incompleta");
+        }
+
+        String address = text.substring(start, position);
+        try {
+            checkAddress(address);
+        } catch (IllegalArgumentException ex) {
+            throw error("endereço " + address + " não existe");
+        }
+        return context -> read(context, address);
+    }
+
+    private boolean accept(String symbol) {
+        skipSpaces();
+        if (text.startsWith(symbol, position)) {
+            position += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException("Condição inválida \"" + text + "\": " + reason + "!");
+    }
+}
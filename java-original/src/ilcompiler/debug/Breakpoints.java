@@ -0,0 +1,192 @@
+package ilcompiler.debug;
+
+import ilcompiler.compiler.Instruction;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.TaskScheduler;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Breakpoints por linha (com condição opcional) e watchpoints de escrita em endereços.
+// Sem nenhum deles o ciclo usa o tick normal do escalonador e não paga nada; com algum ativo,
+// a varredura é executada instrução a instrução pelo modo passo a passo do TaskScheduler.
+public class Breakpoints {
+
+    // Linha (base 0) -> condição; null para parar sempre
+    private final Map<Integer, BreakCondition> lines = new HashMap<>();
+    private final Set<String> watches = new LinkedHashSet<>();
+
+    // Instrução em que a varredura está parada; ao continuar ela executa sem parar de novo
+    private Instruction pausedAt;
+    private long pausedScan = -1;
+
+    public boolean isEmpty() {
+        return lines.isEmpty() && watches.isEmpty();
+    }
+
+    public boolean hasBreakpoint(int line) {
+        return lines.containsKey(line);
+    }
+
+    public BreakCondition getCondition(int line) {
+        return lines.get(line);
+    }
+
+    public Set<Integer> getLines() {
+        return Collections.unmodifiableSet(lines.keySet());
+    }
+
+    // Liga ou desliga o breakpoint incondicional da linha; devolve se ficou ligado
+    public boolean toggle(int line) {
+        if (lines.containsKey(line)) {
+            lines.remove(line);
+            return false;
+        }
+        lines.put(line, null);
+        return true;
+    }
+
+    // Condição vazia deixa o breakpoint incondicional
+    public void setCondition(int line, String condition) {
+        lines.put(line, condition == null || condition.isBlank() ? null : BreakCondition.parse(condition));
+    }
+
+    public void remove(int line) {
+        lines.remove(line);
+    }
+
+    // Acompanha edições do texto: linhas removidas perdem o breakpoint, as seguintes se deslocam
+    public void shiftLines(int fromLine, int delta) {
+        if (delta == 0 || lines.isEmpty()) {
+            return;
+        }
+        Map<Integer, BreakCondition> shifted = new HashMap<>();
+        for (Map.Entry<Integer, BreakCondition> entry : lines.entrySet()) {
+            int line = entry.getKey();
+            if (line < fromLine) {
+                shifted.put(line, entry.getValue());
+            } else if (delta > 0 || line >= fromLine - delta) {
+                shifted.put(line + delta, entry.getValue());
+            }
+        }
+        lines.clear();
+        lines.putAll(shifted);
+    }
+
+    public Set<String> getWatches() {
+        return Collections.unmodifiableSet(watches);
+    }
+
+    // Substitui os endereços observados; a lista é validada inteira antes de valer
+    public void setWatches(List<String> addresses) {
+        Set<String> checked = new LinkedHashSet<>();
+        for (String address : addresses) {
+            String id = address.trim().toUpperCase();
+            if (!id.isEmpty()) {
+                BreakCondition.checkAddress(id);
+                checked.add(id);
+            }
+        }
+        watches.clear();
+        watches.addAll(checked);
+    }
+
+    public void clear() {
+        lines.clear();
+        watches.clear();
+        resetPause();
+    }
+
+    // Esquece a parada atual (programa recarregado ou estado alterado pelo depurador)
+    public void resetPause() {
+        pausedAt = null;
+        pausedScan = -1;
+    }
+
+    // Executa a varredura (ou o restante da varredura parada) até o fim ou até um breakpoint
+    // ou watchpoint. Devolve a descrição da parada, ou null se a varredura terminou.
+    public String run(TaskScheduler scheduler, int elapsedMs) {
+        if (!scheduler.isStepping()) {
+            scheduler.beginStepping(elapsedMs);
+        }
+
+        PlcContext context = scheduler.getEngine().getContext();
+        while (scheduler.isStepping()) {
+            Instruction next = scheduler.getNextInstruction();
+            long scan = scheduler.getEngine().getScanCount();
+
+            if (next != pausedAt || scan != pausedScan) {
+                String hit = checkLine(next, context);
+                if (hit != null) {
+                    pausedAt = next;
+                    pausedScan = scan;
+                    return hit;
+                }
+            }
+            resetPause();
+
+            String watched = watchedTarget(next);
+            if (watched == null) {
+                scheduler.stepInstruction();
+                continue;
+            }
+
+            String before = describe(context, watched);
+            scheduler.stepInstruction();
+            String after = describe(context, watched);
+            if (!before.equals(after)) {
+                return "Escrita em " + watched + " na linha " + (next.getLine() + 1) + ": " + before + " → " + after;
+            }
+        }
+        return null;
+    }
+
+    private String checkLine(Instruction next, PlcContext context) {
+        if (!lines.containsKey(next.getLine())) {
+            return null;
+        }
+        BreakCondition condition = lines.get(next.getLine());
+        if (condition == null) {
+            return "Breakpoint na linha " + (next.getLine() + 1);
+        }
+        if (condition.test(context)) {
+            return "Breakpoint na linha " + (next.getLine() + 1) + " (" + condition + ")";
+        }
+        return null;
+    }
+
+    // Só instruções de escrita disparam watchpoints
+    private String watchedTarget(Instruction instruction) {
+        if (watches.isEmpty() || instruction.getOperands().isEmpty()) {
+            return null;
+        }
+        String operator = instruction.getOperator();
+        if (!operator.equals("ST") && !operator.equals("STN") && !operator.equals("TON")
+                && !operator.equals("TOFF") && !operator.equals("TP") && !operator.equals("TONR")
+                && !operator.equals("CTU") && !operator.equals("CTD") && !operator.equals("RES")) {
+            return null;
+        }
+        String target = instruction.getOperands().get(0);
+        return watches.contains(target) ? target : null;
+    }
+
+    // Valor armazenado no endereço; em T e C inclui a contagem e o preset
+    private static String describe(PlcContext context, String address) {
+        if (BreakCondition.isWord(address)) {
+            return String.valueOf(BreakCondition.value(context, address));
+        }
+        char type = address.charAt(0);
+        if (type == 'I' || type == 'Q' || type == 'M') {
+            return String.valueOf(BreakCondition.read(context, address));
+        }
+        MemoryVariable variable = context.getMemoryVariables().get(address);
+        if (variable == null) {
+            return "indefinido";
+        }
+        return variable.currentValue + " (" + variable.counter + "/" + variable.maxTimer + ")";
+    }
+}
@@ -0,0 +1,85 @@
+package ilcompiler.debug;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Checkpoints em ordem de varredura. Quando o orçamento estoura, a metade mais antiga é
+// desbastada (um a cada dois sai): o passado recente fica denso e o distante, esparso.
+public class CheckpointStore {
+
+    private final List<StateSnapshot> checkpoints = new ArrayList<>();
+    private long sizeBytes;
+
+    public void add(StateSnapshot snapshot) {
+        checkpoints.add(snapshot);
+        sizeBytes += snapshot.getSizeBytes();
+    }
+
+    public boolean isEmpty() {
+        return checkpoints.isEmpty();
+    }
+
+    public int size() {
+        return checkpoints.size();
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public StateSnapshot getFirst() {
+        return checkpoints.isEmpty() ? null : checkpoints.get(0);
+    }
+
+    public StateSnapshot getLast() {
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    // Último checkpoint na varredura scan ou antes dela
+    public StateSnapshot floor(long scan) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        StateSnapshot found = null;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (checkpoints.get(middle).getScan() <= scan) {
+                found = checkpoints.get(middle);
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    // Remove um a cada dois checkpoints da metade mais antiga, preservando o primeiro
+    public void thin() {
+        int older = checkpoints.size() / 2;
+        List<StateSnapshot> kept = new ArrayList<>();
+        for (int i = 0; i < checkpoints.size(); i++) {
+            if (i < older && i % 2 == 1) {
+                sizeBytes -= checkpoints.get(i).getSizeBytes();
+            } else {
+                kept.add(checkpoints.get(i));
+            }
+        }
+        checkpoints.clear();
+        checkpoints.addAll(kept);
+    }
+
+    public void removeFirst() {
+        sizeBytes -= checkpoints.remove(0).getSizeBytes();
+    }
+
+    // Descarta checkpoints de uma linha do tempo abandonada (após voltar no tempo e seguir)
+    public void truncateAfter(long scan) {
+        while (!checkpoints.isEmpty() && getLast().getScan() > scan) {
+            sizeBytes -= checkpoints.remove(checkpoints.size() - 1).getSizeBytes();
+        }
+    }
+
+    public void clear() {
+        checkpoints.clear();
+        sizeBytes = 0;
+    }
+}
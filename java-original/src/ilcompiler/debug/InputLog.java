@@ -0,0 +1,101 @@
+package ilcompiler.debug;
+
+import java.util.Arrays;
+
+// Entradas e intervalo de tempo de cada varredura, em vetores primitivos contíguos.
+// Junto com um checkpoint, permite reexecutar qualquer varredura posterior.
+public class InputLog {
+
+    private final int words;
+    private long firstScan = 1;
+    private int count;
+    private long[] inputs;
+    private int[] elapsed;
+
+    public InputLog(int words) {
+        this.words = words;
+        this.inputs = new long[1024 * words];
+        this.elapsed = new int[1024];
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long getFirstScan() {
+        return firstScan;
+    }
+
+    public long getLastScan() {
+        return firstScan + count - 1;
+    }
+
+    public boolean contains(long scan) {
+        return count > 0 && scan >= firstScan && scan <= getLastScan();
+    }
+
+    public long getSizeBytes() {
+        return 8L * inputs.length + 4L * elapsed.length;
+    }
+
+    // Varreduras devem ser contíguas; um salto reinicia o registro
+    public void append(long scan, long[] inputWords, int elapsedMs) {
+        if (count > 0 && scan != getLastScan() + 1) {
+            clear();
+        }
+        if (count == 0) {
+            firstScan = scan;
+        }
+        if (count == elapsed.length) {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+            elapsed = Arrays.copyOf(elapsed, elapsed.length * 2);
+        }
+        System.arraycopy(inputWords, 0, inputs, count * words, words);
+        elapsed[count] = elapsedMs;
+        count++;
+    }
+
+    public void getInputs(long scan, long[] into) {
+        System.arraycopy(inputs, index(scan) * words, into, 0, words);
+    }
+
+    public int getElapsedMs(long scan) {
+        return elapsed[index(scan)];
+    }
+
+    private int index(long scan) {
+        if (!contains(scan)) {
+            throw new IllegalArgumentException("Varredura " + scan + " fora do histórico!");
+        }
+        return (int) (scan - firstScan);
+    }
+
+    // Descarta as varreduras até scan (inclusive), já cobertas por um checkpoint mais novo
+    public void truncateThrough(long scan) {
+        if (count == 0 || scan < firstScan) {
+            return;
+        }
+        int removed = (int) Math.min(count, scan - firstScan + 1);
+        count -= removed;
+        System.arraycopy(inputs, removed * words, inputs, 0, count * words);
+        System.arraycopy(elapsed, removed, elapsed, 0, count);
+        firstScan += removed;
+
+        // Devolve memória quando o vetor ficou muito maior que o necessário
+        if (elapsed.length > 1024 && count < elapsed.length / 4) {
+            int size = Math.max(1024, elapsed.length / 2);
+            inputs = Arrays.copyOf(inputs, size * words);
+            elapsed = Arrays.copyOf(elapsed, size);
+        }
+    }
+
+    public void truncateAfter(long scan) {
+        if (count > 0 && scan < getLastScan()) {
+            count = (int) Math.max(0, scan - firstScan + 1);
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+}
@@ -0,0 +1,96 @@
+package ilcompiler.debug;
+
+import ilcompiler.input.InputActions;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.output.OutputActions;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.trace.TraceFormat;
+import java.util.HashMap;
+import java.util.Map;
+import plant.PlantModel;
+
+// Estado completo de uma instância ao fim de uma varredura, guardado em vetores primitivos.
+// Os endereços das memórias são compartilhados entre snapshots enquanto o conjunto não muda.
+public class StateSnapshot {
+
+    private final long scan;
+    private final long timeMs;
+    private final long[] inputWords;
+    private final long[] outputWords;
+    private final String[] memoryIds;
+    private final byte[] states;
+    private final int[] counters;
+    private final int[] presets;
+    private final int[] elapsed;
+    private final int[] plantState;
+    private final Boolean accumulator;
+    private final int[] words;
+    private final int[] analogInputs;
+    private final int wordAccumulator;
+
+    StateSnapshot(long scan, long timeMs, long[] inputWords, long[] outputWords, String[] memoryIds,
+            byte[] states, int[] counters, int[] presets, int[] elapsed, int[] plantState, Boolean accumulator,
+            int[] words, int[] analogInputs, int wordAccumulator) {
+        this.scan = scan;
+        this.timeMs = timeMs;
+        this.inputWords = inputWords;
+        this.outputWords = outputWords;
+        this.memoryIds = memoryIds;
+        this.states = states;
+        this.counters = counters;
+        this.presets = presets;
+        this.elapsed = elapsed;
+        this.plantState = plantState;
+        this.accumulator = accumulator;
+        this.words = words;
+        this.analogInputs = analogInputs;
+        this.wordAccumulator = wordAccumulator;
+    }
+
+    public long getScan() {
+        return scan;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    // Tamanho aproximado em bytes, usado no orçamento de checkpoints (endereços compartilhados não contam)
+    public long getSizeBytes() {
+        return 64 + 8L * (inputWords.length + outputWords.length)
+                + states.length + 4L * (counters.length + presets.length + elapsed.length + plantState.length
+                + words.length + analogInputs.length);
+    }
+
+    // Devolve o motor ao estado guardado: imagens, memórias, palavras, processo, contagem de varreduras e tempo
+    void restore(ScanEngine engine) {
+        PlcContext context = engine.getContext();
+        TraceFormat.unpack(inputWords, InputActions.getIds(), context.getInputs());
+        TraceFormat.unpack(outputWords, OutputActions.getIds(), context.getOutputs());
+        context.latchImages();
+
+        Map<String, MemoryVariable> memory = new HashMap<>();
+        for (int i = 0; i < memoryIds.length; i++) {
+            MemoryVariable variable = new MemoryVariable(memoryIds[i]);
+            TraceFormat.decodeState(states[i], variable);
+            variable.counter = counters[i];
+            variable.maxTimer = presets[i];
+            variable.timerElapsedMs = elapsed[i];
+            memory.put(memoryIds[i], variable);
+        }
+        context.setMemoryVariables(memory);
+        context.setAccumulator(accumulator);
+        System.arraycopy(words, 0, context.getWords(), 0, words.length);
+        System.arraycopy(analogInputs, 0, context.getAnalogInputs(), 0, analogInputs.length);
+        context.setWordAccumulator(wordAccumulator);
+
+        PlantModel plant = engine.getPlant();
+        if (plant != null && plant.getStateSize() == plantState.length) {
+            plant.restoreState(plantState);
+        }
+
+        engine.setScanCount(scan);
+        engine.setTimeMs(timeMs);
+    }
+}
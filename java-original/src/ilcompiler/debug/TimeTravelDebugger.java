@@ -0,0 +1,243 @@
+package ilcompiler.debug;
+
+import ilcompiler.compiler.Instruction;
+import ilcompiler.io.IoMap;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.ScanListener;
+import ilcompiler.runtime.TaskScheduler;
+import ilcompiler.trace.TraceFormat;
+import java.util.List;
+import java.util.Map;
+import plant.PlantModel;
+
+// Depuração com volta no tempo: guarda checkpoints periódicos do estado completo e as entradas
+// de cada varredura. Para ir a uma varredura passada, restaura o checkpoint anterior mais próximo
+// e reexecuta as varreduras seguintes com as entradas registradas.
+// O uso de memória fica limitado ao orçamento; checkpoints antigos são desbastados.
+public class TimeTravelDebugger implements ScanListener {
+
+    private final TaskScheduler scheduler;
+    private final ScanEngine engine;
+    private final int checkpointInterval;
+    private final long budgetBytes;
+
+    private final CheckpointStore checkpoints = new CheckpointStore();
+    private final InputLog log;
+    private final IoMap ioMap;
+    private final String[] inputIds;
+    private final String[] outputIds;
+    private final long[] inputWords;
+
+    private Map<String, MemoryVariable> cachedMap;
+    private int cachedVersion = -1;
+    private String[] memoryIds = new String[0];
+    private MemoryVariable[] memoryRefs = new MemoryVariable[0];
+
+    // Varreduras reexecutadas a partir do histórico não são registradas de novo
+    private boolean replaying;
+
+    public TimeTravelDebugger(TaskScheduler scheduler, int checkpointInterval, long budgetBytes) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Intervalo entre checkpoints deve ser positivo!");
+        }
+        this.scheduler = scheduler;
+        this.engine = scheduler.getEngine();
+        this.checkpointInterval = checkpointInterval;
+        this.budgetBytes = budgetBytes;
+        this.ioMap = IoMap.getCurrent();
+        this.inputIds = ioMap.getInputIds().toArray(new String[0]);
+        this.outputIds = ioMap.getOutputIds().toArray(new String[0]);
+        this.inputWords = new long[TraceFormat.words(inputIds.length)];
+        this.log = new InputLog(inputWords.length);
+    }
+
+    // Esquece o histórico (novo programa carregado)
+    public void reset() {
+        checkpoints.clear();
+        log.clear();
+    }
+
+    public boolean hasHistory() {
+        return !checkpoints.isEmpty();
+    }
+
+    // Primeira varredura alcançável
+    public long getFirstScan() {
+        return checkpoints.isEmpty() ? -1 : checkpoints.getFirst().getScan();
+    }
+
+    // Última varredura alcançável
+    public long getLastScan() {
+        if (checkpoints.isEmpty()) {
+            return -1;
+        }
+        return Math.max(checkpoints.getLast().getScan(), log.isEmpty() ? -1 : log.getLastScan());
+    }
+
+    public int getCheckpointCount() {
+        return checkpoints.size();
+    }
+
+    public long getSizeBytes() {
+        return checkpoints.getSizeBytes() + log.getSizeBytes();
+    }
+
+    @Override
+    public void scanCompleted(ScanEngine scanEngine) {
+        if (replaying) {
+            return;
+        }
+
+        long scan = scanEngine.getScanCount();
+
+        // Execução retomada de um ponto do passado: o futuro registrado deixa de valer
+        if (!log.isEmpty() && scan <= log.getLastScan()) {
+            log.truncateAfter(scan - 1);
+            checkpoints.truncateAfter(scan - 1);
+        }
+
+        TraceFormat.pack(scanEngine.getContext().getInputImage(), ioMap, inputIds, inputWords);
+        log.append(scan, inputWords, scanEngine.getLastElapsedMs());
+
+        // Checkpoints sem entradas registradas logo depois deles não servem mais
+        while (!checkpoints.isEmpty() && checkpoints.getFirst().getScan() < log.getFirstScan() - 1) {
+            checkpoints.removeFirst();
+        }
+
+        StateSnapshot last = checkpoints.getLast();
+        if (last == null || scan - last.getScan() >= checkpointInterval) {
+            checkpoints.add(capture());
+            log.truncateThrough(checkpoints.getFirst().getScan());
+            enforceBudget();
+        }
+    }
+
+    private void enforceBudget() {
+        while (checkpoints.size() > 1 && getSizeBytes() > budgetBytes) {
+            if (checkpoints.size() > 4 && checkpoints.getSizeBytes() > log.getSizeBytes()) {
+                checkpoints.thin();
+            } else {
+                checkpoints.removeFirst();
+            }
+            log.truncateThrough(checkpoints.getFirst().getScan());
+        }
+    }
+
+    // Cópia do estado em vetores; o vetor de endereços só é refeito quando as memórias mudam
+    private StateSnapshot capture() {
+        PlcContext context = engine.getContext();
+        if (context.getMemoryVariables() != cachedMap || context.getMemoryVersion() != cachedVersion) {
+            memoryRefs = context.getMemoryVariables().values().toArray(new MemoryVariable[0]);
+            memoryIds = new String[memoryRefs.length];
+            for (int i = 0; i < memoryRefs.length; i++) {
+                memoryIds[i] = memoryRefs[i].id;
+            }
+            cachedMap = context.getMemoryVariables();
+            cachedVersion = context.getMemoryVersion();
+        }
+
+        byte[] states = new byte[memoryRefs.length];
+        int[] counters = new int[memoryRefs.length];
+        int[] presets = new int[memoryRefs.length];
+        int[] elapsed = new int[memoryRefs.length];
+        for (int i = 0; i < memoryRefs.length; i++) {
+            MemoryVariable variable = memoryRefs[i];
+            states[i] = TraceFormat.encodeState(variable);
+            counters[i] = variable.counter;
+            presets[i] = variable.maxTimer;
+            elapsed[i] = variable.timerElapsedMs;
+        }
+
+        long[] inputs = new long[inputWords.length];
+        long[] outputs = new long[TraceFormat.words(outputIds.length)];
+        TraceFormat.pack(context.getInputImage(), ioMap, inputIds, inputs);
+        TraceFormat.pack(context.getOutputImage(), ioMap, outputIds, outputs);
+
+        PlantModel plant = engine.getPlant();
+        int[] plantState = new int[plant == null ? 0 : plant.getStateSize()];
+        if (plant != null) {
+            plant.saveState(plantState);
+        }
+
+        return new StateSnapshot(engine.getScanCount(), engine.getTimeMs(), inputs, outputs, memoryIds, states,
+                counters, presets, elapsed, plantState, context.getAccumulator(), context.getWords().clone(),
+                context.getAnalogInputs().clone(), context.getWordAccumulator());
+    }
+
+    // Vai para o fim da varredura scan: restaura o checkpoint anterior e reexecuta o restante
+    public void jumpTo(long scan) {
+        if (checkpoints.isEmpty() || scan < getFirstScan() || scan > getLastScan()) {
+            throw new IllegalArgumentException("Varredura " + scan + " fora do histórico ("
+                    + getFirstScan() + " a " + getLastScan() + ")!");
+        }
+
+        StateSnapshot checkpoint = checkpoints.floor(scan);
+        checkpoint.restore(engine);
+        scheduler.restore(checkpoint.getTimeMs());
+
+        replaying = true;
+        try {
+            while (engine.getScanCount() < scan) {
+                long next = engine.getScanCount() + 1;
+                applyLoggedInputs(next);
+                scheduler.tick(log.getElapsedMs(next));
+            }
+        } finally {
+            replaying = false;
+        }
+    }
+
+    // Volta uma varredura; no meio de um passo a passo, volta ao início da varredura atual
+    public void stepBack() {
+        jumpTo(scheduler.isStepping() ? engine.getScanCount() : engine.getScanCount() - 1);
+    }
+
+    // Executa uma instrução. Dentro do histórico a varredura usa as entradas registradas;
+    // depois dele, as entradas atuais e o período do tick, como uma execução normal.
+    public Instruction stepInstruction() {
+        if (!scheduler.isStepping()) {
+            long next = engine.getScanCount() + 1;
+            if (log.contains(next)) {
+                applyLoggedInputs(next);
+                replaying = true;
+                scheduler.beginStepping(log.getElapsedMs(next));
+            } else {
+                scheduler.beginStepping(scheduler.getTickMs());
+            }
+
+            if (!scheduler.isStepping()) {
+                replaying = false;
+                return null;
+            }
+        }
+
+        Instruction executed = scheduler.stepInstruction();
+        if (!scheduler.isStepping()) {
+            replaying = false;
+        }
+        return executed;
+    }
+
+    // Conclui a varredura em andamento ou executa a próxima inteira
+    public void stepScan() {
+        do {
+            stepInstruction();
+        } while (scheduler.isStepping());
+    }
+
+    // Sensores do modelo de processo são recalculados pelo próprio modelo
+    private void applyLoggedInputs(long scan) {
+        long[] words = new long[inputWords.length];
+        log.getInputs(scan, words);
+
+        Map<String, Boolean> inputs = engine.getContext().getInputs();
+        List<String> plantAddresses = engine.getPlant() == null ? List.of() : engine.getPlant().getWriteAddresses();
+        for (int i = 0; i < inputIds.length; i++) {
+            if (!plantAddresses.contains(inputIds[i])) {
+                inputs.put(inputIds[i], (words[i >>> 6] & (1L << (i & 63))) != 0);
+            }
+        }
+    }
+}
@@ -36,24 +36,25 @@ public class Language {
                 jComboBox.addItem("File");
                 jComboBox.addItem("Save");
                 jComboBox.addItem("Load");
+                jComboBox.addItem("Export VCD");
             }
             case "JA" -> {
                 jComboBox.addItem("ファイル");
                 jComboBox.addItem("保存");
                 jComboBox.addItem("ロードするには");
-                jComboBox.addItem("項目 4");
+                jComboBox.addItem("VCD出力");
             }
             case "DE" -> {
                 jComboBox.addItem("Datei");
                 jComboBox.addItem("Speichern");
                 jComboBox.addItem("Zum Laden");
-                jComboBox.addItem("Punkt 4");
+                jComboBox.addItem("VCD exportieren");
             }
             default -> {
                 jComboBox.addItem("Arquivo");
                 jComboBox.addItem("Salvar");
                 jComboBox.addItem("Carregar");
-                jComboBox.addItem("Item 4");
+                jComboBox.addItem("Exportar VCD");
             }
         }
         return jComboBox;
@@ -0,0 +1,57 @@
+package ilcompiler.fuzz;
+
+import java.util.List;
+
+// Falha encontrada: a sequência original do caso e o menor reprodutor obtido na minimização
+public class FuzzFinding {
+
+    private final String hazard;
+    private final long caseSeed;
+    private final int originalStimuli;
+    private final int originalScan;
+    private final List<Stimulus> reproducer;
+    private final int hazardScan;
+
+    public FuzzFinding(String hazard, long caseSeed, int originalStimuli, int originalScan,
+            List<Stimulus> reproducer, int hazardScan) {
+        this.hazard = hazard;
+        this.caseSeed = caseSeed;
+        this.originalStimuli = originalStimuli;
+        this.originalScan = originalScan;
+        this.reproducer = List.copyOf(reproducer);
+        this.hazardScan = hazardScan;
+    }
+
+    public String getHazard() {
+        return hazard;
+    }
+
+    public long getCaseSeed() {
+        return caseSeed;
+    }
+
+    public List<Stimulus> getReproducer() {
+        return reproducer;
+    }
+
+    // Varredura (base 0) em que a falha aparece com o reprodutor
+    public int getHazardScan() {
+        return hazardScan;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(hazard).append('\n');
+        text.append(String.format("  Semente do caso: %d, %d estímulos e falha na varredura %d; reprodutor com "
+                + "%d estímulos, falha na varredura %d:", caseSeed, originalStimuli, originalScan,
+                reproducer.size(), hazardScan));
+        if (reproducer.isEmpty()) {
+            text.append("\n    (sem estímulos: a falha acontece só com o programa)");
+        }
+        for (Stimulus stimulus : reproducer) {
+            text.append("\n    ").append(stimulus);
+        }
+        return text.toString();
+    }
+}
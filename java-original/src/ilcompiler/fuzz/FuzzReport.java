@@ -0,0 +1,52 @@
+package ilcompiler.fuzz;
+
+import java.util.List;
+
+// Resultado de uma campanha de fuzzing: volume executado e uma falha minimizada por tipo
+public class FuzzReport {
+
+    private final int cases;
+    private final long scans;
+    private final long elapsedNanos;
+    private final int failingCases;
+    private final List<FuzzFinding> findings;
+
+    public FuzzReport(int cases, long scans, long elapsedNanos, int failingCases, List<FuzzFinding> findings) {
+        this.cases = cases;
+        this.scans = scans;
+        this.elapsedNanos = elapsedNanos;
+        this.failingCases = failingCases;
+        this.findings = List.copyOf(findings);
+    }
+
+    public int getCases() {
+        return cases;
+    }
+
+    public long getScans() {
+        return scans;
+    }
+
+    public int getFailingCases() {
+        return failingCases;
+    }
+
+    public List<FuzzFinding> getFindings() {
+        return findings;
+    }
+
+    public double getScansPerSecond() {
+        return elapsedNanos == 0 ? 0 : scans * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(
+                "Casos: %d (com falha: %d), varreduras: %d, tempo: %.3f s, varreduras/s: %.0f",
+                cases, failingCases, scans, elapsedNanos / 1e9, getScansPerSecond()));
+        for (FuzzFinding finding : findings) {
+            text.append("\n\n").append(finding);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,353 @@
+package ilcompiler.fuzz;
+
+import Models.ExecutionMode;
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.TaskScheduler;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import plant.PlantModel;
+import plant.PlantModels;
+
+// Fuzzing de sequências de entrada contra as falhas do modelo de processo (PlantModel.getHazard)
+// e os erros do programa. Cada caso é gerado a partir da sua própria semente, roda sem interface
+// em tempo virtual e é reproduzível isoladamente. Os casos são distribuídos entre todos os núcleos;
+// a primeira falha de cada tipo (menor caso) é minimizada até o menor reprodutor.
+public class Fuzzer {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final CompiledProgram program;
+    private final String plantName;
+    private final Map<String, Boolean> buttons;
+    private final List<String> sensors;
+
+    private double pressProbability = 0.01;
+    private int maxPressScans = 50;
+    private double noiseProbability = 0.001;
+    private int maxNoiseScans = 3;
+
+    // buttons: endereço -> valor em repouso (true nos botões NF)
+    public Fuzzer(CompiledProgram program, String plantName, Map<String, Boolean> buttons) {
+        this.program = program;
+        this.plantName = plantName;
+        this.buttons = new LinkedHashMap<>(buttons);
+        this.sensors = plantName == null ? List.of() : PlantModels.create(plantName).getWriteAddresses();
+    }
+
+    // Chance, por varredura e por botão, de começar um toque de 1 a maxScans varreduras
+    public void setPresses(double probability, int maxScans) {
+        pressProbability = probability;
+        maxPressScans = Math.max(1, maxScans);
+    }
+
+    // Chance, por varredura e por sensor, de um ruído de 1 a maxScans varreduras
+    public void setNoise(double probability, int maxScans) {
+        noiseProbability = probability;
+        maxNoiseScans = Math.max(1, maxScans);
+    }
+
+    // Semente de cada caso: a campanha inteira é determinística e cada caso pode ser refeito sozinho
+    public static long caseSeed(long seed, int index) {
+        return new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
+    public List<Stimulus> generate(long caseSeed, int scans) {
+        SplittableRandom random = new SplittableRandom(caseSeed);
+        List<Stimulus> stimuli = new ArrayList<>();
+        for (int scan = 0; scan < scans; scan++) {
+            for (String button : buttons.keySet()) {
+                if (random.nextDouble() < pressProbability) {
+                    stimuli.add(new Stimulus(Stimulus.Kind.PRESS, button, scan, 1 + random.nextInt(maxPressScans)));
+                }
+            }
+            for (String sensor : sensors) {
+                if (random.nextDouble() < noiseProbability) {
+                    stimuli.add(new Stimulus(Stimulus.Kind.NOISE, sensor, scan, 1 + random.nextInt(maxNoiseScans)));
+                }
+            }
+        }
+        return stimuli;
+    }
+
+    public FuzzReport run(int cases, int scansPerCase, long seed) throws InterruptedException {
+        ExecutorService pool = Executors.newWorkStealingPool();
+        AtomicLong totalScans = new AtomicLong();
+        AtomicLong failing = new AtomicLong();
+        // Falha -> menor índice de caso que a produziu
+        Map<String, Integer> firstCase = new ConcurrentHashMap<>();
+
+        List<Callable<Void>> batches = new ArrayList<>();
+        for (int first = 0; first < cases; first += BATCH_SIZE) {
+            int from = first;
+            int to = Math.min(cases, first + BATCH_SIZE);
+            batches.add(() -> {
+                long scans = 0;
+                for (int index = from; index < to; index++) {
+                    Outcome outcome = execute(generate(caseSeed(seed, index), scansPerCase), scansPerCase);
+                    scans += outcome.scans;
+                    if (outcome.hazard != null) {
+                        failing.incrementAndGet();
+                        firstCase.merge(outcome.hazard, index, Math::min);
+                    }
+                }
+                totalScans.addAndGet(scans);
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        List<FuzzFinding> findings = new ArrayList<>();
+        try {
+            waitAll(pool.invokeAll(batches));
+            long elapsed = System.nanoTime() - start;
+
+            List<Callable<FuzzFinding>> minimizations = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : firstCase.entrySet()) {
+                minimizations.add(() -> minimize(caseSeed(seed, entry.getValue()), scansPerCase));
+            }
+            for (Future<FuzzFinding> finding : pool.invokeAll(minimizations)) {
+                findings.add(finding.get());
+            }
+            findings.sort(Comparator.comparing(FuzzFinding::getHazard));
+
+            return new FuzzReport(cases, totalScans.get(), elapsed, (int) failing.get(), findings);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Falha ao executar caso de fuzzing", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void waitAll(List<Future<Void>> futures) throws InterruptedException, ExecutionException {
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+    }
+
+    // -------------------- Minimização --------------------
+    // Delta debugging sobre os estímulos, depois encurta os que sobraram; o caso só encolhe
+    // enquanto reproduz a mesma falha
+    public FuzzFinding minimize(long caseSeed, int scans) {
+        List<Stimulus> original = generate(caseSeed, scans);
+        Outcome failure = execute(original, scans);
+        if (failure.hazard == null) {
+            throw new IllegalArgumentException("O caso de semente " + caseSeed + " não falha!");
+        }
+        String hazard = failure.hazard;
+        int limit = failure.failedScan + 1;
+
+        List<Stimulus> current = new ArrayList<>();
+        for (Stimulus stimulus : original) {
+            if (stimulus.getScan() < limit) {
+                current.add(stimulus);
+            }
+        }
+
+        if (fails(List.of(), limit, hazard)) {
+            current = new ArrayList<>();
+        }
+
+        int granularity = 2;
+        while (current.size() >= 2) {
+            int chunk = (current.size() + granularity - 1) / granularity;
+            boolean reduced = false;
+            for (int from = 0; from < current.size() && !reduced; from += chunk) {
+                List<Stimulus> complement = new ArrayList<>(current.subList(0, from));
+                complement.addAll(current.subList(Math.min(current.size(), from + chunk), current.size()));
+                if (fails(complement, limit, hazard)) {
+                    current = complement;
+                    granularity = Math.max(granularity - 1, 2);
+                    reduced = true;
+                }
+            }
+            if (!reduced) {
+                if (granularity >= current.size()) {
+                    break;
+                }
+                granularity = Math.min(current.size(), granularity * 2);
+            }
+        }
+
+        if (current.size() == 1 && fails(List.of(), limit, hazard)) {
+            current = new ArrayList<>();
+        }
+
+        // Toques e ruídos mais curtos
+        for (int i = 0; i < current.size(); i++) {
+            Stimulus stimulus = current.get(i);
+            int duration = stimulus.getDuration();
+            while (duration > 1) {
+                int shorter = duration / 2;
+                List<Stimulus> candidate = new ArrayList<>(current);
+                candidate.set(i, stimulus.withDuration(shorter));
+                if (!fails(candidate, limit, hazard)) {
+                    break;
+                }
+                current = candidate;
+                duration = shorter;
+            }
+        }
+
+        Outcome minimal = execute(current, limit);
+        return new FuzzFinding(hazard, caseSeed, original.size(), failure.failedScan, current, minimal.failedScan);
+    }
+
+    private boolean fails(List<Stimulus> stimuli, int scans, String hazard) {
+        return hazard.equals(execute(stimuli, scans).hazard);
+    }
+
+    // -------------------- Execução --------------------
+    private static class Outcome {
+
+        final long scans;
+        final int failedScan;
+        final String hazard;
+
+        Outcome(long scans, int failedScan, String hazard) {
+            this.scans = scans;
+            this.failedScan = failedScan;
+            this.hazard = hazard;
+        }
+    }
+
+    // Roda a sequência numa instância nova até a falha ou até 'scans' varreduras
+    private Outcome execute(List<Stimulus> stimuli, int scans) {
+        PlcContext context = new PlcContext();
+        Map<String, Boolean> inputs = context.getInputs();
+        inputs.putAll(buttons);
+
+        ScanEngine engine = new ScanEngine(context);
+        NoisyPlant plant = null;
+        if (plantName != null) {
+            plant = new NoisyPlant(PlantModels.create(plantName), stimuli);
+            engine.setPlant(plant);
+        }
+
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        scheduler.load(program);
+        context.setMode(ExecutionMode.RUNNING);
+
+        // Toques viram mudanças de entrada ordenadas por varredura: aperta no início, solta no fim
+        List<int[]> changes = new ArrayList<>();
+        List<String> pressed = new ArrayList<>();
+        for (Stimulus stimulus : stimuli) {
+            if (stimulus.getKind() == Stimulus.Kind.PRESS) {
+                changes.add(new int[]{stimulus.getScan(), pressed.size(), 1});
+                changes.add(new int[]{stimulus.getScan() + stimulus.getDuration(), pressed.size(), 0});
+                pressed.add(stimulus.getAddress());
+            }
+        }
+        changes.sort(Comparator.comparingInt(change -> change[0]));
+        int[] held = new int[pressed.size()];
+
+        int next = 0;
+        int tickMs = scheduler.getTickMs();
+        for (int scan = 0; scan < scans; scan++) {
+            while (next < changes.size() && changes.get(next)[0] == scan) {
+                int[] change = changes.get(next++);
+                String address = pressed.get(change[1]);
+                held[change[1]] = change[2];
+                boolean active = false;
+                for (int i = 0; i < held.length; i++) {
+                    if (held[i] == 1 && pressed.get(i).equals(address)) {
+                        active = true;
+                    }
+                }
+                inputs.put(address, active != buttons.getOrDefault(address, false));
+            }
+
+            scheduler.tick(tickMs);
+
+            if (context.getMode() != ExecutionMode.RUNNING) {
+                return new Outcome(scan + 1, scan, "Erro do programa: " + context.getLastError());
+            }
+            if (plant != null && plant.getHazard() != null) {
+                return new Outcome(scan + 1, scan, plant.getHazard());
+            }
+        }
+        return new Outcome(scans, -1, null);
+    }
+
+    // Modelo de processo com sensores invertidos nas janelas de ruído
+    private static class NoisyPlant implements PlantModel {
+
+        private final PlantModel plant;
+        private final String[] addresses;
+        private final int[] from;
+        private final int[] to;
+        private int scan;
+
+        NoisyPlant(PlantModel plant, List<Stimulus> stimuli) {
+            this.plant = plant;
+            List<Stimulus> noise = new ArrayList<>();
+            for (Stimulus stimulus : stimuli) {
+                if (stimulus.getKind() == Stimulus.Kind.NOISE) {
+                    noise.add(stimulus);
+                }
+            }
+            addresses = new String[noise.size()];
+            from = new int[noise.size()];
+            to = new int[noise.size()];
+            for (int i = 0; i < noise.size(); i++) {
+                addresses[i] = noise.get(i).getAddress();
+                from[i] = noise.get(i).getScan();
+                to[i] = noise.get(i).getScan() + noise.get(i).getDuration();
+            }
+        }
+
+        @Override
+        public String getName() {
+            return plant.getName();
+        }
+
+        @Override
+        public List<String> getReadAddresses() {
+            return plant.getReadAddresses();
+        }
+
+        @Override
+        public List<String> getWriteAddresses() {
+            return plant.getWriteAddresses();
+        }
+
+        @Override
+        public void reset() {
+            plant.reset();
+            scan = 0;
+        }
+
+        @Override
+        public void step(Map<String, Boolean> inputs, Map<String, Boolean> outputs, int elapsedMs) {
+            plant.step(inputs, outputs, elapsedMs);
+            for (int i = 0; i < addresses.length; i++) {
+                if (scan >= from[i] && scan < to[i]) {
+                    inputs.put(addresses[i], !inputs.getOrDefault(addresses[i], false));
+                }
+            }
+            scan++;
+        }
+
+        @Override
+        public void writeAnalogInputs(int[] analogInputs) {
+            plant.writeAnalogInputs(analogInputs);
+        }
+
+        @Override
+        public String getHazard() {
+            return plant.getHazard();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ilcompiler.fuzz;
+
+// Estímulo de uma sequência de fuzzing: botão pressionado ou ruído (sensor invertido)
+// a partir da varredura 'scan', por 'duration' varreduras
+public class Stimulus {
+
+    public enum Kind {
+        PRESS, NOISE
+    }
+
+    private final Kind kind;
+    private final String address;
+    private final int scan;
+    private final int duration;
+
+    public Stimulus(Kind kind, String address, int scan, int duration) {
+        this.kind = kind;
+        this.address = address;
+        this.scan = scan;
+        this.duration = duration;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public int getScan() {
+        return scan;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public Stimulus withDuration(int newDuration) {
+        return new Stimulus(kind, address, scan, newDuration);
+    }
+
+    @Override
+    public String toString() {
+        return "varredura " + scan + ": " + (kind == Kind.PRESS ? "pressiona " : "ruído em ") + address
+                + " por " + duration + (duration == 1 ? " varredura" : " varreduras");
+    }
+}
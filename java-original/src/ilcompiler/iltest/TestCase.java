@@ -0,0 +1,43 @@
+package ilcompiler.iltest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Caso de teste: passos ordenados pelo instante (na mesma hora, na ordem do arquivo)
+public class TestCase {
+
+    private final String name;
+    private final int line;
+    private final List<TestStep> steps = new ArrayList<>();
+
+    public TestCase(String name, int line) {
+        this.name = name;
+        this.line = line;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public List<TestStep> getSteps() {
+        return steps;
+    }
+
+    // Instante do último passo, base dos passos "after"
+    public long getLastTimeMs() {
+        return steps.isEmpty() ? 0 : steps.get(steps.size() - 1).getTimeMs();
+    }
+
+    void addStep(TestStep step) {
+        steps.add(step);
+    }
+
+    void sortSteps() {
+        steps.sort(Comparator.comparingLong(TestStep::getTimeMs));
+    }
+}
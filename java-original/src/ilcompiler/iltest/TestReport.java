@@ -0,0 +1,124 @@
+package ilcompiler.iltest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Resultado de uma execução de suítes, com exportação no formato XML do JUnit
+// (aceito por Jenkins, GitLab, GitHub Actions e afins)
+public class TestReport {
+
+    private final List<TestResult> results;
+    private final long elapsedNanos;
+
+    public TestReport(List<TestResult> results, long elapsedNanos) {
+        this.results = List.copyOf(results);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<TestResult> getResults() {
+        return results;
+    }
+
+    public int count(TestResult.Status status) {
+        int count = 0;
+        for (TestResult result : results) {
+            if (result.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isSuccessful() {
+        return count(TestResult.Status.PASSED) == results.size();
+    }
+
+    public void writeJUnit(Path file) throws IOException {
+        Map<String, List<TestResult>> suites = new LinkedHashMap<>();
+        for (TestResult result : results) {
+            suites.computeIfAbsent(result.getSuite(), name -> new ArrayList<>()).add(result);
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write(String.format(Locale.ROOT, "<testsuites tests=\"%d\" failures=\"%d\" errors=\"%d\" time=\"%.3f\">\n",
+                    results.size(), count(TestResult.Status.FAILED), count(TestResult.Status.ERROR), elapsedNanos / 1e9));
+
+            for (Map.Entry<String, List<TestResult>> suite : suites.entrySet()) {
+                int failures = 0;
+                int errors = 0;
+                long nanos = 0;
+                for (TestResult result : suite.getValue()) {
+                    failures += result.getStatus() == TestResult.Status.FAILED ? 1 : 0;
+                    errors += result.getStatus() == TestResult.Status.ERROR ? 1 : 0;
+                    nanos += result.getElapsedNanos();
+                }
+                writer.write(String.format(Locale.ROOT,
+                        "  <testsuite name=\"%s\" tests=\"%d\" failures=\"%d\" errors=\"%d\" skipped=\"0\" time=\"%.3f\">\n",
+                        escape(suite.getKey()), suite.getValue().size(), failures, errors, nanos / 1e9));
+
+                for (TestResult result : suite.getValue()) {
+                    writer.write(String.format(Locale.ROOT, "    <testcase classname=\"%s\" name=\"%s\" time=\"%.3f\"",
+                            escape(result.getSuite()), escape(result.getName()), result.getElapsedNanos() / 1e9));
+                    if (result.getStatus() == TestResult.Status.PASSED) {
+                        writer.write("/>\n");
+                        continue;
+                    }
+                    String element = result.getStatus() == TestResult.Status.FAILED ? "failure" : "error";
+                    writer.write(">\n      <" + element + " message=\"" + escape(result.getMessage()) + "\">"
+                            + escape(result.getMessage()) + "</" + element + ">\n    </testcase>\n");
+                }
+                writer.write("  </testsuite>\n");
+            }
+            writer.write("</testsuites>\n");
+        }
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : String.valueOf(text).toCharArray()) {
+            switch (c) {
+                case '&' ->
+                    escaped.append("&amp;");
+                case '<' ->
+                    escaped.append("&lt;");
+                case '>' ->
+                    escaped.append("&gt;");
+                case '"' ->
+                    escaped.append("&quot;");
+                default -> {
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (TestResult result : results) {
+            if (result.getStatus() != TestResult.Status.PASSED) {
+                text.append(result).append('\n');
+            }
+        }
+        long scans = 0;
+        for (TestResult result : results) {
+            scans += result.getScans();
+        }
+        text.append(String.format("Testes: %d, aprovados: %d, falhas: %d, erros: %d, varreduras: %d, tempo: %.3f s",
+                results.size(), count(TestResult.Status.PASSED), count(TestResult.Status.FAILED),
+                count(TestResult.Status.ERROR), scans, elapsedNanos / 1e9));
+        return text.toString();
+    }
+}
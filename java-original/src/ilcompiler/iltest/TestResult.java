@@ -0,0 +1,62 @@
+package ilcompiler.iltest;
+
+// Resultado de um caso: passou, falhou numa expectativa ou parou por erro (compilação,
+// modelo de processo ou erro do programa durante a varredura)
+public class TestResult {
+
+    public enum Status {
+        PASSED, FAILED, ERROR
+    }
+
+    private final String suite;
+    private final String name;
+    private final Status status;
+    private final String message;
+    private final long scans;
+    private final long elapsedNanos;
+
+    public TestResult(String suite, String name, Status status, String message, long scans, long elapsedNanos) {
+        this.suite = suite;
+        this.name = name;
+        this.status = status;
+        this.message = message;
+        this.scans = scans;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getSuite() {
+        return suite;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getScans() {
+        return scans;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return switch (status) {
+            case PASSED ->
+                "OK     " + suite + " > " + name;
+            case FAILED ->
+                "FALHOU " + suite + " > " + name + ": " + message;
+            default ->
+                "ERRO   " + suite + " > " + name + ": " + message;
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package ilcompiler.iltest;
+
+import Models.ExecutionMode;
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.ProgramCache;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.TaskScheduler;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import plant.PlantModels;
+
+// Executa suítes de teste sem interface, em tempo virtual: cada caso roda numa instância nova
+// e os casos de todas as suítes são distribuídos entre os núcleos
+public class TestRunner {
+
+    // Arquivo .iltest ou pasta com arquivos .iltest (incluindo subpastas)
+    public static List<TestSuite> load(Path path) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(file -> file.getFileName().toString().endsWith(TestSuite.EXTENSION))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        } else {
+            files.add(path);
+        }
+
+        List<TestSuite> suites = new ArrayList<>();
+        for (Path file : files) {
+            suites.add(TestSuite.read(file));
+        }
+        return suites;
+    }
+
+    // program: usado nas suítes sem a linha "program" (pode ser null)
+    public static TestReport run(List<TestSuite> suites, Path program) throws InterruptedException {
+        List<Callable<TestResult>> jobs = new ArrayList<>();
+        for (TestSuite suite : suites) {
+            CompiledProgram compiled;
+            try {
+                compiled = compile(suite, program);
+                if (suite.getPlant() != null) {
+                    PlantModels.create(suite.getPlant());
+                }
+            } catch (IOException | IllegalArgumentException ex) {
+                String message = ex instanceof IOException ? "Erro ao ler o programa: " + ex.getMessage()
+                        : ex.getMessage();
+                for (TestCase test : suite.getCases()) {
+                    jobs.add(() -> new TestResult(suite.getName(), test.getName(), TestResult.Status.ERROR,
+                            message, 0, 0));
+                }
+                continue;
+            }
+            for (TestCase test : suite.getCases()) {
+                jobs.add(() -> runCase(suite, compiled, test));
+            }
+        }
+
+        ExecutorService pool = Executors.newWorkStealingPool();
+        long start = System.nanoTime();
+        try {
+            List<TestResult> results = new ArrayList<>();
+            for (Future<TestResult> result : pool.invokeAll(jobs)) {
+                results.add(result.get());
+            }
+            return new TestReport(results, System.nanoTime() - start);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Falha ao executar teste", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static CompiledProgram compile(TestSuite suite, Path program) throws IOException {
+        Path file = suite.getProgram() != null ? suite.getProgram() : program;
+        if (file == null) {
+            throw new IllegalArgumentException(suite.getFile().getFileName()
+                    + ": informe o programa com a linha \"program <arquivo.txt>\"!");
+        }
+        return ProgramCache.compileFile(file.toString(), suite.getPeriodMs());
+    }
+
+    public static TestResult runCase(TestSuite suite, CompiledProgram program, TestCase test) {
+        long start = System.nanoTime();
+        PlcContext context = new PlcContext();
+        ScanEngine engine = new ScanEngine(context);
+        if (suite.getPlant() != null) {
+            engine.setPlant(PlantModels.create(suite.getPlant()));
+        }
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        scheduler.load(program);
+        context.setMode(ExecutionMode.RUNNING);
+
+        // Instante da próxima varredura; a primeira acontece em t=0
+        long nextScanMs = 0;
+        for (TestStep step : test.getSteps()) {
+            // SET vale para a varredura do seu instante; EXPECT olha o estado depois dela
+            long untilMs = step.getAction() == TestStep.Action.SET ? step.getTimeMs() - 1 : step.getTimeMs();
+            while (nextScanMs <= untilMs) {
+                scheduler.tick(scheduler.getTickMs());
+                nextScanMs = scheduler.getNowMs() + scheduler.getTickMs();
+                if (context.getMode() != ExecutionMode.RUNNING) {
+                    return new TestResult(suite.getName(), test.getName(), TestResult.Status.ERROR,
+                            "t=" + scheduler.getNowMs() + " ms: " + context.getLastError(),
+                            engine.getScanCount(), System.nanoTime() - start);
+                }
+            }
+
+            if (step.getAction() == TestStep.Action.SET) {
+                step.apply(context);
+                continue;
+            }
+            int actual = step.actual(context);
+            if (!step.check(actual)) {
+                return new TestResult(suite.getName(), test.getName(), TestResult.Status.FAILED,
+                        "linha " + step.getLine() + ", t=" + step.getTimeMs() + " ms: esperado " + step.describe()
+                        + ", obtido " + actual, engine.getScanCount(), System.nanoTime() - start);
+            }
+        }
+        return new TestResult(suite.getName(), test.getName(), TestResult.Status.PASSED, null,
+                engine.getScanCount(), System.nanoTime() - start);
+    }
+}
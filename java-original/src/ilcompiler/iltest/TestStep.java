@@ -0,0 +1,122 @@
+package ilcompiler.iltest;
+
+import ilcompiler.debug.BreakCondition;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.runtime.PlcContext;
+
+// Passo de um caso de teste no instante 'timeMs' (tempo virtual desde o carregamento):
+// SET muda uma entrada (ou memória) antes da varredura desse instante;
+// EXPECT confere um endereço depois de todas as varreduras até esse instante.
+public class TestStep {
+
+    public enum Action {
+        SET, EXPECT
+    }
+
+    private final int line;
+    private final long timeMs;
+    private final Action action;
+    private final String address;
+    // DN, EN, ACC ou PRE nos temporizadores e contadores; null para o bit do endereço
+    private final String field;
+    private final String operator;
+    private final int value;
+    private final String text;
+
+    public TestStep(int line, long timeMs, Action action, String address, String field, String operator,
+            int value, String text) {
+        this.line = line;
+        this.timeMs = timeMs;
+        this.action = action;
+        this.address = address;
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+        this.text = text;
+    }
+
+    // Linha do arquivo de teste (base 1)
+    public int getLine() {
+        return line;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    // Aplica o SET na imagem: entradas passam pela fila de eventos, memórias são escritas direto
+    public void apply(PlcContext context) {
+        if (address.charAt(0) == 'I') {
+            context.setInput(address, value != 0);
+            return;
+        }
+        if (BreakCondition.isWord(address)) {
+            context.getWords()[Integer.parseInt(address.substring(2))] = value;
+            return;
+        }
+        MemoryVariable variable = context.getMemoryVariables().get(address);
+        if (variable == null) {
+            variable = context.createMemoryVariable(address);
+        }
+        variable.currentValue = value != 0;
+    }
+
+    public int actual(PlcContext context) {
+        if (field == null) {
+            return BreakCondition.value(context, address);
+        }
+        MemoryVariable variable = context.getMemoryVariables().get(address);
+        if (variable == null) {
+            return 0;
+        }
+        return switch (field) {
+            case "DN" ->
+                Boolean.TRUE.equals(variable.endTimer) ? 1 : 0;
+            case "EN" ->
+                Boolean.TRUE.equals(variable.currentValue) ? 1 : 0;
+            case "ACC" ->
+                variable.counter;
+            default ->
+                variable.maxTimer;
+        };
+    }
+
+    public boolean check(int actual) {
+        return switch (operator) {
+            case "=" ->
+                actual == value;
+            case "!=" ->
+                actual != value;
+            case "<" ->
+                actual < value;
+            case "<=" ->
+                actual <= value;
+            case ">" ->
+                actual > value;
+            default ->
+                actual >= value;
+        };
+    }
+
+    // Descrição da expectativa para a mensagem de falha, ex.: "T1.ACC >= 20"
+    public String describe() {
+        return address + (field == null ? "" : "." + field) + " " + operator + " " + value;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,236 @@
+package ilcompiler.iltest;
+
+import ilcompiler.debug.BreakCondition;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Arquivo de testes (.iltest) de um programa IL. Exemplo:
+//
+//   program "Exemplo 2 - Timer.txt"
+//   test Sinaleiro liga depois de 3 s
+//   at t=0 set I1.0
+//   after 2.9s expect Q0.2 = 0
+//   after 100ms expect Q0.2
+//   expect T1.ACC >= 30
+//
+// Cabeçalho: program (relativo ao arquivo), plant (modelo de processo), period (varredura).
+// Passos: "at [t=]<tempo>" é absoluto, "after <tempo>" conta a partir do passo anterior e sem
+// prefixo vale o mesmo instante. Ações: set/reset <endereço> e expect <endereço>[.DN|EN|ACC|PRE]
+// [=, !=, <, <=, >, >= valor] ou expect not <endereço>. Tempos em ms (padrão), s ou min.
+// Palavras (MW) recebem e conferem valores inteiros: set MW5 = 42, expect MW5 >= 10.
+public class TestSuite {
+
+    public static final String EXTENSION = ".iltest";
+    private static final int DEFAULT_PERIOD_MS = 100;
+
+    private static final String TIME = "(\\d+(?:\\.\\d+)?)\\s*(MS|S|MIN)?";
+    private static final Pattern STEP = Pattern.compile(
+            "(?:AT\\s+(?:T\\s*=\\s*)?" + TIME + "\\s+|AFTER\\s+" + TIME + "\\s+)?(SET|RESET|EXPECT)\\s+(.+)");
+    private static final Pattern ASSERTION = Pattern.compile(
+            "(NOT\\s+)?((?:MW|[A-Z])[0-9.]+)(?:\\.(DN|EN|ACC|PRE))?(?:\\s*(==|=|!=|<>|<=|>=|<|>)\\s*(\\S+))?");
+    private static final Pattern SET = Pattern.compile("((?:MW|[A-Z])[0-9.]+)(?:\\s*=\\s*(\\S+))?");
+
+    private final Path file;
+    private String program;
+    private String plant;
+    private int periodMs = DEFAULT_PERIOD_MS;
+    private final List<TestCase> cases = new ArrayList<>();
+
+    private TestSuite(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Nome da suíte nos relatórios: o nome do arquivo sem a extensão
+    public String getName() {
+        String name = file.getFileName().toString();
+        return name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name;
+    }
+
+    // Caminho do programa já resolvido a partir da pasta do arquivo; null se não foi informado
+    public Path getProgram() {
+        if (program == null) {
+            return null;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        return parent == null ? Path.of(program) : parent.resolve(program);
+    }
+
+    public String getPlant() {
+        return plant;
+    }
+
+    public int getPeriodMs() {
+        return periodMs;
+    }
+
+    public List<TestCase> getCases() {
+        return cases;
+    }
+
+    public static TestSuite read(Path file) throws IOException {
+        TestSuite suite = new TestSuite(file);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        TestCase current = null;
+
+        for (int index = 0; index < lines.size(); index++) {
+            String line = lines.get(index).trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("//")) {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+", 2);
+            String keyword = parts[0].toUpperCase(Locale.ROOT);
+            String argument = parts.length > 1 ? parts[1].trim() : "";
+            switch (keyword) {
+                case "PROGRAM" ->
+                    suite.program = unquote(argument);
+                case "PLANT" ->
+                    suite.plant = argument.isEmpty() ? null : argument;
+                case "PERIOD" ->
+                    suite.periodMs = (int) suite.parseTime(argument, index);
+                case "TEST" -> {
+                    current = new TestCase(argument.isEmpty() ? "teste " + (suite.cases.size() + 1) : argument,
+                            index + 1);
+                    suite.cases.add(current);
+                }
+                default -> {
+                    if (current == null) {
+                        throw suite.error(index, "passo fora de um teste (falta a linha \"test <nome>\")");
+                    }
+                    current.addStep(suite.parseStep(line, index, current.getLastTimeMs()));
+                }
+            }
+        }
+
+        if (suite.cases.isEmpty()) {
+            throw new IllegalArgumentException(file.getFileName() + ": nenhum teste encontrado!");
+        }
+        if (suite.periodMs <= 0) {
+            throw new IllegalArgumentException(file.getFileName() + ": período deve ser positivo!");
+        }
+        for (TestCase test : suite.cases) {
+            test.sortSteps();
+        }
+        return suite;
+    }
+
+    private TestStep parseStep(String line, int index, long previousMs) {
+        Matcher step = STEP.matcher(line.toUpperCase(Locale.ROOT));
+        if (!step.matches()) {
+            throw error(index, "passo inválido \"" + line + "\"");
+        }
+
+        long timeMs = previousMs;
+        if (step.group(1) != null) {
+            timeMs = toMs(step.group(1), step.group(2));
+        } else if (step.group(3) != null) {
+            timeMs = previousMs + toMs(step.group(3), step.group(4));
+        }
+
+        String action = step.group(5);
+        String body = step.group(6).trim();
+        if (action.equals("EXPECT")) {
+            Matcher assertion = ASSERTION.matcher(body);
+            if (!assertion.matches()) {
+                throw error(index, "expectativa inválida \"" + body + "\"");
+            }
+            String address = checkAddress(assertion.group(2), index);
+            String field = assertion.group(3);
+            if (field != null && address.charAt(0) != 'T' && address.charAt(0) != 'C') {
+                throw error(index, "." + field + " só existe em temporizadores e contadores");
+            }
+            String operator = assertion.group(4) == null ? "=" : assertion.group(4);
+            operator = operator.equals("==") ? "=" : operator.equals("<>") ? "!=" : operator;
+            int value = assertion.group(5) == null ? 1 : parseValue(assertion.group(5), index);
+            if (assertion.group(1) != null) {
+                if (field != null || assertion.group(4) != null) {
+                    throw error(index, "use \"not\" só com o endereço");
+                }
+                value = 0;
+            }
+            return new TestStep(index + 1, timeMs, TestStep.Action.EXPECT, address, field, operator, value, line);
+        }
+
+        Matcher set = SET.matcher(body);
+        if (!set.matches()) {
+            throw error(index, "escrita inválida \"" + body + "\"");
+        }
+        String address = checkAddress(set.group(1), index);
+        if (address.charAt(0) != 'I' && address.charAt(0) != 'M') {
+            throw error(index, "só entradas (I) e memórias (M) podem ser alteradas");
+        }
+        int value = set.group(2) == null ? 1 : parseValue(set.group(2), index);
+        if (value != 0 && value != 1 && !BreakCondition.isWord(address)) {
+            throw error(index, "valor de " + address + " deve ser 0 ou 1");
+        }
+        if (action.equals("RESET")) {
+            if (set.group(2) != null) {
+                throw error(index, "reset não recebe valor");
+            }
+            value = 0;
+        }
+        return new TestStep(index + 1, timeMs, TestStep.Action.SET, address, null, "=", value, line);
+    }
+
+    private String checkAddress(String address, int index) {
+        try {
+            BreakCondition.checkAddress(address);
+        } catch (IllegalArgumentException ex) {
+            throw error(index, "endereço " + address + " não existe");
+        }
+        return address;
+    }
+
+    private int parseValue(String text, int index) {
+        switch (text) {
+            case "TRUE":
+                return 1;
+            case "FALSE":
+                return 0;
+            default:
+                try {
+                    return Integer.parseInt(text);
+                } catch (NumberFormatException ex) {
+                    throw error(index, "valor inválido \"" + text + "\"");
+                }
+        }
+    }
+
+    private long parseTime(String text, int index) {
+        Matcher time = Pattern.compile(TIME).matcher(text.toUpperCase(Locale.ROOT));
+        if (!time.matches()) {
+            throw error(index, "tempo inválido \"" + text + "\"");
+        }
+        return toMs(time.group(1), time.group(2));
+    }
+
+    private static long toMs(String number, String unit) {
+        double value = Double.parseDouble(number);
+        if ("S".equals(unit)) {
+            value *= 1000;
+        } else if ("MIN".equals(unit)) {
+            value *= 60_000;
+        }
+        return Math.round(value);
+    }
+
+    private static String unquote(String text) {
+        return text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")
+                ? text.substring(1, text.length() - 1) : text;
+    }
+
+    private IllegalArgumentException error(int index, String reason) {
+        return new IllegalArgumentException(file.getFileName() + ", linha " + (index + 1) + ": " + reason + "!");
+    }
+}
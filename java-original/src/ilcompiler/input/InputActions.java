@@ -3,22 +3,17 @@ package ilcompiler.input;
 import java.util.*;
 
 import ilcompiler.input.Input.InputType;
+import ilcompiler.io.IoMap;
 
 public class InputActions {
 
-    private static final List<String> INPUT_IDS = new ArrayList<>();
-
-    static {
-        for (int i = 0; i <= 7; i++) {
-            INPUT_IDS.add("I0." + i);
-        }
-        for (int i = 0; i <= 7; i++) {
-            INPUT_IDS.add("I1." + i);
-        }
+    // Endereços na ordem do mapa de E/S em uso, a mesma usada para empacotar a imagem em palavras
+    public static List<String> getIds() {
+        return IoMap.getCurrent().getInputIds();
     }
 
     public static Map<String, Boolean> create(Map<String, Boolean> inputs) {
-        for (String id : INPUT_IDS) {
+        for (String id : getIds()) {
             Input input = new Input(id, false);
             inputs.put(input.id, input.currentValue);
         }
@@ -26,12 +21,16 @@ public class InputActions {
     }
 
     public static Map<String, InputType> createType(Map<String, InputType> inputsType) {
-        for (String id : INPUT_IDS) {
+        for (String id : getIds()) {
             inputsType.put(id, InputType.SWITCH);
         }
         return inputsType;
     }
 
+    public static boolean exists(String id) {
+        return IoMap.getCurrent().inputIndex(id) >= 0;
+    }
+
     public static Map<String, Boolean> read(Map<String, Boolean> inputs) {
         return inputs;
     }
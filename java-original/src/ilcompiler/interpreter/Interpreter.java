@@ -1,117 +1,302 @@
 package ilcompiler.interpreter;
 
+import ilcompiler.compiler.Instruction;
+import ilcompiler.io.IoImage;
 import ilcompiler.memoryvariable.MemoryVariable;
-import screens.HomePg;
-import java.util.ArrayList;
+import ilcompiler.runtime.PlcContext;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 // Classe que interpreta as intruções
 public class Interpreter {
 
-    // Cria variáveis
-    static Boolean accumulator;
-    static List<String> validOperators = new ArrayList<>();
-
     // Define operadores válidos
-    public static void initializeValidOperators() {
-        validOperators.add("LD");
-        validOperators.add("LDN");
-        validOperators.add("ST");
-        validOperators.add("STN");
-        validOperators.add("AND");
-        validOperators.add("ANDN");
-        validOperators.add("OR");
-        validOperators.add("ORN");
-        validOperators.add("TON");
-        validOperators.add("TOFF");
-        validOperators.add("CTD");
-        validOperators.add("CTU");
+    private static final Set<String> VALID_OPERATORS = Set.of("LD", "LDN", "ST", "STN", "AND", "ANDN", "OR", "ORN",
+            "TON", "TOFF", "CTD", "CTU", "ADD", "SUB", "MUL", "DIV", "GT", "GE", "EQ", "NE", "LE", "LT",
+            "JMP", "JMPC", "JMPCN", "CAL", "CALC", "CALCN", "RET", "RETC", "RETCN", "AND(", "ANDN(", "OR(", "ORN(",
+            ")", "R_TRIG", "F_TRIG", "TP", "TONR", "RES");
+
+    // Operadores que só aceitam palavras (MW, IW ou constante); LD e ST aceitam os dois tipos
+    private static final Set<String> WORD_OPERATORS = Set.of("ADD", "SUB", "MUL", "DIV", "GT", "GE", "EQ", "NE",
+            "LE", "LT");
+
+    // Desvios, chamadas e retornos
+    private static final Set<String> FLOW_OPERATORS = Set.of("JMP", "JMPC", "JMPCN", "CAL", "CALC", "CALCN", "RET",
+            "RETC", "RETCN");
+
+    // Abertura de parênteses -> operação aplicada pelo ')'
+    private static final Map<String, Byte> NESTING_OPERATORS = Map.of("AND(", PlcContext.NESTED_AND,
+            "ANDN(", PlcContext.NESTED_AND_NOT, "OR(", PlcContext.NESTED_OR, "ORN(", PlcContext.NESTED_OR_NOT);
+    public static final byte NO_NESTING = -1;
+    public static final byte CLOSE_NESTING = 4;
+
+    // Cão de guarda: desvios para trás permitidos numa execução de tarefa antes de acusar laço sem fim
+    public static final int MAX_BACKWARD_JUMPS = 100_000;
+
+    // Endereço de retorno de um CAL no fim do bloco: retorna de novo ao voltar da função
+    private static final int RETURN_AGAIN = -2;
+
+    // Executa o código compilado de uma tarefa
+    public static void execute(Instruction[] code, PlcContext context) {
+        // Limpa acumuladores e a pilha de chamadas
+        context.startTask();
+
+        int pc = 0;
+        while (pc >= 0 && pc < code.length) {
+            Instruction instruction = code[pc];
+            executeInstruction(instruction, context);
+            pc = next(instruction, pc, context);
+        }
     }
 
-    // Recebe linhas vindas da tela e separa operador e variável
-    public static Map receiveLines(List<String> lineList, Map<String, Boolean> inputs, Map<String, Boolean> outputs,
-            Map<String, MemoryVariable> memoryVariables) {
+    // Índice da próxima instrução depois de executar a que está em pc, ou -1 no fim da tarefa
+    public static int next(Instruction instruction, int pc, PlcContext context) {
+        if (!instruction.isFlow()) {
+            return instruction.isBlockEnd() ? returnFromBlock(context) : pc + 1;
+        }
 
-        // Variáveis auxiliares
-        char character = '-';
-        Boolean spaceDetected = false;
-        String operator = "";
-        String variable = "";
-        ArrayList<String> variables = new ArrayList();
-        Boolean justEmptyLines = true;
-
-        initializeValidOperators();
-
-        // Limpa acumulador
-        accumulator = null;
-
-        // Itera lista de linhas
-        for (int i = 0; i < lineList.size(); i++) {
-            // Integer currentLine = i + 1;
-            // System.out.println("\n-> Linha: " + currentLine.toString());
-
-            // Ignora linhas vazias
-            if (!lineList.get(i).isBlank()) {
-                justEmptyLines = false;
-                // Itera caracteres da linha
-                for (int j = 0; j < lineList.get(i).length(); j++) {
-                    character = lineList.get(i).charAt(j);
-
-                    if (character != ' ' && character != '\n' && character != '\t' && character != ','
-                            && !spaceDetected) {
-                        operator = operator + character;
-                    }
+        String operator = instruction.getOperator();
+        boolean taken = switch (operator) {
+            case "JMPC", "CALC", "RETC" ->
+                condition(instruction, context);
+            case "JMPCN", "CALCN", "RETCN" ->
+                !condition(instruction, context);
+            default ->
+                true;
+        };
+        if (!taken) {
+            return instruction.isBlockEnd() ? returnFromBlock(context) : pc + 1;
+        }
 
-                    if ((character == ' ' || character == '\t') && !operator.equals("")) {
-                        spaceDetected = true;
-                    }
+        switch (operator.charAt(0)) {
+            case 'R':
+                return returnFromBlock(context);
+            case 'C':
+                context.pushCall(instruction.isBlockEnd() ? RETURN_AGAIN : pc + 1);
+                return instruction.getTarget();
+            default:
+                int target = instruction.getTarget();
+                if (target == Instruction.RETURN) {
+                    return returnFromBlock(context);
+                }
+                if (target <= pc && context.countBackwardJump() > MAX_BACKWARD_JUMPS) {
+                    context.reportError("Laço sem fim na linha " + (instruction.getLine() + 1) + "! Mais de "
+                            + MAX_BACKWARD_JUMPS + " desvios para trás na mesma varredura.");
+                    return -1;
+                }
+                return target;
+        }
+    }
 
-                    if (character == ',' && !operator.equals("")) {
-                        variables.add(variable);
-                        variable = "";
-                    }
+    private static int returnFromBlock(PlcContext context) {
+        int pc;
+        do {
+            pc = context.popCall();
+        } while (pc == RETURN_AGAIN);
+        return pc;
+    }
 
-                    if (character != ' ' && character != '\n' && character != '\t' && character != ','
-                            && spaceDetected) {
-                        variable = variable + character;
-                    }
-                }
+    // Acumulador lógico dos desvios condicionais; vazio é erro, como no AND
+    private static boolean condition(Instruction instruction, PlcContext context) {
+        Boolean accumulator = context.getAccumulator();
+        if (accumulator == null) {
+            context.reportError("Acumulador vazio na linha " + (instruction.getLine() + 1)
+                    + "! Carregue a condição de " + instruction.getOperator() + " com LD ou LDN!");
+            return false;
+        }
+        return accumulator;
+    }
 
-                variables.add(variable);
+    // Executa uma instrução compilada: operandos de E/S resolvidos vão direto ao vetor da imagem;
+    // desvios não fazem nada aqui, só mudam a próxima instrução (next)
+    public static void executeInstruction(Instruction instruction, PlcContext context) {
+        context.setCurrentLine(instruction.getLine());
+        if (instruction.isFlow()) {
+            return;
+        }
+        if (instruction.getNesting() != NO_NESTING) {
+            executeNesting(instruction, context);
+            return;
+        }
+        if (instruction.getWordOperand() != Instruction.WordOperand.NONE) {
+            executeWord(instruction, context);
+        } else if (instruction.getIoIndex() < 0 || !executeIo(instruction, context)) {
+            executeInstruction(instruction.getOperator(), instruction.getOperands(), context);
+        }
+    }
 
-                // System.out.println("Operador: " + operator);
-                // System.out.println("Variável: " + variables);
+    // Parênteses: a abertura guarda o acumulador e carrega o operando, se houver (senão a próxima
+    // instrução deve ser um LD); o ')' combina o resultado de dentro com o acumulador guardado
+    private static void executeNesting(Instruction instruction, PlcContext context) {
+        Boolean accumulator = context.getAccumulator();
+        if (accumulator == null) {
+            context.reportError("Acumulador vazio na linha " + (instruction.getLine() + 1)
+                    + "! Carregue inicialmente a variável desejada para o acumulador com as funções LD ou LDN!");
+            return;
+        }
 
-                outputs = executeInstruction(operator, variables, inputs, outputs, memoryVariables);
+        if (instruction.getNesting() == CLOSE_NESTING) {
+            if (context.getNestingDepth() == 0) {
+                context.reportError("Sintaxe incorreta! ')' sem '(' na linha " + (instruction.getLine() + 1) + "!");
+                return;
             }
+            context.setAccumulator(context.closeNesting(accumulator));
+            return;
+        }
 
-            spaceDetected = false;
-            operator = "";
-            variable = "";
-            variables.clear();
+        context.pushNesting(accumulator, instruction.getNesting());
+        context.setAccumulator(null);
+        if (!instruction.getOperands().get(0).isEmpty()) {
+            load(instruction, context);
         }
+    }
 
-        if (justEmptyLines) {
-            HomePg.showErrorMessage("Insira as intruções para o CLP!");
+    // Carrega o operando como um LD
+    private static void load(Instruction instruction, PlcContext context) {
+        int index = instruction.getIoIndex();
+        if (index >= 0) {
+            IoImage image = instruction.getOperands().get(0).charAt(0) == 'I' ? context.getInputImage()
+                    : context.getOutputImage();
+            if (image.getMap() == instruction.getIoMap()) {
+                context.setAccumulator(image.get(index));
+                return;
+            }
         }
+        executeInstruction("LD", instruction.getOperands(), context);
+    }
 
-        return outputs;
+    // Operações de palavra sobre o acumulador inteiro; as comparações carregam o acumulador lógico
+    private static void executeWord(Instruction instruction, PlcContext context) {
+        int index = instruction.getWordValue();
+        int value = switch (instruction.getWordOperand()) {
+            case MEMORY ->
+                context.getWords()[index];
+            case ANALOG ->
+                context.getAnalogInputs()[index];
+            default ->
+                index;
+        };
+        int accumulator = context.getWordAccumulator();
+
+        switch (instruction.getOperator()) {
+            case "LD" ->
+                context.setWordAccumulator(value);
+            case "ST" -> {
+                if (instruction.getWordOperand() == Instruction.WordOperand.MEMORY) {
+                    context.getWords()[index] = accumulator;
+                } else {
+                    context.reportError("Sintaxe incorreta! " + instruction.getOperands().get(0)
+                            + " não pode ser modificado, use ST com uma palavra MW!");
+                }
+            }
+            case "ADD" ->
+                context.setWordAccumulator(accumulator + value);
+            case "SUB" ->
+                context.setWordAccumulator(accumulator - value);
+            case "MUL" ->
+                context.setWordAccumulator(accumulator * value);
+            case "DIV" -> {
+                if (value == 0) {
+                    context.reportError("Divisão por zero na linha " + (instruction.getLine() + 1) + "!");
+                } else {
+                    context.setWordAccumulator(accumulator / value);
+                }
+            }
+            case "GT" ->
+                context.setAccumulator(accumulator > value);
+            case "GE" ->
+                context.setAccumulator(accumulator >= value);
+            case "EQ" ->
+                context.setAccumulator(accumulator == value);
+            case "NE" ->
+                context.setAccumulator(accumulator != value);
+            case "LE" ->
+                context.setAccumulator(accumulator <= value);
+            case "LT" ->
+                context.setAccumulator(accumulator < value);
+            default ->
+                context.reportError("Sintaxe incorreta! Operador " + instruction.getOperator()
+                        + " não aceita a palavra " + instruction.getOperands().get(0) + "!");
+        }
+    }
+
+    // Mesmo resultado do caminho por endereço para LD/LDN/AND/ANDN/OR/ORN/ST/STN; erros e demais
+    // operadores voltam para ele (retorna false). R_TRIG/F_TRIG carregam a borda do bit desde a
+    // varredura anterior.
+    private static boolean executeIo(Instruction instruction, PlcContext context) {
+        boolean input = instruction.getOperands().get(0).charAt(0) == 'I';
+        IoImage image = input ? context.getInputImage() : context.getOutputImage();
+        int index = instruction.getIoIndex();
+        if (image.getMap() != instruction.getIoMap()) {
+            index = image.getMap().indexOf(instruction.getOperands().get(0));
+            if (index < 0) {
+                return false;
+            }
+        }
+
+        Boolean accumulator = context.getAccumulator();
+        switch (instruction.getOperator()) {
+            case "LD" ->
+                accumulator = image.get(index);
+            case "R_TRIG" ->
+                accumulator = image.rising(index);
+            case "F_TRIG" ->
+                accumulator = image.falling(index);
+            case "LDN" ->
+                accumulator = !image.get(index);
+            case "AND", "ANDN", "OR", "ORN", "ST", "STN" -> {
+                if (accumulator == null) {
+                    return false;
+                }
+                switch (instruction.getOperator()) {
+                    case "AND" ->
+                        accumulator = accumulator && image.get(index);
+                    case "ANDN" ->
+                        accumulator = accumulator && !image.get(index);
+                    case "OR" ->
+                        accumulator = accumulator || image.get(index);
+                    case "ORN" ->
+                        accumulator = accumulator || !image.get(index);
+                    default -> {
+                        if (input) {
+                            return false;
+                        }
+                        image.set(index, instruction.getOperator().equals("ST") ? accumulator : !accumulator);
+                    }
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        context.setAccumulator(accumulator);
+        return true;
     }
 
     // Verifica se operador é válido
     public static boolean operatorIsValid(String operator) {
-        Boolean isValid = false;
-        for (int i = 0; i < validOperators.size(); i++) {
-            if (!isValid && validOperators.get(i).equals(operator)) {
-                isValid = true;
-                // System.out.println("Operador válido!");
-            }
+        return VALID_OPERATORS.contains(operator);
+    }
+
+    public static boolean isWordOperator(String operator) {
+        return WORD_OPERATORS.contains(operator);
+    }
+
+    public static boolean isFlowOperator(String operator) {
+        return FLOW_OPERATORS.contains(operator);
+    }
+
+    // Operação guardada por uma abertura de parênteses, CLOSE_NESTING para ')' ou NO_NESTING
+    public static byte nestingOf(String operator) {
+        if (operator.equals(")")) {
+            return CLOSE_NESTING;
         }
-        return isValid;
+        Byte operation = NESTING_OPERATORS.get(operator);
+        return operation == null ? NO_NESTING : operation;
     }
 
-    public static String getMemoryType(String variable) {
+    public static String getMemoryType(String variable, PlcContext context) {
         String type = "";
         String code = "";
         int cod = -1;
@@ -130,18 +315,18 @@ public class Interpreter {
         }
 
         if (!type.equals("M") && !type.equals("T") && !type.equals("C")) {
-            HomePg.showErrorMessage("Sintaxe incorreta! Espaço de memória " + variable + " não existe!");
+            context.reportError("Sintaxe incorreta! Espaço de memória " + variable + " não existe!");
         } else if (cod != -1) {
             return type;
         } else {
-            HomePg.showErrorMessage("Sintaxe incorreta! Espaço de memória " + variable + " não existe!");
+            context.reportError("Sintaxe incorreta! Espaço de memória " + variable + " não existe!");
         }
 
         return "";
     }
 
     // Verifica se entrada é válido
-    public static boolean inputIsValid(ArrayList<String> variables, Map<String, Boolean> inputs) {
+    public static boolean inputIsValid(List<String> variables, Map<String, Boolean> inputs) {
         Boolean isValid = true;
 
         if (inputs.get(variables.get(0)) == null) {
@@ -152,7 +337,7 @@ public class Interpreter {
     }
 
     // Verifica se saída é válida
-    public static boolean outputIsValid(ArrayList<String> variables, Map<String, Boolean> outputs) {
+    public static boolean outputIsValid(List<String> variables, Map<String, Boolean> outputs) {
         Boolean isValid = true;
 
         if (outputs.get(variables.get(0)) == null) {
@@ -163,7 +348,7 @@ public class Interpreter {
     }
 
     // Verifica se variável de memória é válida
-    public static boolean memoryVariableIsValid(ArrayList<String> variables,
+    public static boolean memoryVariableIsValid(List<String> variables,
             Map<String, MemoryVariable> memoryVariables) {
         Boolean isValid = true;
 
@@ -175,8 +360,17 @@ public class Interpreter {
     }
 
     // Executa instruções
-    public static Map executeInstruction(String operator, ArrayList<String> variables, Map<String, Boolean> inputs,
-            Map<String, Boolean> outputs, Map<String, MemoryVariable> memoryVariables) {
+    public static void executeInstruction(String operator, List<String> variables, PlcContext context) {
+        if (operator.equals("TP") || operator.equals("TONR") || operator.equals("RES")) {
+            executeTimer(operator, variables, context);
+            return;
+        }
+
+        Map<String, Boolean> inputs = context.getInputs();
+        Map<String, Boolean> outputs = context.getOutputs();
+        Map<String, MemoryVariable> memoryVariables = context.getMemoryVariables();
+        Boolean accumulator = context.getAccumulator();
+
         // System.out.println(variables.get(0));
         // Caso operador seja válido e tenhamos como variável uma entrada ou uma saida
         if (operatorIsValid(operator) && (inputIsValid(variables, inputs) || outputIsValid(variables, outputs))) {
@@ -221,7 +415,7 @@ public class Interpreter {
                             }
                         }
                     } else {
-                        HomePg.showErrorMessage(
+                        context.reportError(
                                 "Entradas não podem ser modificadas, portanto, operadores ST e STN não são válidos para entradas!");
                     }
                 }
@@ -278,7 +472,7 @@ public class Interpreter {
                 // System.out.println("Entradas: " + inputs);
                 // System.out.println("Saidas: " + outputs);
             } else {
-                HomePg.showErrorMessage(
+                context.reportError(
                         "Acumulador vazio! Carregue inicialmente a variável desejada para o acumulador com as funções LD ou LDN!");
             }
 
@@ -289,7 +483,7 @@ public class Interpreter {
             if (operator.equals("ST") || operator.equals("STN") || operator.equals("TON") || operator.equals("TOFF")
                     || operator.equals("CTD") || operator.equals("CTU")) {
                 // Se memória já existe, só atualiza no hash
-                String type = getMemoryType(variables.get(0));
+                String type = getMemoryType(variables.get(0), context);
                 if (!type.equals("")) {
                     if (memoryVariableIsValid(variables, memoryVariables)) {
                         if (operator.equals("ST")) {
@@ -328,7 +522,7 @@ public class Interpreter {
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).timerType = "ON";
                         } else if (operator.equals("TON")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
 
@@ -336,7 +530,7 @@ public class Interpreter {
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).timerType = "OFF";
                         } else if (operator.equals("TOFF")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
 
@@ -344,7 +538,7 @@ public class Interpreter {
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).counterType = "DOWN";
                         } else if (operator.equals("CTD")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
 
@@ -352,54 +546,54 @@ public class Interpreter {
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).counterType = "UP";
                         } else if (operator.equals("CTU")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
                         // Se memória não existe, ela é criada e e guardada no hash
                     } else {
                         if (operator.equals("ST")) {
-                            memoryVariables.put(variables.get(0), new MemoryVariable(variables.get(0)));
+                            context.createMemoryVariable(variables.get(0));
                             memoryVariables.get(variables.get(0)).currentValue = accumulator;
                         }
 
                         if (operator.equals("STN")) {
-                            memoryVariables.put(variables.get(0), new MemoryVariable(variables.get(0)));
+                            context.createMemoryVariable(variables.get(0));
                             memoryVariables.get(variables.get(0)).currentValue = accumulator;
                         }
 
                         if (operator.equals("TON") && type.equals("T")) {
-                            memoryVariables.put(variables.get(0), new MemoryVariable(variables.get(0)));
+                            context.createMemoryVariable(variables.get(0));
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).timerType = "ON";
                         } else if (operator.equals("TON")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
 
                         if (operator.equals("TOFF") && type.equals("T")) {
-                            memoryVariables.put(variables.get(0), new MemoryVariable(variables.get(0)));
+                            context.createMemoryVariable(variables.get(0));
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).timerType = "OFF";
                         } else if (operator.equals("TOFF")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
 
                         if (operator.equals("CTD") && type.equals("C")) {
-                            memoryVariables.put(variables.get(0), new MemoryVariable(variables.get(0)));
+                            context.createMemoryVariable(variables.get(0));
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).counterType = "DOWN";
                         } else if (operator.equals("CTD")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
 
                         if (operator.equals("CTU") && type.equals("C")) {
-                            memoryVariables.put(variables.get(0), new MemoryVariable(variables.get(0)));
+                            context.createMemoryVariable(variables.get(0));
                             memoryVariables.get(variables.get(0)).maxTimer = Integer.parseInt(variables.get(1));
                             memoryVariables.get(variables.get(0)).counterType = "UP";
                         } else if (operator.equals("CTU")) {
-                            HomePg.showErrorMessage(
+                            context.reportError(
                                     "Sintaxe incorreta! Espaço de memória " + variables.get(0) + " invalido!");
                         }
                     }
@@ -453,14 +647,42 @@ public class Interpreter {
                     // System.out.println(outputs);
                     // System.out.println(memoryVariables);
                 } else {
-                    HomePg.showErrorMessage("Sintaxe incorreta! Variável " + variables.get(0) + " não existe!");
+                    context.reportError("Sintaxe incorreta! Variável " + variables.get(0) + " não existe!");
                 }
             }
         } else {
-            HomePg.showErrorMessage("Sintaxe incorreta! Operador " + operator + " não existe!");
+            context.reportError("Sintaxe incorreta! Operador " + operator + " não existe!");
         }
 
         // System.out.println(accumulator);
-        return outputs;
+        context.setAccumulator(accumulator);
+    }
+
+    // TP e TONR só definem tipo e preset; a contagem é do MemoryVariable, no fim da varredura.
+    // RES zera o temporizador ou contador quando o acumulador é verdadeiro
+    private static void executeTimer(String operator, List<String> variables, PlcContext context) {
+        String address = variables.get(0);
+        MemoryVariable variable = context.getMemoryVariables().get(address);
+
+        if (operator.equals("RES")) {
+            Boolean accumulator = context.getAccumulator();
+            if (accumulator == null) {
+                context.reportError(
+                        "Acumulador vazio! Carregue inicialmente a variável desejada para o acumulador com as funções LD ou LDN!");
+            } else if (accumulator && variable != null) {
+                variable.reset();
+            }
+            return;
+        }
+
+        if (address.charAt(0) != 'T') {
+            context.reportError("Sintaxe incorreta! Espaço de memória " + address + " invalido!");
+            return;
+        }
+        if (variable == null) {
+            variable = context.createMemoryVariable(address);
+        }
+        variable.configureTimer(operator.equals("TP") ? MemoryVariable.PULSE : MemoryVariable.RETENTIVE,
+                Integer.parseInt(variables.get(1)));
     }
 }
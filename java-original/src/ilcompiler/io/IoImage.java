@@ -0,0 +1,153 @@
+package ilcompiler.io;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Imagem de entradas ou saídas num vetor de bits indexado pelo IoMap. O programa compilado acessa
+// pelo índice (get/set); o resto do simulador continua usando a visão Map<String, Boolean>.
+// Endereços fora do mapa (ex.: escritos por um modelo de processo) ficam num mapa à parte.
+// Os bits ficam em palavras de 64; uma cópia da varredura anterior dá as bordas com um AND.
+public class IoImage extends AbstractMap<String, Boolean> {
+
+    private final IoMap map;
+    private final boolean input;
+    private final int length;
+    private final long[] bits;
+    private final long[] previous;
+    private final Map<String, Boolean> extra = new HashMap<>();
+
+    public IoImage(IoMap map, boolean input) {
+        this.map = map;
+        this.input = input;
+        this.length = input ? map.getInputIds().size() : map.getOutputIds().size();
+        this.bits = new long[(length + 63) >>> 6];
+        this.previous = new long[bits.length];
+    }
+
+    public IoMap getMap() {
+        return map;
+    }
+
+    public boolean get(int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    public void set(int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    // Copia os bits, na ordem dos ids do mapa, para words (mesmo tamanho, 64 pontos por palavra)
+    public void copyBits(long[] words) {
+        System.arraycopy(bits, 0, words, 0, bits.length);
+    }
+
+    // Guarda a imagem atual como a da varredura anterior (fim de cada varredura)
+    public void latch() {
+        System.arraycopy(bits, 0, previous, 0, bits.length);
+    }
+
+    // Bit ligado desde a última latch()
+    public boolean rising(int index) {
+        return (bits[index >>> 6] & ~previous[index >>> 6] & 1L << index) != 0;
+    }
+
+    // Bit desligado desde a última latch()
+    public boolean falling(int index) {
+        return (~bits[index >>> 6] & previous[index >>> 6] & 1L << index) != 0;
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        return input ? map.inputIndex((String) key) : map.outputIndex((String) key);
+    }
+
+    private String idAt(int index) {
+        return input ? map.getInputIds().get(index) : map.getOutputIds().get(index);
+    }
+
+    @Override
+    public Boolean get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? Boolean.valueOf(get(index)) : extra.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0 || extra.containsKey(key);
+    }
+
+    @Override
+    public Boolean put(String key, Boolean value) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return extra.put(key, value);
+        }
+        boolean old = get(index);
+        set(index, Boolean.TRUE.equals(value));
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return length + extra.size();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bits, 0);
+        extra.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Boolean>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return IoImage.this.size();
+            }
+
+            @Override
+            public Iterator<Entry<String, Boolean>> iterator() {
+                Iterator<Entry<String, Boolean>> others = extra.entrySet().iterator();
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < length || others.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Boolean> next() {
+                        if (next >= length) {
+                            return others.next();
+                        }
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleEntry<>(idAt(index), get(index)) {
+                            @Override
+                            public Boolean setValue(Boolean value) {
+                                super.setValue(value);
+                                return put(getKey(), value);
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package ilcompiler.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Mapa de E/S: módulos de entrada (I) e saída (Q) por rack e slot, com um índice denso por ponto.
+// Arquivo de configuração, uma linha por módulo (a ordem das linhas define os índices):
+//   # tipo rack slot pontos
+//   I 0 0 8
+//   Q 1 4 16
+// Endereços: I<slot>.<bit> no rack 0 (I0.0, Q1.7, como sempre) e I<rack>.<slot>.<bit> nos demais.
+// O mapa em uso é o padrão (I0.0-I1.7 e Q0.0-Q1.7) ou o arquivo da propriedade simulador.io.
+public class IoMap {
+
+    public static final String PROPERTY = "simulador.io";
+    private static final int MAX_POINTS_PER_MODULE = 64;
+    // Q1.x antes de Q0.x mantém a ordem usada desde sempre para empacotar as saídas nos traces
+    private static final List<String> DEFAULT_CONFIG = List.of("I 0 0 8", "I 0 1 8", "Q 0 1 8", "Q 0 0 8");
+
+    private static volatile IoMap current;
+
+    private final String source;
+    private final List<String> inputIds;
+    private final List<String> outputIds;
+    private final Map<String, Integer> inputIndex;
+    private final Map<String, Integer> outputIndex;
+    private final int modules;
+
+    private IoMap(String source, List<String> inputIds, List<String> outputIds, int modules) {
+        this.source = source;
+        this.inputIds = Collections.unmodifiableList(inputIds);
+        this.outputIds = Collections.unmodifiableList(outputIds);
+        this.inputIndex = index(inputIds);
+        this.outputIndex = index(outputIds);
+        this.modules = modules;
+    }
+
+    private static Map<String, Integer> index(List<String> ids) {
+        Map<String, Integer> index = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) {
+            index.put(ids.get(i), i);
+        }
+        return index;
+    }
+
+    public static IoMap getCurrent() {
+        IoMap map = current;
+        if (map == null) {
+            synchronized (IoMap.class) {
+                if (current == null) {
+                    String file = System.getProperty(PROPERTY);
+                    try {
+                        current = file == null ? defaults() : load(Path.of(file));
+                    } catch (IOException ex) {
+                        throw new IllegalArgumentException("Erro ao ler o mapa de E/S " + file + ": " + ex.getMessage());
+                    }
+                }
+                map = current;
+            }
+        }
+        return map;
+    }
+
+    // Troca o mapa em uso; contextos e programas criados antes continuam com o mapa anterior
+    public static void setCurrent(IoMap map) {
+        current = map;
+    }
+
+    public static IoMap defaults() {
+        return parse(DEFAULT_CONFIG, "padrão");
+    }
+
+    public static IoMap load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8), file.getFileName().toString());
+    }
+
+    public static IoMap parse(List<String> lines, String source) {
+        List<String> inputs = new ArrayList<>();
+        List<String> outputs = new ArrayList<>();
+        Map<String, Integer> declared = new HashMap<>();
+        int modules = 0;
+
+        for (int index = 0; index < lines.size(); index++) {
+            String line = lines.get(index).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String where = source + ", linha " + (index + 1) + ": ";
+            String[] tokens = line.split("[\\s,]+");
+            if (tokens.length != 4 || !(tokens[0].equalsIgnoreCase("I") || tokens[0].equalsIgnoreCase("Q"))) {
+                throw new IllegalArgumentException(where + "use <I|Q> <rack> <slot> <pontos>!");
+            }
+            char type = Character.toUpperCase(tokens[0].charAt(0));
+            int rack = parseNumber(tokens[1], where);
+            int slot = parseNumber(tokens[2], where);
+            int points = parseNumber(tokens[3], where);
+            if (points < 1 || points > MAX_POINTS_PER_MODULE) {
+                throw new IllegalArgumentException(where + "módulo deve ter de 1 a " + MAX_POINTS_PER_MODULE + " pontos!");
+            }
+
+            String module = type + (rack == 0 ? "" : rack + ".") + slot;
+            Integer previous = declared.put(module, index + 1);
+            if (previous != null) {
+                throw new IllegalArgumentException(where + "rack " + rack + ", slot " + slot
+                        + " já declarado na linha " + previous + "!");
+            }
+
+            List<String> ids = type == 'I' ? inputs : outputs;
+            for (int bit = 0; bit < points; bit++) {
+                ids.add(module + "." + bit);
+            }
+            modules++;
+        }
+
+        return new IoMap(source, inputs, outputs, modules);
+    }
+
+    private static int parseNumber(String text, String where) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < 0) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(where + "valor " + text + " inválido!");
+        }
+    }
+
+    public List<String> getInputIds() {
+        return inputIds;
+    }
+
+    public List<String> getOutputIds() {
+        return outputIds;
+    }
+
+    // Índice denso da entrada, ou -1 se não existe
+    public int inputIndex(String address) {
+        Integer index = inputIndex.get(address);
+        return index == null ? -1 : index;
+    }
+
+    public int outputIndex(String address) {
+        Integer index = outputIndex.get(address);
+        return index == null ? -1 : index;
+    }
+
+    // Índice denso de um endereço I ou Q (cada tipo tem a sua numeração), ou -1
+    public int indexOf(String address) {
+        if (address.isEmpty()) {
+            return -1;
+        }
+        return switch (address.charAt(0)) {
+            case 'I' ->
+                inputIndex(address);
+            case 'Q' ->
+                outputIndex(address);
+            default ->
+                -1;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Mapa de E/S " + source + ": " + modules + " módulos, " + inputIds.size() + " entradas, "
+                + outputIds.size() + " saídas";
+    }
+}
@@ -1,18 +1,24 @@
 package ilcompiler.memoryvariable;
 
 // Classe variável de memória
-import java.awt.event.ActionEvent;
+public class MemoryVariable {
 
-import javax.swing.Timer;
+    // Base de tempo dos temporizadores (preset em décimos de segundo)
+    public static final int TIMER_BASE_MS = 100;
 
-public class MemoryVariable {
+    // Tipos de temporizador: TON, TOFF, TP (pulso) e TONR (retentivo)
+    public static final String ON_DELAY = "ON";
+    public static final String OFF_DELAY = "OFF";
+    public static final String PULSE = "PULSE";
+    public static final String RETENTIVE = "RETENTIVE";
 
     public String id;
     public Boolean currentValue;
     public Boolean endTimer;
     public int counter;
     public int maxTimer;
-    public Timer timer;
+    public boolean timerRunning;
+    public int timerElapsedMs;
     public String timerType;
     public String counterType;
 
@@ -22,22 +28,121 @@ public class MemoryVariable {
         this.currentValue = false;
         this.maxTimer = 0;
         this.endTimer = false;
+        this.timerRunning = false;
+        this.timerElapsedMs = 0;
         this.timerType = "";
         this.counterType = "";
+    }
 
-        this.timer = new Timer(100, (ActionEvent evt) -> {
-            if (counter < maxTimer) {
-                counter++;
-            }
-            if (counter == maxTimer) {
-                if (timerType.equals("ON")) {
+    // Avança o temporizador pelo tempo decorrido no ciclo, um passo a cada TIMER_BASE_MS
+    public void advanceTimer(int elapsedMs) {
+        if (!timerRunning) {
+            return;
+        }
+        timerElapsedMs += elapsedMs;
+        while (timerRunning && timerElapsedMs >= TIMER_BASE_MS) {
+            timerElapsedMs -= TIMER_BASE_MS;
+            tick();
+        }
+    }
+
+    private void tick() {
+        if (counter < maxTimer) {
+            counter++;
+        }
+        if (counter == maxTimer) {
+            switch (timerType) {
+                case ON_DELAY, RETENTIVE ->
                     endTimer = true;
-                } else if (timerType.equals("OFF")) {
+                case OFF_DELAY, PULSE ->
+                    endTimer = false;
+                default -> {
+                }
+            }
+            stopTimer();
+        }
+    }
+
+    // Fim da varredura: liga, desliga ou zera o temporizador conforme a entrada (currentValue)
+    public void updateTimerState() {
+        switch (timerType) {
+            case ON_DELAY -> {
+                if (currentValue) {
+                    startTimer();
+                } else {
+                    stopTimer();
+                    counter = 0;
                     endTimer = false;
                 }
-                timer.stop();
             }
-        });
+            case OFF_DELAY -> {
+                if (currentValue) {
+                    stopTimer();
+                    counter = 0;
+                    endTimer = true;
+                } else {
+                    startTimer();
+                }
+            }
+            case PULSE -> {
+                // Pulso de duração fixa na subida da entrada; só rearma com a entrada desligada
+                if (timerRunning) {
+                    return;
+                }
+                if (currentValue && counter == 0 && !endTimer) {
+                    endTimer = true;
+                    startTimer();
+                } else if (!currentValue) {
+                    counter = 0;
+                }
+            }
+            case RETENTIVE -> {
+                // Acumula enquanto a entrada está ligada e guarda a contagem; só o RES zera
+                if (currentValue) {
+                    startTimer();
+                } else {
+                    pauseTimer();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    // TP e TONR: tipo e preset do temporizador; ao trocar de tipo a contagem recomeça
+    public void configureTimer(String type, int preset) {
+        if (!type.equals(timerType)) {
+            stopTimer();
+            counter = 0;
+            endTimer = false;
+            timerType = type;
+        }
+        maxTimer = preset;
+    }
+
+    // RES: zera temporizador ou contador
+    public void reset() {
+        stopTimer();
+        counter = 0;
+        if (id.charAt(0) == 'C') {
+            testEndTimer();
+        } else {
+            endTimer = false;
+        }
+    }
+
+    public void startTimer() {
+        timerRunning = true;
+    }
+
+    // Para de contar sem descartar a fração de passo já decorrida (TONR com a entrada desligada)
+    public void pauseTimer() {
+        timerRunning = false;
+    }
+
+    public void stopTimer() {
+        timerRunning = false;
+        timerElapsedMs = 0;
     }
 
     public String getMemory() {
@@ -47,10 +152,14 @@ public class MemoryVariable {
             }
             case 'T' -> {
                 return switch (timerType) {
-                    case "ON" ->
+                    case ON_DELAY ->
                         "Timer On memory: " + id + ", State:" + currentValue + ", Accum:" + counter + ", Preset:" + maxTimer + ", DN:" + endTimer;
-                    case "OFF" ->
+                    case OFF_DELAY ->
                         "Timer Off memory: " + id + ", State:" + currentValue + ", Accum:" + counter + ", Preset:" + maxTimer + ", DN:" + endTimer;
+                    case PULSE ->
+                        "Timer Pulse memory: " + id + ", State:" + currentValue + ", Accum:" + counter + ", Preset:" + maxTimer + ", DN:" + endTimer;
+                    case RETENTIVE ->
+                        "Timer Retentive memory: " + id + ", State:" + currentValue + ", Accum:" + counter + ", Preset:" + maxTimer + ", DN:" + endTimer;
                     default ->
                         "Timer type error";
                 };
@@ -1,25 +1,23 @@
 package ilcompiler.output;
 
-import java.util.ArrayList;
+import ilcompiler.io.IoMap;
 import java.util.List;
 import java.util.Map;
 
 // Classe para as ações relacionadas com as saídas
 public class OutputActions {
 
-    private static final List<String> OUTPUT_IDS = new ArrayList<>();
+    // Endereços na ordem do mapa de E/S em uso, a mesma usada para empacotar a imagem em palavras
+    public static List<String> getIds() {
+        return IoMap.getCurrent().getOutputIds();
+    }
 
-    static {
-        for (int i = 0; i <= 7; i++) {
-            OUTPUT_IDS.add("Q1." + i);
-        }
-        for (int i = 0; i <= 7; i++) {
-            OUTPUT_IDS.add("Q0." + i);
-        }
+    public static boolean exists(String id) {
+        return IoMap.getCurrent().outputIndex(id) >= 0;
     }
 
     public static Map<String, Boolean> create(Map<String, Boolean> outputs) {
-        for (String id : OUTPUT_IDS) {
+        for (String id : getIds()) {
             Output output = new Output(id, false);
             outputs.put(output.id, output.currentValue);
         }
@@ -27,7 +25,7 @@ public class OutputActions {
     }
 
     public static Map<String, Boolean> resetOutputs(Map<String, Boolean> outputs) {
-        for (String id : OUTPUT_IDS) {
+        for (String id : getIds()) {
             outputs.put(id, false);
         }
         return outputs;
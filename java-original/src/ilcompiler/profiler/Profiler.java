@@ -0,0 +1,234 @@
+package ilcompiler.profiler;
+
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.CompiledTask;
+import ilcompiler.compiler.Instruction;
+import ilcompiler.interpreter.Interpreter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Perfil por linha do programa IL: toda execução é contada e, em média, uma a cada
+// 'sampleInterval' instruções é cronometrada; o tempo medido vale pelo intervalo inteiro.
+// O intervalo entre amostras é sorteado para não coincidir sempre com as mesmas linhas.
+// Com intervalo 1 todas as instruções são cronometradas.
+public class Profiler {
+
+    private final int sampleInterval;
+    private long[] executions = new long[0];
+    private long[] estimatedNanos = new long[0];
+    private long samples;
+    // Mantidos a cada amostra: a margem do editor é repintada a cada varredura sem percorrer as linhas
+    private long totalNanos;
+    private long maxNanos;
+    private int countdown;
+    private int random = 0x2545F491;
+
+    public Profiler(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Intervalo de amostragem deve ser positivo!");
+        }
+        this.sampleInterval = sampleInterval;
+        this.countdown = nextGap();
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public int getLineCount() {
+        return executions.length;
+    }
+
+    public long getExecutions(int line) {
+        return line < executions.length ? executions[line] : 0;
+    }
+
+    public long getEstimatedNanos(int line) {
+        return line < estimatedNanos.length ? estimatedNanos[line] : 0;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    // Tempo estimado da linha mais cara
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    // Chamado antes de cada instrução: diz se esta deve ser cronometrada
+    public boolean sampleNext() {
+        if (--countdown > 0) {
+            return false;
+        }
+        countdown = nextGap();
+        return true;
+    }
+
+    // Instrução executada sem cronômetro
+    public void count(Instruction instruction) {
+        int line = instruction.getLine();
+        if (line >= executions.length) {
+            grow(line + 1);
+        }
+        executions[line]++;
+    }
+
+    // Instrução cronometrada
+    public void record(Instruction instruction, long nanos) {
+        count(instruction);
+        long estimate = nanos * sampleInterval;
+        estimatedNanos[instruction.getLine()] += estimate;
+        totalNanos += estimate;
+        maxNanos = Math.max(maxNanos, estimatedNanos[instruction.getLine()]);
+        samples++;
+    }
+
+    // Intervalo uniforme entre 1 e 2N-1 (média N), por xorshift
+    private int nextGap() {
+        if (sampleInterval == 1) {
+            return 1;
+        }
+        random ^= random << 13;
+        random ^= random >>> 17;
+        random ^= random << 5;
+        return 1 + Integer.remainderUnsigned(random, 2 * sampleInterval - 1);
+    }
+
+    private void grow(int lines) {
+        executions = Arrays.copyOf(executions, lines);
+        estimatedNanos = Arrays.copyOf(estimatedNanos, lines);
+    }
+
+    public void clear() {
+        Arrays.fill(executions, 0);
+        Arrays.fill(estimatedNanos, 0);
+        samples = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    // Rungs: um LD/LDN depois de uma instrução de escrita (ST, TON, CTU...) começa um novo rung,
+    // identificado pela sua primeira linha (base 0); -1 nas linhas sem instrução
+    public static int[] rungStarts(CompiledProgram program) {
+        int lines = 0;
+        for (CompiledTask task : program.getTasks()) {
+            for (Instruction instruction : task.getCode()) {
+                lines = Math.max(lines, instruction.getLine() + 1);
+            }
+        }
+
+        int[] rungs = new int[lines];
+        Arrays.fill(rungs, -1);
+        for (CompiledTask task : program.getTasks()) {
+            int rung = -1;
+            boolean previousIsCondition = false;
+            for (Instruction instruction : task.getCode()) {
+                String operator = instruction.getOperator();
+                boolean load = operator.equals("LD") || operator.equals("LDN") || operator.equals("R_TRIG")
+                        || operator.equals("F_TRIG");
+                if (rung < 0 || (load && !previousIsCondition)) {
+                    rung = instruction.getLine();
+                }
+                rungs[instruction.getLine()] = rung;
+                previousIsCondition = load || operator.equals("AND") || operator.equals("ANDN")
+                        || operator.equals("OR") || operator.equals("ORN")
+                        || instruction.getNesting() != Interpreter.NO_NESTING;
+                if (instruction.isBlockEnd()) {
+                    rung = -1;
+                }
+            }
+        }
+        return rungs;
+    }
+
+    // Pilhas no formato "folded" (tarefa;rung;linha valor) aceito por flamegraph.pl e speedscope;
+    // o valor é o tempo estimado em nanossegundos
+    public void writeFolded(Path file, CompiledProgram program, List<String> source) throws IOException {
+        int[] rungs = rungStarts(program);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            // Funções chamadas por várias tarefas entram só na primeira, para não contar o tempo duas vezes
+            BitSet written = new BitSet();
+            for (CompiledTask task : program.getTasks()) {
+                for (Instruction instruction : task.getCode()) {
+                    int line = instruction.getLine();
+                    long nanos = getEstimatedNanos(line);
+                    if (nanos == 0 || written.get(line)) {
+                        continue;
+                    }
+                    written.set(line);
+                    writer.write(frame(task.getName()) + ";" + frame("rung " + (rungs[line] + 1) + " "
+                            + lineText(source, rungs[line])) + ";" + frame((line + 1) + " " + lineText(source, line))
+                            + " " + nanos);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    // ';' separa quadros; o valor vem depois do último espaço, então espaços no nome não atrapalham
+    private static String frame(String text) {
+        return text.replace(';', ',');
+    }
+
+    private static String lineText(List<String> source, int line) {
+        return line >= 0 && line < source.size() ? source.get(line).trim() : "";
+    }
+
+    // Os rungs mais caros (soma das suas linhas), para o resumo em texto
+    public List<String> hotRungs(CompiledProgram program, List<String> source, int limit) {
+        int[] rungs = rungStarts(program);
+        long[] rungNanos = new long[rungs.length];
+        for (int line = 0; line < rungs.length; line++) {
+            if (rungs[line] >= 0) {
+                rungNanos[rungs[line]] += getEstimatedNanos(line);
+            }
+        }
+
+        List<Integer> starts = new ArrayList<>();
+        for (int line = 0; line < rungs.length; line++) {
+            if (rungs[line] == line) {
+                starts.add(line);
+            }
+        }
+        starts.sort((a, b) -> Long.compare(rungNanos[b], rungNanos[a]));
+
+        long total = Math.max(1, getTotalNanos());
+        List<String> hot = new ArrayList<>();
+        for (int start : starts.subList(0, Math.min(limit, starts.size()))) {
+            hot.add(String.format("Rung da linha %d (%s): %.3f ms (%.1f%%)", start + 1, lineText(source, start),
+                    rungNanos[start] / 1e6, 100.0 * rungNanos[start] / total));
+        }
+        return hot;
+    }
+
+    // As linhas mais caras, para o resumo em texto
+    public List<String> hotLines(List<String> source, int limit) {
+        List<Integer> lines = new ArrayList<>();
+        for (int line = 0; line < executions.length; line++) {
+            if (executions[line] > 0) {
+                lines.add(line);
+            }
+        }
+        lines.sort((a, b) -> Long.compare(estimatedNanos[b], estimatedNanos[a]));
+
+        long total = Math.max(1, getTotalNanos());
+        List<String> hot = new ArrayList<>();
+        for (int line : lines.subList(0, Math.min(limit, lines.size()))) {
+            hot.add(String.format("Linha %d (%s): %d execuções, %.3f ms (%.1f%%)", line + 1, lineText(source, line),
+                    executions[line], estimatedNanos[line] / 1e6, 100.0 * estimatedNanos[line] / total));
+        }
+        return hot;
+    }
+}
@@ -0,0 +1,72 @@
+package ilcompiler.runtime;
+
+import ilcompiler.compiler.CompiledTask;
+
+// Tarefa de evento: executa assim que a borda de subida ou descida da entrada é retirada da fila,
+// entre as varreduras cíclicas. A latência vai do enfileiramento até o fim da execução.
+public class EventTask extends PlcTask {
+
+    private long lastLatencyNanos;
+    private long maxLatencyNanos;
+    private long totalLatencyNanos;
+
+    public EventTask(CompiledTask definition) {
+        super(definition);
+    }
+
+    public String getAddress() {
+        return getDefinition().getEventAddress();
+    }
+
+    public boolean isRisingEdge() {
+        return getDefinition().isRisingEdge();
+    }
+
+    public boolean matches(String eventAddress, boolean previous, boolean value) {
+        return getAddress().equals(eventAddress) && previous != value && value == isRisingEdge();
+    }
+
+    @Override
+    public void continueFrom(PlcTask previous) {
+        super.continueFrom(previous);
+        if (previous instanceof EventTask event) {
+            lastLatencyNanos = event.lastLatencyNanos;
+            maxLatencyNanos = event.maxLatencyNanos;
+            totalLatencyNanos = event.totalLatencyNanos;
+        }
+    }
+
+    public void recordEvent(long nanos, long latencyNanos) {
+        recordRun(nanos);
+        lastLatencyNanos = latencyNanos;
+        totalLatencyNanos += latencyNanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+    }
+
+    @Override
+    public void resetMetrics() {
+        super.resetMetrics();
+        lastLatencyNanos = 0;
+        maxLatencyNanos = 0;
+        totalLatencyNanos = 0;
+    }
+
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public long getAverageLatencyNanos() {
+        return getExecutions() == 0 ? 0 : totalLatencyNanos / getExecutions();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (evento %s %s, prioridade %d): execuções %d, média %d ns, latência média %d ns, máx %d ns",
+                getName(), getAddress(), isRisingEdge() ? "RISING" : "FALLING", getPriority(), getExecutions(),
+                getAverageNanos(), getAverageLatencyNanos(), maxLatencyNanos);
+    }
+}
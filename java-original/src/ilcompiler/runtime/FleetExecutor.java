@@ -0,0 +1,103 @@
+package ilcompiler.runtime;
+
+import Models.ExecutionMode;
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.coverage.Coverage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import plant.PlantModels;
+
+// Executa N instâncias independentes de CLP (+ modelo de processo) em paralelo, em tempo virtual
+public class FleetExecutor {
+
+    private final List<TaskScheduler> schedulers = new ArrayList<>();
+
+    // O programa compilado é imutável e compartilhado por todas as instâncias
+    public FleetExecutor(CompiledProgram program, int instances, String plantName) {
+        for (int i = 0; i < instances; i++) {
+            ScanEngine engine = new ScanEngine(new PlcContext());
+            if (plantName != null) {
+                engine.setPlant(PlantModels.create(plantName));
+            }
+            TaskScheduler scheduler = new TaskScheduler(engine);
+            scheduler.load(program);
+            schedulers.add(scheduler);
+        }
+    }
+
+    public List<TaskScheduler> getSchedulers() {
+        return schedulers;
+    }
+
+    // Cada instância conta a cobertura nos seus próprios vetores, sem sincronização durante a execução
+    public void enableCoverage() {
+        for (TaskScheduler scheduler : schedulers) {
+            scheduler.getEngine().setCoverage(Coverage.forProgram(scheduler.getProgram()));
+        }
+    }
+
+    // Soma das coberturas das instâncias, depois do run
+    public Coverage getMergedCoverage() {
+        Coverage merged = new Coverage(0);
+        for (TaskScheduler scheduler : schedulers) {
+            if (scheduler.getEngine().getCoverage() != null) {
+                merged.merge(scheduler.getEngine().getCoverage());
+            }
+        }
+        return merged;
+    }
+
+    // Cada instância roda 'scans' ticks do seu escalonador; o pool com roubo de tarefas
+    // equilibra instâncias que terminam cedo (por erro) com as demais
+    public FleetReport run(int scans) throws InterruptedException {
+        ExecutorService pool = Executors.newWorkStealingPool();
+        List<Callable<Long>> tasks = new ArrayList<>();
+
+        for (TaskScheduler scheduler : schedulers) {
+            tasks.add(() -> runInstance(scheduler, scans));
+        }
+
+        long start = System.nanoTime();
+        long totalScans = 0;
+        int failed = 0;
+
+        try {
+            for (Future<Long> result : pool.invokeAll(tasks)) {
+                totalScans += result.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Falha ao executar instância da frota", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        for (TaskScheduler scheduler : schedulers) {
+            if (scheduler.getEngine().getContext().getLastError() != null) {
+                failed++;
+            }
+        }
+
+        return new FleetReport(schedulers.size(), failed, totalScans, elapsed);
+    }
+
+    private long runInstance(TaskScheduler scheduler, int scans) {
+        PlcContext context = scheduler.getEngine().getContext();
+        context.setMode(ExecutionMode.RUNNING);
+
+        long done = 0;
+        for (int i = 0; i < scans && context.getMode() == ExecutionMode.RUNNING; i++) {
+            scheduler.tick(scheduler.getTickMs());
+            done++;
+        }
+
+        context.setMode(ExecutionMode.STOPPED);
+        return done;
+    }
+}
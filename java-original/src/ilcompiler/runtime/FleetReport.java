@@ -0,0 +1,43 @@
+package ilcompiler.runtime;
+
+// Resultado agregado de uma execução da frota
+public class FleetReport {
+
+    private final int instances;
+    private final int failedInstances;
+    private final long totalScans;
+    private final long elapsedNanos;
+
+    public FleetReport(int instances, int failedInstances, long totalScans, long elapsedNanos) {
+        this.instances = instances;
+        this.failedInstances = failedInstances;
+        this.totalScans = totalScans;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getInstances() {
+        return instances;
+    }
+
+    public int getFailedInstances() {
+        return failedInstances;
+    }
+
+    public long getTotalScans() {
+        return totalScans;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getScansPerSecond() {
+        return elapsedNanos == 0 ? 0 : totalScans * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Instâncias: %d (com erro: %d), varreduras: %d, tempo: %.3f s, varreduras/s: %.0f",
+                instances, failedInstances, totalScans, elapsedNanos / 1e9, getScansPerSecond());
+    }
+}
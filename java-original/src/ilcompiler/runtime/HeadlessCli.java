@@ -0,0 +1,520 @@
+package ilcompiler.runtime;
+
+import Models.ExecutionMode;
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.CompiledTask;
+import ilcompiler.compiler.Diagnostic;
+import ilcompiler.compiler.ProgramCache;
+import ilcompiler.conformance.ConformanceCase;
+import ilcompiler.conformance.ConformanceHarness;
+import ilcompiler.conformance.ProgramGenerator;
+import ilcompiler.input.InputActions;
+import ilcompiler.io.IoMap;
+import ilcompiler.coverage.Coverage;
+import ilcompiler.fuzz.Fuzzer;
+import ilcompiler.iltest.TestReport;
+import ilcompiler.iltest.TestRunner;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.profiler.Profiler;
+import ilcompiler.trace.TraceReader;
+import ilcompiler.trace.TraceRecorder;
+import ilcompiler.trace.TraceReplayer;
+import ilcompiler.trace.VcdWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import plant.PlantModels;
+import save.Save;
+
+// Comandos executados sem interface gráfica: java -jar SimuladorClp.jar <comando> [argumentos]
+public class HeadlessCli {
+
+    private static final int DEFAULT_SCAN_PERIOD_MS = 100;
+    private static final int TRACE_CAPACITY = 32 * 1024 * 1024;
+    private static final int TRACE_KEYFRAME_INTERVAL = 600;
+    private static final int MAX_PRINTED_DIAGNOSTICS = 20;
+
+    // --io <mapa.cfg> antes do comando troca o mapa de E/S (ver IoMap);
+    // --cache <pasta|off> troca a pasta dos programas compilados e --cache-limite <MB> o tamanho
+    // máximo dela; os programas usados há mais tempo são apagados ao passar dele (ver ProgramCache)
+    public static void run(String[] args) throws Exception {
+        try {
+            while (args.length > 1 && (args[0].equals("--io") || args[0].equals("--cache")
+                    || args[0].equals("--cache-limite"))) {
+                switch (args[0]) {
+                    case "--io" ->
+                        IoMap.setCurrent(IoMap.load(Path.of(args[1])));
+                    case "--cache" ->
+                        ProgramCache.setDirectory(args[1].equals(ProgramCache.OFF) ? null : Path.of(args[1]));
+                    default ->
+                        ProgramCache.setLimitMb(parseLimit(args[1]));
+                }
+                args = Arrays.copyOfRange(args, 2, args.length);
+            }
+            runCommand(args);
+        } catch (IllegalArgumentException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+
+    private static long parseLimit(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Limite do cache inválido: " + text + "!");
+        }
+    }
+
+    private static void runCommand(String[] args) throws Exception {
+        switch (args.length == 0 ? "" : args[0]) {
+            case "compile" ->
+                runCompile(args);
+            case "fleet" ->
+                runFleet(args);
+            case "tasks" ->
+                runTasks(args);
+            case "record" ->
+                runRecord(args);
+            case "trace" ->
+                printTrace(args);
+            case "replay" ->
+                runReplay(args);
+            case "vcd" ->
+                runVcd(args);
+            case "coverage" ->
+                runCoverage(args);
+            case "profile" ->
+                runProfile(args);
+            case "fuzz" ->
+                runFuzz(args);
+            case "test" ->
+                runTests(args);
+            case "conform" ->
+                runConformance(args);
+            case "io" ->
+                System.out.println(IoMap.getCurrent());
+            default ->
+                printUsage();
+        }
+    }
+
+    // compile <programa.txt>
+    // Compila direto do arquivo, sem editor, e lista os erros
+    private static void runCompile(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsage();
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        CompiledProgram program = ProgramCache.compileFile(args[1], DEFAULT_SCAN_PERIOD_MS, diagnostics);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        for (int i = 0; i < Math.min(diagnostics.size(), MAX_PRINTED_DIAGNOSTICS); i++) {
+            System.out.println(diagnostics.get(i));
+        }
+        if (diagnostics.size() > MAX_PRINTED_DIAGNOSTICS) {
+            System.out.println("... mais " + (diagnostics.size() - MAX_PRINTED_DIAGNOSTICS) + " erros");
+        }
+        if (program == null) {
+            System.out.println(diagnostics.size() + " erros em " + elapsedMs + " ms");
+            return;
+        }
+
+        int instructions = 0;
+        for (CompiledTask task : program.getTasks()) {
+            instructions += task.getCode().length;
+        }
+        System.out.println(program.getTasks().size() + " tarefas, " + instructions + " instruções em "
+                + elapsedMs + " ms");
+    }
+
+    // fleet <programa.txt> <instâncias> <varreduras> [modelo de processo]
+    private static void runFleet(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        CompiledProgram program = ProgramCache.compileFile(args[1], DEFAULT_SCAN_PERIOD_MS);
+        int instances = Integer.parseInt(args[2]);
+        int scans = Integer.parseInt(args[3]);
+        String plantName = args.length > 4 ? args[4] : null;
+
+        FleetExecutor fleet = new FleetExecutor(program, instances, plantName);
+        System.out.println(fleet.run(scans));
+    }
+
+    // tasks <programa.txt> <duração ms> [modelo de processo]
+    private static void runTasks(String[] args) throws Exception {
+        if (args.length < 3) {
+            printUsage();
+            return;
+        }
+
+        ScanEngine engine = new ScanEngine(new PlcContext());
+        if (args.length > 3) {
+            engine.setPlant(PlantModels.create(args[3]));
+        }
+
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        scheduler.load(ProgramCache.compileFile(args[1], DEFAULT_SCAN_PERIOD_MS));
+
+        long durationMs = Long.parseLong(args[2]);
+        engine.getContext().setMode(ExecutionMode.RUNNING);
+        while (scheduler.getNowMs() < durationMs && engine.getContext().getMode() == ExecutionMode.RUNNING) {
+            scheduler.tick(scheduler.getTickMs());
+        }
+
+        if (engine.getContext().getLastError() != null) {
+            System.out.println(engine.getContext().getLastError());
+        }
+        for (PlcTask task : scheduler.getTasks()) {
+            System.out.println(task);
+        }
+        for (PlcTask task : scheduler.getEventTasks()) {
+            System.out.println(task);
+        }
+    }
+
+    // record <programa.txt> <duração ms> <trace.bin> [modelo de processo]
+    private static void runRecord(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        ScanEngine engine = new ScanEngine(new PlcContext());
+        if (args.length > 4) {
+            engine.setPlant(PlantModels.create(args[4]));
+        }
+
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        scheduler.load(ProgramCache.compileFile(args[1], DEFAULT_SCAN_PERIOD_MS));
+
+        try (TraceRecorder recorder = TraceRecorder.open(Path.of(args[3]), TRACE_CAPACITY, TRACE_KEYFRAME_INTERVAL)) {
+            engine.addScanListener(recorder);
+
+            long durationMs = Long.parseLong(args[2]);
+            engine.getContext().setMode(ExecutionMode.RUNNING);
+            long start = System.nanoTime();
+            while (scheduler.getNowMs() < durationMs && engine.getContext().getMode() == ExecutionMode.RUNNING) {
+                scheduler.tick(scheduler.getTickMs());
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            if (engine.getContext().getLastError() != null) {
+                System.out.println(engine.getContext().getLastError());
+            }
+            System.out.printf("Varreduras: %d, registros no anel: %d, tempo real: %.1f ms%n",
+                    engine.getScanCount(), recorder.getRecordCount(), elapsedNanos / 1e6);
+        }
+    }
+
+    // trace <trace.bin>: lista as varreduras em que entradas, saídas ou memórias mudaram
+    private static void printTrace(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsage();
+            return;
+        }
+
+        TraceReader reader = TraceReader.open(Path.of(args[1]));
+        System.out.println("Registros: " + reader.getRecordCount() + ", última varredura: " + reader.getLastScan());
+
+        Map<String, Boolean> previous = new HashMap<>();
+        reader.forEach(frame -> {
+            Map<String, Boolean> image = new LinkedHashMap<>(frame.getInputs());
+            image.putAll(frame.getOutputs());
+            if (!frame.isKeyframe() && image.equals(previous) && frame.getVariables().isEmpty()) {
+                return true;
+            }
+
+            StringBuilder line = new StringBuilder();
+            line.append(frame.isKeyframe() ? "* " : "  ");
+            line.append(frame.getScan()).append(" @").append(frame.getTimeMs()).append("ms");
+            for (Map.Entry<String, Boolean> bit : image.entrySet()) {
+                if (frame.isKeyframe() ? bit.getValue() : !bit.getValue().equals(previous.get(bit.getKey()))) {
+                    line.append(' ').append(bit.getKey()).append('=').append(bit.getValue() ? 1 : 0);
+                }
+            }
+            for (MemoryVariable variable : frame.getVariables().values()) {
+                line.append(' ').append(variable.id).append('=').append(variable.currentValue ? 1 : 0);
+                if (variable.id.charAt(0) == 'T' || variable.id.charAt(0) == 'C') {
+                    line.append('/').append(variable.counter);
+                }
+            }
+            System.out.println(line);
+
+            previous.clear();
+            previous.putAll(image);
+            return true;
+        });
+    }
+
+    // replay <programa.txt> <trace.bin> [da varredura] [até a varredura] [modelo de processo]
+    private static void runReplay(String[] args) throws Exception {
+        if (args.length < 3) {
+            printUsage();
+            return;
+        }
+
+        CompiledProgram program = ProgramCache.compileFile(args[1], DEFAULT_SCAN_PERIOD_MS);
+        long fromScan = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        long toScan = args.length > 4 ? Long.parseLong(args[4]) : Long.MAX_VALUE;
+        String plantName = args.length > 5 ? args[5] : null;
+
+        TraceReplayer replayer = new TraceReplayer(program, plantName);
+        System.out.println(replayer.replay(TraceReader.open(Path.of(args[2])), fromScan, toScan));
+    }
+
+    // vcd <programa.txt> <duração ms> <saída.vcd> [modelo de processo]
+    private static void runVcd(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        ScanEngine engine = new ScanEngine(new PlcContext());
+        if (args.length > 4) {
+            engine.setPlant(PlantModels.create(args[4]));
+        }
+
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        scheduler.load(ProgramCache.compileFile(args[1], DEFAULT_SCAN_PERIOD_MS));
+
+        try (VcdWriter writer = VcdWriter.open(Path.of(args[3]))) {
+            engine.addScanListener(writer);
+
+            long durationMs = Long.parseLong(args[2]);
+            engine.getContext().setMode(ExecutionMode.RUNNING);
+            while (scheduler.getNowMs() < durationMs && engine.getContext().getMode() == ExecutionMode.RUNNING) {
+                scheduler.tick(scheduler.getTickMs());
+            }
+        }
+
+        if (engine.getContext().getLastError() != null) {
+            System.out.println(engine.getContext().getLastError());
+        }
+        System.out.println("Varreduras exportadas: " + engine.getScanCount());
+    }
+
+    // coverage <programa.txt> <duração ms> <relatório.csv> [modelo de processo]
+    // Um relatório já existente é somado ao desta execução
+    private static void runCoverage(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        List<String> source = Save.load(args[1]);
+        ScanEngine engine = new ScanEngine(new PlcContext());
+        if (args.length > 4) {
+            engine.setPlant(PlantModels.create(args[4]));
+        }
+
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        CompiledProgram program = ProgramCache.compile(source, DEFAULT_SCAN_PERIOD_MS);
+        scheduler.load(program);
+        Coverage coverage = Coverage.forProgram(program);
+        engine.setCoverage(coverage);
+
+        long durationMs = Long.parseLong(args[2]);
+        engine.getContext().setMode(ExecutionMode.RUNNING);
+        while (scheduler.getNowMs() < durationMs && engine.getContext().getMode() == ExecutionMode.RUNNING) {
+            scheduler.tick(scheduler.getTickMs());
+        }
+
+        if (engine.getContext().getLastError() != null) {
+            System.out.println(engine.getContext().getLastError());
+        }
+
+        Path report = Path.of(args[3]);
+        if (Files.exists(report)) {
+            coverage.merge(Coverage.read(report));
+        }
+        coverage.write(report, source);
+        System.out.println(coverage.summary(program));
+    }
+
+    // profile <programa.txt> <duração ms> <saída.folded> [1 amostra a cada N instruções] [modelo de processo]
+    private static void runProfile(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        List<String> source = Save.load(args[1]);
+        ScanEngine engine = new ScanEngine(new PlcContext());
+        if (args.length > 5) {
+            engine.setPlant(PlantModels.create(args[5]));
+        }
+
+        TaskScheduler scheduler = new TaskScheduler(engine);
+        CompiledProgram program = ProgramCache.compile(source, DEFAULT_SCAN_PERIOD_MS);
+        scheduler.load(program);
+        Profiler profiler = new Profiler(args.length > 4 ? Integer.parseInt(args[4]) : 1);
+        engine.setProfiler(profiler);
+
+        long durationMs = Long.parseLong(args[2]);
+        engine.getContext().setMode(ExecutionMode.RUNNING);
+        while (scheduler.getNowMs() < durationMs && engine.getContext().getMode() == ExecutionMode.RUNNING) {
+            scheduler.tick(scheduler.getTickMs());
+        }
+
+        if (engine.getContext().getLastError() != null) {
+            System.out.println(engine.getContext().getLastError());
+        }
+
+        profiler.writeFolded(Path.of(args[3]), program, source);
+        System.out.printf("Varreduras: %d, amostras: %d, tempo estimado no programa: %.3f ms%n",
+                engine.getScanCount(), profiler.getSamples(), profiler.getTotalNanos() / 1e6);
+        for (String rung : profiler.hotRungs(program, source, 5)) {
+            System.out.println(rung);
+        }
+        for (String line : profiler.hotLines(source, 10)) {
+            System.out.println(line);
+        }
+    }
+
+    // fuzz <programa.txt> <casos> <varreduras por caso> [semente] [modelo de processo] [botões]
+    // Botões separados por vírgula; ":NC" marca os normalmente fechados (padrão: I0.0,I0.1:NC)
+    private static void runFuzz(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        CompiledProgram program = ProgramCache.compileFile(args[1], DEFAULT_SCAN_PERIOD_MS);
+        int cases = Integer.parseInt(args[2]);
+        int scans = Integer.parseInt(args[3]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        String plantName = args.length > 5 ? args[5] : null;
+
+        Map<String, Boolean> buttons = new LinkedHashMap<>();
+        for (String button : (args.length > 6 ? args[6] : "I0.0,I0.1:NC").split(",")) {
+            String[] parts = button.trim().split(":");
+            if (!InputActions.exists(parts[0])) {
+                throw new IllegalArgumentException("Entrada " + parts[0] + " não existe!");
+            }
+            buttons.put(parts[0], parts.length > 1 && parts[1].equalsIgnoreCase("NC"));
+        }
+
+        System.out.println("Semente: " + seed);
+        System.out.println(new Fuzzer(program, plantName, buttons).run(cases, scans, seed));
+    }
+
+    // test <suíte.iltest ou pasta> [junit.xml] [programa.txt]
+    // O programa informado vale para as suítes sem a linha "program"
+    private static void runTests(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsage();
+            return;
+        }
+
+        Path program = args.length > 3 ? Path.of(args[3]) : null;
+        TestReport report = TestRunner.run(TestRunner.load(Path.of(args[1])), program);
+        if (args.length > 2) {
+            report.writeJUnit(Path.of(args[2]));
+        }
+        System.out.println(report);
+        if (!report.isSuccessful()) {
+            System.exit(1);
+        }
+    }
+
+    // conform <programa.txt, pasta ou "random"> <casos> <varreduras> [semente] [driver.js]
+    // Com arquivo ou pasta, cada programa roda com <casos> sequências de entrada; com "random",
+    // <casos> programas são gerados, cada um com uma sequência
+    private static void runConformance(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        int count = Integer.parseInt(args[2]);
+        int scans = Integer.parseInt(args[3]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        Path driver = Path.of(args.length > 5 ? args[5] : "../webConversion/scripts/conformance-driver.js");
+        if (!Files.exists(driver)) {
+            throw new IllegalArgumentException("Driver web não encontrado: " + driver);
+        }
+
+        List<String> names = new ArrayList<>();
+        List<List<String>> programs = new ArrayList<>();
+        boolean random = args[1].equals("random");
+        if (!random) {
+            Path path = Path.of(args[1]);
+            List<Path> files = new ArrayList<>();
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> list = Files.list(path)) {
+                    list.filter(file -> file.toString().endsWith(".txt")).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+            for (Path file : files) {
+                names.add(file.getFileName().toString());
+                programs.add(Save.load(file.toString()));
+            }
+        }
+        int total = random ? count : count * programs.size();
+
+        Iterator<ConformanceCase> cases = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < total;
+            }
+
+            @Override
+            public ConformanceCase next() {
+                int id = next++;
+                long caseSeed = seed + id * 0x9E3779B97F4A7C15L;
+                if (random) {
+                    return new ConformanceCase(id, "Programa gerado " + id + " (semente " + caseSeed + ")",
+                            ProgramGenerator.generate(caseSeed), DEFAULT_SCAN_PERIOD_MS, scans,
+                            ConformanceCase.randomChanges(~caseSeed, scans, 0.05));
+                }
+                return new ConformanceCase(id, names.get(id / count) + ", sequência " + (id % count),
+                        programs.get(id / count), DEFAULT_SCAN_PERIOD_MS, scans,
+                        ConformanceCase.randomChanges(caseSeed, scans, 0.05));
+            }
+        };
+
+        System.out.println("Semente: " + seed);
+        try {
+            System.out.println(new ConformanceHarness(List.of("node", driver.toString())).run(cases));
+        } catch (IOException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Uso: [--io <mapa de E/S.cfg>] [--cache <pasta|off>] [--cache-limite <MB>] <comando>");
+        System.out.println("  (cache em ~/.simulador-clp/cache, até " + ProgramCache.DEFAULT_LIMIT_MB
+                + " MB por padrão; os programas usados há mais tempo saem primeiro)");
+        System.out.println("  compile <programa.txt>");
+        System.out.println("  fleet <programa.txt> <instâncias> <varreduras> [modelo de processo]");
+        System.out.println("  tasks <programa.txt> <duração ms> [modelo de processo]");
+        System.out.println("  record <programa.txt> <duração ms> <trace.bin> [modelo de processo]");
+        System.out.println("  trace <trace.bin>");
+        System.out.println("  replay <programa.txt> <trace.bin> [da varredura] [até a varredura] [modelo de processo]");
+        System.out.println("  vcd <programa.txt> <duração ms> <saída.vcd> [modelo de processo]");
+        System.out.println("  coverage <programa.txt> <duração ms> <relatório.csv> [modelo de processo]");
+        System.out.println("  profile <programa.txt> <duração ms> <saída.folded> [amostragem] [modelo de processo]");
+        System.out.println("  fuzz <programa.txt> <casos> <varreduras por caso> [semente] [modelo de processo] [botões]");
+        System.out.println("  test <suíte.iltest ou pasta> [junit.xml] [programa.txt]");
+        System.out.println("  conform <programa.txt, pasta ou random> <casos> <varreduras> [semente] [driver.js]");
+        System.out.println("  io (mostra o mapa de E/S em uso)");
+    }
+}
@@ -0,0 +1,27 @@
+package ilcompiler.runtime;
+
+// Mudança de uma entrada, com o instante (System.nanoTime) em que foi enfileirada
+public class InputEvent {
+
+    private final String address;
+    private final boolean value;
+    private final long timestampNanos;
+
+    public InputEvent(String address, boolean value, long timestampNanos) {
+        this.address = address;
+        this.value = value;
+        this.timestampNanos = timestampNanos;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public boolean getValue() {
+        return value;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
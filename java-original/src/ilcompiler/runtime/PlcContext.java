@@ -0,0 +1,302 @@
+package ilcompiler.runtime;
+
+import Models.ExecutionMode;
+import ilcompiler.io.IoImage;
+import ilcompiler.io.IoMap;
+import ilcompiler.memoryvariable.MemoryVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Estado de uma instância de CLP: imagem de entradas/saídas, memórias, acumulador e modo.
+// Cada instância é independente, permitindo várias CLPs na mesma JVM.
+// Entradas e saídas ficam em vetores de bits indexados pelo mapa de E/S vigente na criação;
+// palavras (MW) e entradas analógicas (IW) em vetores de int, com um acumulador inteiro próprio.
+public class PlcContext {
+
+    public static final int WORD_MEMORY_SIZE = 256;
+    public static final int ANALOG_INPUTS = 16;
+    public static final int MAX_CALL_DEPTH = 16;
+    public static final int MAX_NESTING = 8;
+    public static final byte NESTED_AND = 0;
+    public static final byte NESTED_AND_NOT = 1;
+    public static final byte NESTED_OR = 2;
+    public static final byte NESTED_OR_NOT = 3;
+
+    private IoImage inputs;
+    private IoImage outputs;
+    private Map<String, MemoryVariable> memoryVariables;
+    private ExecutionMode mode;
+    private Boolean accumulator;
+    private final int[] words = new int[WORD_MEMORY_SIZE];
+    private final int[] analogInputs = new int[ANALOG_INPUTS];
+    private int wordAccumulator;
+    private final int[] callStack = new int[MAX_CALL_DEPTH];
+    private int callDepth;
+    private int backwardJumps;
+    private final boolean[] nestedValues = new boolean[MAX_NESTING];
+    private final byte[] nestedOperations = new byte[MAX_NESTING];
+    private int nestingDepth;
+    private int currentLine = -1;
+    private String lastError;
+    private Consumer<String> errorHandler;
+    private int memoryVersion;
+    private MemoryVariable[] timers = new MemoryVariable[0];
+    private Map<String, MemoryVariable> timersSource;
+    private int timersVersion;
+    private final Queue<InputEvent> inputEvents = new ConcurrentLinkedQueue<>();
+
+    public PlcContext() {
+        IoMap map = IoMap.getCurrent();
+        this.inputs = new IoImage(map, true);
+        this.outputs = new IoImage(map, false);
+        this.memoryVariables = new HashMap<>();
+        this.mode = ExecutionMode.IDLE;
+        this.errorHandler = message -> mode = ExecutionMode.IDLE;
+    }
+
+    public Map<String, Boolean> getInputs() {
+        return inputs;
+    }
+
+    // Outro mapa é copiado para a imagem, que continua sendo a mesma
+    public void setInputs(Map<String, Boolean> map) {
+        if (map != inputs) {
+            inputs.clear();
+            inputs.putAll(map);
+        }
+    }
+
+    public IoImage getInputImage() {
+        return inputs;
+    }
+
+    // Altera uma entrada e enfileira a mudança para as tarefas de evento
+    public void setInput(String address, boolean value) {
+        Boolean previous = inputs.put(address, value);
+        if (previous == null || previous != value) {
+            inputEvents.add(new InputEvent(address, value, System.nanoTime()));
+        }
+    }
+
+    public InputEvent pollInputEvent() {
+        return inputEvents.poll();
+    }
+
+    public void clearInputEvents() {
+        inputEvents.clear();
+    }
+
+    public Map<String, Boolean> getOutputs() {
+        return outputs;
+    }
+
+    public void setOutputs(Map<String, Boolean> map) {
+        if (map != outputs) {
+            outputs.clear();
+            outputs.putAll(map);
+        }
+    }
+
+    public IoImage getOutputImage() {
+        return outputs;
+    }
+
+    // Fim de varredura: as imagens atuais passam a ser a referência das bordas (R_TRIG/F_TRIG)
+    public void latchImages() {
+        inputs.latch();
+        outputs.latch();
+    }
+
+    public Map<String, MemoryVariable> getMemoryVariables() {
+        return memoryVariables;
+    }
+
+    public void setMemoryVariables(Map<String, MemoryVariable> map) {
+        memoryVariables = map;
+        memoryVersion++;
+    }
+
+    public MemoryVariable createMemoryVariable(String id) {
+        MemoryVariable variable = new MemoryVariable(id);
+        memoryVariables.put(id, variable);
+        memoryVersion++;
+        return variable;
+    }
+
+    // Descarta memórias que não são mais referenciadas pelo programa (troca online)
+    public void retainMemoryVariables(Set<String> addresses) {
+        if (memoryVariables.keySet().retainAll(addresses)) {
+            memoryVersion++;
+        }
+    }
+
+    // Muda sempre que memórias são criadas ou removidas; permite manter caches fora do mapa
+    public int getMemoryVersion() {
+        return memoryVersion;
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ExecutionMode newMode) {
+        mode = newMode;
+    }
+
+    public Boolean getAccumulator() {
+        return accumulator;
+    }
+
+    public void setAccumulator(Boolean value) {
+        accumulator = value;
+    }
+
+    public int getWordAccumulator() {
+        return wordAccumulator;
+    }
+
+    public void setWordAccumulator(int value) {
+        wordAccumulator = value;
+    }
+
+    // Início de cada tarefa: acumulador lógico vazio, acumulador inteiro zerado, pilhas vazias
+    public void startTask() {
+        accumulator = null;
+        wordAccumulator = 0;
+        callDepth = 0;
+        backwardJumps = 0;
+        nestingDepth = 0;
+    }
+
+    // -------------------- Parênteses --------------------
+    // AND(, ANDN(, OR( e ORN( guardam o acumulador e a operação que o ')' aplica;
+    // a profundidade é conferida na compilação
+    public void pushNesting(boolean value, byte operation) {
+        nestedValues[nestingDepth] = value;
+        nestedOperations[nestingDepth++] = operation;
+    }
+
+    public int getNestingDepth() {
+        return nestingDepth;
+    }
+
+    // Fecha o parêntese mais interno: combina o acumulador guardado com o resultado de dentro
+    public boolean closeNesting(boolean inner) {
+        nestingDepth--;
+        boolean saved = nestedValues[nestingDepth];
+        return switch (nestedOperations[nestingDepth]) {
+            case NESTED_AND ->
+                saved && inner;
+            case NESTED_AND_NOT ->
+                saved && !inner;
+            case NESTED_OR ->
+                saved || inner;
+            default ->
+                saved || !inner;
+        };
+    }
+
+    // -------------------- Chamadas --------------------
+    // A profundidade é limitada na compilação (sem recursão), então a pilha nunca transborda
+    public void pushCall(int returnIndex) {
+        callStack[callDepth++] = returnIndex;
+    }
+
+    // Índice de retorno, ou -1 com a pilha vazia (fim da tarefa)
+    public int popCall() {
+        return callDepth == 0 ? -1 : callStack[--callDepth];
+    }
+
+    // Conta os desvios para trás da tarefa em execução
+    public int countBackwardJump() {
+        return ++backwardJumps;
+    }
+
+    // -------------------- Palavras --------------------
+    // Memória de palavras MW0..MW255, lida e escrita pelo índice resolvido na compilação
+    public int[] getWords() {
+        return words;
+    }
+
+    // Entradas analógicas IW0..IW15, escritas pelo modelo de processo
+    public int[] getAnalogInputs() {
+        return analogInputs;
+    }
+
+    public void clearWords() {
+        Arrays.fill(words, 0);
+        wordAccumulator = 0;
+    }
+
+    // Linha da instrução em execução (-1 fora das tarefas), para localizar os erros de execução
+    public int getCurrentLine() {
+        return currentLine;
+    }
+
+    public void setCurrentLine(int currentLine) {
+        this.currentLine = currentLine;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    // Por padrão um erro apenas coloca a instância em IDLE; a tela substitui por um diálogo
+    public void setErrorHandler(Consumer<String> handler) {
+        errorHandler = handler;
+    }
+
+    public void reportError(String message) {
+        lastError = message;
+        errorHandler.accept(message);
+    }
+
+    // -------------------- Temporizadores --------------------
+    // Os temporizadores são atendidos uma vez por varredura num vetor denso, refeito só quando
+    // memórias são criadas ou removidas, sem percorrer o mapa de memórias
+    private MemoryVariable[] timers() {
+        if (timersSource != memoryVariables || timersVersion != memoryVersion) {
+            List<MemoryVariable> found = new ArrayList<>();
+            for (MemoryVariable variable : memoryVariables.values()) {
+                if (variable.id.charAt(0) == 'T') {
+                    found.add(variable);
+                }
+            }
+            timers = found.toArray(new MemoryVariable[0]);
+            timersSource = memoryVariables;
+            timersVersion = memoryVersion;
+        }
+        return timers;
+    }
+
+    public void advanceTimers(int elapsedMs) {
+        for (MemoryVariable timer : timers()) {
+            timer.advanceTimer(elapsedMs);
+        }
+    }
+
+    public void updateTimersState() {
+        for (MemoryVariable timer : timers()) {
+            timer.updateTimerState();
+        }
+    }
+
+    public void stopTimers() {
+        for (MemoryVariable timer : timers()) {
+            timer.stopTimer();
+        }
+    }
+
+    public void resetTimers() {
+        for (MemoryVariable timer : timers()) {
+            timer.counter = 0;
+        }
+    }
+}
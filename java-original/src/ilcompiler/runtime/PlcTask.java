@@ -0,0 +1,123 @@
+package ilcompiler.runtime;
+
+import ilcompiler.compiler.CompiledTask;
+import ilcompiler.compiler.Instruction;
+
+// Tarefa cíclica (IEC 61131-3): seção do programa executada com período e prioridade próprios.
+// Prioridade menor executa primeiro.
+public class PlcTask {
+
+    private final CompiledTask definition;
+
+    private long nextReleaseMs;
+    private long executions;
+    private long missedReleases;
+    private long lastNanos;
+    private long maxNanos;
+    private long totalNanos;
+
+    public PlcTask(CompiledTask definition) {
+        this.definition = definition;
+    }
+
+    public CompiledTask getDefinition() {
+        return definition;
+    }
+
+    public String getName() {
+        return definition.getName();
+    }
+
+    public int getPeriodMs() {
+        return definition.getPeriodMs();
+    }
+
+    public int getPriority() {
+        return definition.getPriority();
+    }
+
+    public Instruction[] getCode() {
+        return definition.getCode();
+    }
+
+    public boolean isDue(long nowMs) {
+        return nowMs >= nextReleaseMs;
+    }
+
+    // Quanto o início em nowMs está atrasado em relação à liberação vencida
+    public long getLatenessMs(long nowMs) {
+        return nowMs - nextReleaseMs;
+    }
+
+    public void resetSchedule() {
+        nextReleaseMs = 0;
+    }
+
+    // Liberações são múltiplos do período: a próxima depois de nowMs
+    public void scheduleAfter(long nowMs) {
+        nextReleaseMs = (nowMs / getPeriodMs() + 1) * getPeriodMs();
+    }
+
+    // Mantém agenda e métricas da tarefa de mesmo nome do programa anterior (troca online)
+    public void continueFrom(PlcTask previous) {
+        nextReleaseMs = previous.nextReleaseMs;
+        executions = previous.executions;
+        missedReleases = previous.missedReleases;
+        lastNanos = previous.lastNanos;
+        maxNanos = previous.maxNanos;
+        totalNanos = previous.totalNanos;
+    }
+
+    public void recordExecution(long nanos, long nowMs) {
+        recordRun(nanos);
+
+        int periodMs = getPeriodMs();
+        nextReleaseMs += periodMs;
+        while (nextReleaseMs <= nowMs) {
+            nextReleaseMs += periodMs;
+            missedReleases++;
+        }
+    }
+
+    protected void recordRun(long nanos) {
+        executions++;
+        lastNanos = nanos;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public void resetMetrics() {
+        executions = 0;
+        missedReleases = 0;
+        lastNanos = 0;
+        maxNanos = 0;
+        totalNanos = 0;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    // Ativações perdidas porque a tarefa não foi servida dentro do próprio período
+    public long getMissedReleases() {
+        return missedReleases;
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getAverageNanos() {
+        return executions == 0 ? 0 : totalNanos / executions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (período %d ms, prioridade %d): execuções %d, perdidas %d, média %d ns, máx %d ns",
+                getName(), getPeriodMs(), getPriority(), executions, missedReleases, getAverageNanos(), maxNanos);
+    }
+}
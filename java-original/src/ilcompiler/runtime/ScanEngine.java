@@ -0,0 +1,156 @@
+package ilcompiler.runtime;
+
+import ilcompiler.compiler.Instruction;
+import ilcompiler.coverage.Coverage;
+import ilcompiler.input.InputActions;
+import ilcompiler.interpreter.Interpreter;
+import ilcompiler.profiler.Profiler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import plant.PlantModel;
+
+// Ciclo de varredura de uma instância de CLP: tempo -> processo -> entradas -> programa -> temporizadores.
+// O tempo é informado por quem chama (relógio real na tela, tempo virtual sem interface).
+public class ScanEngine {
+
+    private final PlcContext context;
+    private PlantModel plant;
+    private long scanCount;
+    private long timeMs;
+    private int lastElapsedMs;
+    private ScanListener[] listeners = new ScanListener[0];
+    private Coverage coverage;
+    private Profiler profiler;
+
+    public ScanEngine(PlcContext context) {
+        this.context = context;
+    }
+
+    public PlcContext getContext() {
+        return context;
+    }
+
+    public PlantModel getPlant() {
+        return plant;
+    }
+
+    public void setPlant(PlantModel plant) {
+        this.plant = plant;
+    }
+
+    public long getScanCount() {
+        return scanCount;
+    }
+
+    public void setScanCount(long scanCount) {
+        this.scanCount = scanCount;
+    }
+
+    // Tempo acumulado desde o carregamento do programa (soma dos intervalos de varredura)
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public void setTimeMs(long timeMs) {
+        this.timeMs = timeMs;
+    }
+
+    public int getLastElapsedMs() {
+        return lastElapsedMs;
+    }
+
+    public Coverage getCoverage() {
+        return coverage;
+    }
+
+    // Liga (ou desliga, com null) a contagem de cobertura das instruções executadas
+    public void setCoverage(Coverage coverage) {
+        this.coverage = coverage;
+    }
+
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    // Liga (ou desliga, com null) o perfil de tempo por linha
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    // Ouvintes são mantidos em um vetor para não alocar iteradores a cada varredura
+    public void addScanListener(ScanListener listener) {
+        ScanListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public void removeScanListener(ScanListener listener) {
+        List<ScanListener> updated = new ArrayList<>(Arrays.asList(listeners));
+        updated.remove(listener);
+        listeners = updated.toArray(new ScanListener[0]);
+    }
+
+    // Avança o tempo (temporizadores e processo) e lê as entradas
+    public void beginScan(int elapsedMs) {
+        timeMs += elapsedMs;
+        lastElapsedMs = elapsedMs;
+        context.advanceTimers(elapsedMs);
+
+        if (plant != null) {
+            plant.step(context.getInputs(), context.getOutputs(), elapsedMs);
+            plant.writeAnalogInputs(context.getAnalogInputs());
+        }
+
+        context.setInputs(InputActions.read(context.getInputs()));
+    }
+
+    // Sem cobertura nem perfil, o laço direto do interpretador
+    public void execute(Instruction[] code) {
+        if (profiler != null) {
+            context.startTask();
+            int pc = 0;
+            while (pc >= 0 && pc < code.length) {
+                executeInstruction(code[pc]);
+                pc = Interpreter.next(code[pc], pc, context);
+            }
+        } else if (coverage != null) {
+            coverage.execute(code, context);
+        } else {
+            Interpreter.execute(code, context);
+        }
+        context.setCurrentLine(-1);
+    }
+
+    // Uma instrução isolada (execução passo a passo ou perfil)
+    public void executeInstruction(Instruction instruction) {
+        if (profiler == null) {
+            runInstruction(instruction);
+        } else if (profiler.sampleNext()) {
+            long start = System.nanoTime();
+            runInstruction(instruction);
+            profiler.record(instruction, System.nanoTime() - start);
+        } else {
+            runInstruction(instruction);
+            profiler.count(instruction);
+        }
+    }
+
+    private void runInstruction(Instruction instruction) {
+        if (coverage == null) {
+            Interpreter.executeInstruction(instruction, context);
+        } else {
+            coverage.executeInstruction(instruction, context);
+        }
+    }
+
+    public void endScan() {
+        context.updateTimersState();
+        context.latchImages();
+        scanCount++;
+
+        for (ScanListener listener : listeners) {
+            listener.scanCompleted(this);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ilcompiler.runtime;
+
+// Notificado ao fim de cada varredura, depois da atualização dos temporizadores.
+// Roda na thread do ciclo: implementações não devem bloquear nem alocar.
+public interface ScanListener {
+
+    void scanCompleted(ScanEngine engine);
+}
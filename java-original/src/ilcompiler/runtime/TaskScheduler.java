@@ -0,0 +1,309 @@
+package ilcompiler.runtime;
+
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.CompiledTask;
+import ilcompiler.compiler.Instruction;
+import ilcompiler.interpreter.Interpreter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Escalonador determinístico das tarefas de um programa compilado sobre o ScanEngine.
+// A cada tick o tempo avança, os eventos pendentes são atendidos e as tarefas cíclicas
+// vencidas executam em ordem de prioridade (menor valor primeiro).
+// Não há preempção: cada tarefa executa até o fim, então uma tarefa lenta atrasa o próximo tick
+// e, com ele, as tarefas rápidas. Uma tarefa cíclica que começa um período inteiro depois da
+// liberação é reportada pelo tratador de erros do contexto, como os erros de execução.
+public class TaskScheduler {
+
+    private final ScanEngine engine;
+    private final AtomicReference<CompiledProgram> pendingProgram = new AtomicReference<>();
+    private CompiledProgram program;
+    private List<PlcTask> tasks = new ArrayList<>();
+    private List<EventTask> eventTasks = new ArrayList<>();
+    private final Map<String, Boolean> lastEventValues = new HashMap<>();
+    private int tickMs;
+    private long nowMs;
+    private boolean started;
+
+    // Tick em andamento no modo passo a passo
+    private final List<PlcTask> steppingTasks = new ArrayList<>();
+    private boolean stepping;
+    private int stepTask;
+    private int stepInstruction;
+    private long stepNanos;
+
+    public TaskScheduler(ScanEngine engine) {
+        this.engine = engine;
+    }
+
+    public ScanEngine getEngine() {
+        return engine;
+    }
+
+    public CompiledProgram getProgram() {
+        return program;
+    }
+
+    public List<PlcTask> getTasks() {
+        return tasks;
+    }
+
+    public List<EventTask> getEventTasks() {
+        return eventTasks;
+    }
+
+    // Período do tick base: MDC dos períodos de todas as tarefas cíclicas
+    public int getTickMs() {
+        return tickMs;
+    }
+
+    public long getNowMs() {
+        return nowMs;
+    }
+
+    public void load(CompiledProgram newProgram) {
+        pendingProgram.set(null);
+        tasks = new ArrayList<>();
+        eventTasks = new ArrayList<>();
+        lastEventValues.clear();
+        engine.getContext().clearInputEvents();
+        nowMs = 0;
+        started = false;
+        stepping = false;
+        engine.setTimeMs(0);
+
+        install(newProgram);
+    }
+
+    // Retoma a partir de um estado restaurado (checkpoint) no instante nowMs, sem liberar
+    // de novo as tarefas que já executaram nesse instante
+    public void restore(long nowMs) {
+        this.nowMs = nowMs;
+        started = true;
+        stepping = false;
+        engine.setTimeMs(nowMs);
+        engine.getContext().clearInputEvents();
+
+        for (PlcTask task : tasks) {
+            task.scheduleAfter(nowMs);
+        }
+        for (String address : new ArrayList<>(lastEventValues.keySet())) {
+            lastEventValues.put(address, engine.getContext().getInputs().get(address));
+        }
+    }
+
+    // Troca online: o programa é instalado no início do próximo tick, sem parar a execução.
+    // Pode ser chamado de qualquer thread; vale o último programa pedido.
+    public void requestSwap(CompiledProgram newProgram) {
+        pendingProgram.set(newProgram);
+    }
+
+    // Instala o programa preservando, pelo endereço, memórias, temporizadores e contadores,
+    // e, pelo nome, a agenda e as métricas das tarefas
+    private void install(CompiledProgram newProgram) {
+        Map<String, PlcTask> previous = new HashMap<>();
+        for (PlcTask task : tasks) {
+            previous.put(task.getName(), task);
+        }
+        for (EventTask task : eventTasks) {
+            previous.put(task.getName(), task);
+        }
+
+        List<PlcTask> cyclic = new ArrayList<>();
+        List<EventTask> events = new ArrayList<>();
+        int gcd = 0;
+
+        for (CompiledTask definition : newProgram.getTasks()) {
+            PlcTask task;
+            if (definition.isEvent()) {
+                EventTask eventTask = new EventTask(definition);
+                events.add(eventTask);
+                lastEventValues.putIfAbsent(eventTask.getAddress(),
+                        engine.getContext().getInputs().get(eventTask.getAddress()));
+                task = eventTask;
+            } else {
+                cyclic.add(task = new PlcTask(definition));
+                gcd = gcd(gcd, definition.getPeriodMs());
+            }
+
+            PlcTask old = previous.get(definition.getName());
+            if (old != null && old.getClass() == task.getClass()) {
+                task.continueFrom(old);
+            }
+        }
+
+        cyclic.sort(Comparator.comparingInt(PlcTask::getPriority));
+        events.sort(Comparator.comparingInt(PlcTask::getPriority));
+
+        List<String> eventAddresses = new ArrayList<>();
+        for (EventTask eventTask : events) {
+            eventAddresses.add(eventTask.getAddress());
+        }
+        lastEventValues.keySet().retainAll(eventAddresses);
+
+        if (program != null) {
+            engine.getContext().retainMemoryVariables(newProgram.getAddresses());
+        }
+
+        program = newProgram;
+        tasks = cyclic;
+        eventTasks = events;
+        tickMs = gcd == 0 ? newProgram.getDefaultPeriodMs() : gcd;
+    }
+
+    // O primeiro tick após o load acontece no instante zero, liberando todas as tarefas
+    public void tick(int elapsedMs) {
+        startTick(elapsedMs);
+
+        for (PlcTask task : tasks) {
+            if (task.isDue(nowMs)) {
+                checkOverrun(task);
+                long start = System.nanoTime();
+                engine.execute(task.getCode());
+                task.recordExecution(System.nanoTime() - start, nowMs);
+            }
+        }
+
+        engine.endScan();
+    }
+
+    private void startTick(int elapsedMs) {
+        CompiledProgram swap = pendingProgram.getAndSet(null);
+        if (swap != null) {
+            install(swap);
+        }
+
+        if (!started) {
+            started = true;
+            elapsedMs = 0;
+        }
+        nowMs += elapsedMs;
+        engine.beginScan(elapsedMs);
+
+        dispatchEvents();
+    }
+
+    // -------------------- Execução passo a passo --------------------
+    // Prepara um tick para ser executado uma instrução por vez com stepInstruction()
+    public void beginStepping(int elapsedMs) {
+        startTick(elapsedMs);
+
+        steppingTasks.clear();
+        for (PlcTask task : tasks) {
+            if (task.isDue(nowMs)) {
+                steppingTasks.add(task);
+            }
+        }
+        stepping = true;
+        stepTask = 0;
+        stepInstruction = 0;
+        stepNanos = 0;
+        engine.getContext().startTask();
+        finishDoneTasks();
+    }
+
+    public boolean isStepping() {
+        return stepping;
+    }
+
+    // Próxima instrução do tick passo a passo, ou null se não há tick em andamento
+    public Instruction getNextInstruction() {
+        return stepping ? steppingTasks.get(stepTask).getCode()[stepInstruction] : null;
+    }
+
+    public PlcTask getSteppingTask() {
+        return stepping ? steppingTasks.get(stepTask) : null;
+    }
+
+    // Executa a próxima instrução; depois da última instrução do tick a varredura é concluída
+    public Instruction stepInstruction() {
+        if (!stepping) {
+            return null;
+        }
+
+        Instruction instruction = getNextInstruction();
+        long start = System.nanoTime();
+        engine.executeInstruction(instruction);
+        stepInstruction = Interpreter.next(instruction, stepInstruction, engine.getContext());
+        stepNanos += System.nanoTime() - start;
+
+        finishDoneTasks();
+        return instruction;
+    }
+
+    // Conclui as tarefas já executadas por inteiro e, sem tarefas restantes, a varredura
+    private void finishDoneTasks() {
+        while (stepTask < steppingTasks.size()
+                && (stepInstruction < 0 || stepInstruction >= steppingTasks.get(stepTask).getCode().length)) {
+            steppingTasks.get(stepTask).recordExecution(stepNanos, nowMs);
+            stepTask++;
+            stepInstruction = 0;
+            stepNanos = 0;
+            engine.getContext().startTask();
+        }
+
+        if (stepTask == steppingTasks.size()) {
+            stepping = false;
+            engine.endScan();
+        }
+    }
+
+    private void checkOverrun(PlcTask task) {
+        long lateMs = task.getLatenessMs(nowMs);
+        if (lateMs >= task.getPeriodMs()) {
+            engine.getContext().reportError("Tarefa " + task.getName() + " atrasada " + lateMs
+                    + " ms, mais que o seu período de " + task.getPeriodMs() + " ms!");
+        }
+    }
+
+    // Atende os eventos de entrada pendentes sem esperar a próxima varredura.
+    // Mudanças feitas direto na imagem (ex.: sensores do modelo de processo) são detectadas aqui.
+    public void dispatchEvents() {
+        PlcContext context = engine.getContext();
+
+        InputEvent event;
+        while ((event = context.pollInputEvent()) != null) {
+            handleEvent(event.getAddress(), event.getValue(), event.getTimestampNanos());
+        }
+
+        if (eventTasks.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (EventTask eventTask : eventTasks) {
+            Boolean value = context.getInputs().get(eventTask.getAddress());
+            if (value != null && !value.equals(lastEventValues.get(eventTask.getAddress()))) {
+                handleEvent(eventTask.getAddress(), value, now);
+            }
+        }
+    }
+
+    private void handleEvent(String address, boolean value, long timestampNanos) {
+        if (!lastEventValues.containsKey(address)) {
+            return;
+        }
+
+        Boolean previous = lastEventValues.put(address, value);
+        if (previous == null) {
+            return;
+        }
+
+        for (EventTask eventTask : eventTasks) {
+            if (eventTask.matches(address, previous, value)) {
+                long start = System.nanoTime();
+                engine.execute(eventTask.getCode());
+                long end = System.nanoTime();
+                eventTask.recordEvent(end - start, end - timestampNanos);
+            }
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
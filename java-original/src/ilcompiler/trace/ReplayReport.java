@@ -0,0 +1,108 @@
+package ilcompiler.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultado de um replay: varreduras reexecutadas e divergências em relação ao trace
+public class ReplayReport {
+
+    private static final int MAX_MISMATCHES = 20;
+
+    private long checkpointScan = -1;
+    private long lastScan = -1;
+    private long scans;
+    private long mismatchCount;
+    private final List<String> mismatches = new ArrayList<>();
+    private long sessionBreakScan = -1;
+    private String error;
+    private long elapsedNanos;
+
+    void setCheckpointScan(long scan) {
+        checkpointScan = scan;
+        lastScan = scan;
+    }
+
+    void countScan(long scan) {
+        scans++;
+        lastScan = scan;
+    }
+
+    void addMismatch(long scan, String address, Object expected, Object actual) {
+        mismatchCount++;
+        if (mismatches.size() < MAX_MISMATCHES) {
+            mismatches.add("Varredura " + scan + ": " + address + " esperado " + expected + ", obtido " + actual);
+        }
+    }
+
+    void setSessionBreakScan(long scan) {
+        sessionBreakScan = scan;
+    }
+
+    void setError(String message) {
+        error = message;
+    }
+
+    void setElapsedNanos(long nanos) {
+        elapsedNanos = nanos;
+    }
+
+    public long getCheckpointScan() {
+        return checkpointScan;
+    }
+
+    public long getLastScan() {
+        return lastScan;
+    }
+
+    public long getScans() {
+        return scans;
+    }
+
+    public long getMismatchCount() {
+        return mismatchCount;
+    }
+
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    public long getSessionBreakScan() {
+        return sessionBreakScan;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public boolean isMatch() {
+        return checkpointScan >= 0 && mismatchCount == 0 && error == null;
+    }
+
+    @Override
+    public String toString() {
+        if (checkpointScan < 0) {
+            return "Nenhum quadro completo encontrado no trace!";
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Replay a partir do checkpoint %d até a varredura %d: %d varreduras em %.1f ms",
+                checkpointScan, lastScan, scans, elapsedNanos / 1e6));
+        text.append(System.lineSeparator());
+        text.append(mismatchCount == 0 ? "Saídas idênticas ao trace" : "Divergências: " + mismatchCount);
+        for (String mismatch : mismatches) {
+            text.append(System.lineSeparator()).append("  ").append(mismatch);
+        }
+        if (sessionBreakScan >= 0) {
+            text.append(System.lineSeparator())
+                    .append("Nova execução iniciada na varredura ").append(sessionBreakScan).append("; replay interrompido");
+        }
+        if (error != null) {
+            text.append(System.lineSeparator()).append("Erro: ").append(error);
+        }
+        return text.toString();
+    }
+}
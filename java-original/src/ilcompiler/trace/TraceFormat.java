@@ -0,0 +1,159 @@
+package ilcompiler.trace;
+
+import ilcompiler.io.IoImage;
+import ilcompiler.io.IoMap;
+import ilcompiler.memoryvariable.MemoryVariable;
+import java.util.List;
+import java.util.Map;
+
+// Layout do arquivo de trace: cabeçalho fixo, tabela de endereços de E/S e um anel de registros.
+// Registro: [tipo byte][tamanho int][varredura long][corpo]
+// Quadros completos trazem também as palavras (MW), as entradas analógicas (IW) e o acumulador
+// inteiro, que os deltas não registram: o replay os recalcula a partir do quadro.
+public class TraceFormat {
+
+    public static final int MAGIC = 0x494C5452; // "ILTR"
+    public static final int VERSION = 3;
+
+    // Posições no cabeçalho
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int DATA_START_OFFSET = 8;
+    static final int CAPACITY_OFFSET = 12;
+    static final int KEYFRAME_INTERVAL_OFFSET = 16;
+    static final int HEAD_OFFSET = 20;
+    static final int TAIL_OFFSET = 24;
+    static final int COUNT_OFFSET = 28;
+    static final int LAST_SCAN_OFFSET = 32;
+    static final int IDS_OFFSET = 64;
+
+    // Tipos de registro
+    static final byte WRAP = 0;
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    static final byte DEFINE = 3;
+
+    static final int RECORD_PREFIX = 1 + 4 + 8;
+
+    // Máscara do registro delta
+    static final int INPUTS_CHANGED = 1;
+    static final int OUTPUTS_CHANGED = 2;
+
+    // Bits do estado de uma memória
+    private static final int VALUE_BIT = 1;
+    private static final int DONE_BIT = 2;
+    private static final int RUNNING_BIT = 4;
+    private static final int TIMER_TYPE_SHIFT = 3;
+    private static final int COUNTER_TYPE_SHIFT = 5;
+    // Terceiro bit do tipo de temporizador (TP e TONR); zero nos traces antigos
+    private static final int TIMER_TYPE_HIGH_SHIFT = 7;
+
+    public static int words(int bits) {
+        return (bits + 63) / 64;
+    }
+
+    // Caminho de cada varredura: com a imagem no mesmo mapa de E/S dos ids, os bits já estão na ordem
+    // do trace e são copiados por palavra; só uma imagem de outro mapa é lida endereço a endereço
+    public static void pack(IoImage image, IoMap map, String[] ids, long[] words) {
+        if (image.getMap() == map) {
+            image.copyBits(words);
+        } else {
+            pack((Map<String, Boolean>) image, ids, words);
+        }
+    }
+
+    public static void pack(Map<String, Boolean> image, String[] ids, long[] words) {
+        for (int w = 0; w < words.length; w++) {
+            words[w] = 0;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (Boolean.TRUE.equals(image.get(ids[i]))) {
+                words[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+    }
+
+    public static void unpack(long[] words, List<String> ids, Map<String, Boolean> image) {
+        for (int i = 0; i < ids.size(); i++) {
+            image.put(ids.get(i), (words[i >>> 6] & (1L << (i & 63))) != 0);
+        }
+    }
+
+    public static byte encodeState(MemoryVariable variable) {
+        int state = 0;
+        if (Boolean.TRUE.equals(variable.currentValue)) {
+            state |= VALUE_BIT;
+        }
+        if (Boolean.TRUE.equals(variable.endTimer)) {
+            state |= DONE_BIT;
+        }
+        if (variable.timerRunning) {
+            state |= RUNNING_BIT;
+        }
+        int timerType = timerTypeCode(variable.timerType);
+        state |= (timerType & 3) << TIMER_TYPE_SHIFT;
+        state |= (timerType >> 2) << TIMER_TYPE_HIGH_SHIFT;
+        state |= typeCode(variable.counterType, "UP", "DOWN") << COUNTER_TYPE_SHIFT;
+        return (byte) state;
+    }
+
+    public static void decodeState(byte encoded, MemoryVariable variable) {
+        int state = encoded & 0xFF;
+        variable.currentValue = (state & VALUE_BIT) != 0;
+        variable.endTimer = (state & DONE_BIT) != 0;
+        variable.timerRunning = (state & RUNNING_BIT) != 0;
+        variable.timerType = timerTypeName((state >> TIMER_TYPE_SHIFT) & 3 | (state >> TIMER_TYPE_HIGH_SHIFT) << 2);
+        variable.counterType = typeName((state >> COUNTER_TYPE_SHIFT) & 3, "UP", "DOWN");
+    }
+
+    private static int timerTypeCode(String type) {
+        return switch (type) {
+            case MemoryVariable.ON_DELAY ->
+                1;
+            case MemoryVariable.OFF_DELAY ->
+                2;
+            case MemoryVariable.PULSE ->
+                3;
+            case MemoryVariable.RETENTIVE ->
+                4;
+            default ->
+                0;
+        };
+    }
+
+    private static String timerTypeName(int code) {
+        return switch (code) {
+            case 1 ->
+                MemoryVariable.ON_DELAY;
+            case 2 ->
+                MemoryVariable.OFF_DELAY;
+            case 3 ->
+                MemoryVariable.PULSE;
+            case 4 ->
+                MemoryVariable.RETENTIVE;
+            default ->
+                "";
+        };
+    }
+
+    private static int typeCode(String type, String first, String second) {
+        if (first.equals(type)) {
+            return 1;
+        }
+        if (second.equals(type)) {
+            return 2;
+        }
+        return 0;
+    }
+
+    private static String typeName(int code, String first, String second) {
+        return switch (code) {
+            case 1 ->
+                first;
+            case 2 ->
+                second;
+            default ->
+                "";
+        };
+    }
+}
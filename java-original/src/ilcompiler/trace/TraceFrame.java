@@ -0,0 +1,85 @@
+package ilcompiler.trace;
+
+import ilcompiler.memoryvariable.MemoryVariable;
+import java.util.Map;
+
+// Uma varredura lida do trace. Em quadros completos as memórias trazem o estado inteiro;
+// nos demais, apenas as memórias que mudaram naquela varredura.
+public class TraceFrame {
+
+    private final long scan;
+    private final long timeMs;
+    private final int elapsedMs;
+    private final boolean keyframe;
+    private final Map<String, Boolean> inputs;
+    private final Map<String, Boolean> outputs;
+    private final Map<String, MemoryVariable> variables;
+    private final int[] plantState;
+    private int[] words;
+    private int[] analogInputs;
+    private int wordAccumulator;
+
+    public TraceFrame(long scan, long timeMs, int elapsedMs, boolean keyframe, Map<String, Boolean> inputs,
+            Map<String, Boolean> outputs, Map<String, MemoryVariable> variables, int[] plantState) {
+        this.scan = scan;
+        this.timeMs = timeMs;
+        this.elapsedMs = elapsedMs;
+        this.keyframe = keyframe;
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.variables = variables;
+        this.plantState = plantState;
+    }
+
+    public long getScan() {
+        return scan;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public int getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    public Map<String, Boolean> getInputs() {
+        return inputs;
+    }
+
+    public Map<String, Boolean> getOutputs() {
+        return outputs;
+    }
+
+    public Map<String, MemoryVariable> getVariables() {
+        return variables;
+    }
+
+    // Estado do modelo de processo; só existe em quadros completos
+    public int[] getPlantState() {
+        return plantState;
+    }
+
+    // Palavras, entradas analógicas e acumulador inteiro; só em quadros completos
+    void setWords(int[] newWords, int[] newAnalogInputs, int newWordAccumulator) {
+        words = newWords;
+        analogInputs = newAnalogInputs;
+        wordAccumulator = newWordAccumulator;
+    }
+
+    public int[] getWords() {
+        return words;
+    }
+
+    public int[] getAnalogInputs() {
+        return analogInputs;
+    }
+
+    public int getWordAccumulator() {
+        return wordAccumulator;
+    }
+}
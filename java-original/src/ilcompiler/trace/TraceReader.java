@@ -0,0 +1,236 @@
+package ilcompiler.trace;
+
+import ilcompiler.memoryvariable.MemoryVariable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Lê um arquivo gravado pelo TraceRecorder, do registro mais antigo ao mais novo.
+// A leitura começa no primeiro quadro completo; deltas anteriores não têm base e são ignorados.
+public class TraceReader {
+
+    private final ByteBuffer buffer;
+    private final int dataStart;
+    private final int capacity;
+    private final int tail;
+    private final int count;
+    private final long lastScan;
+    private final List<String> inputIds;
+    private final List<String> outputIds;
+
+    private TraceReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(TraceFormat.MAGIC_OFFSET) != TraceFormat.MAGIC) {
+            throw new IllegalArgumentException("Arquivo não é um trace do simulador!");
+        }
+        if (buffer.getInt(TraceFormat.VERSION_OFFSET) != TraceFormat.VERSION) {
+            throw new IllegalArgumentException("Versão do trace não suportada!");
+        }
+        this.dataStart = buffer.getInt(TraceFormat.DATA_START_OFFSET);
+        this.capacity = buffer.getInt(TraceFormat.CAPACITY_OFFSET);
+        this.tail = buffer.getInt(TraceFormat.TAIL_OFFSET);
+        this.count = buffer.getInt(TraceFormat.COUNT_OFFSET);
+        this.lastScan = buffer.getLong(TraceFormat.LAST_SCAN_OFFSET);
+
+        byte[] ids = new byte[buffer.getShort(TraceFormat.IDS_OFFSET)];
+        buffer.get(TraceFormat.IDS_OFFSET + 2, ids);
+        String[] sides = new String(ids, StandardCharsets.US_ASCII).split("\\|");
+        this.inputIds = List.of(sides[0].trim().split(" "));
+        this.outputIds = List.of(sides[1].trim().split(" "));
+    }
+
+    public static TraceReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TraceReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public List<String> getInputIds() {
+        return inputIds;
+    }
+
+    public List<String> getOutputIds() {
+        return outputIds;
+    }
+
+    public int getRecordCount() {
+        return count;
+    }
+
+    public long getLastScan() {
+        return lastScan;
+    }
+
+    // Percorre as varreduras em ordem, reconstruindo as imagens completas de E/S.
+    // A leitura para quando o visitante devolve false.
+    public void forEach(Predicate<TraceFrame> visitor) {
+        read(tail, 0, visitor);
+    }
+
+    // Avanço rápido: começa no último quadro completo até a varredura scan, lendo só os
+    // cabeçalhos dos registros anteriores
+    public void forEachFrom(long scan, Predicate<TraceFrame> visitor) {
+        int position = tail;
+        int keyframePosition = -1;
+        int keyframeRecord = 0;
+
+        for (int record = 0; record < count; record++) {
+            position = skipWrap(position);
+            byte type = buffer.get(dataStart + position);
+            long recordScan = buffer.getLong(dataStart + position + 5);
+            if (recordScan > scan && keyframePosition >= 0) {
+                break;
+            }
+            if (type == TraceFormat.KEYFRAME) {
+                keyframePosition = position;
+                keyframeRecord = record;
+            }
+            position += buffer.getInt(dataStart + position + 1);
+        }
+
+        if (keyframePosition >= 0) {
+            read(keyframePosition, keyframeRecord, visitor);
+        }
+    }
+
+    private int skipWrap(int position) {
+        if (position >= capacity || buffer.get(dataStart + position) == TraceFormat.WRAP) {
+            return 0;
+        }
+        return position;
+    }
+
+    private void read(int position, int firstRecord, Predicate<TraceFrame> visitor) {
+        Map<Integer, String> dictionary = new HashMap<>();
+        long[] inputWords = new long[TraceFormat.words(inputIds.size())];
+        long[] outputWords = new long[TraceFormat.words(outputIds.size())];
+        boolean synced = false;
+        long timeMs = 0;
+
+        for (int record = firstRecord; record < count; record++) {
+            position = skipWrap(position);
+
+            buffer.position(dataStart + position);
+            byte type = buffer.get();
+            int size = buffer.getInt();
+            long scan = buffer.getLong();
+            position += size;
+
+            switch (type) {
+                case TraceFormat.DEFINE -> {
+                    int index = buffer.getShort();
+                    dictionary.put(index, readId());
+                }
+                case TraceFormat.KEYFRAME -> {
+                    timeMs = buffer.getLong();
+                    int elapsedMs = buffer.getInt();
+                    readWords(inputWords);
+                    readWords(outputWords);
+
+                    int[] plantState = new int[buffer.getShort()];
+                    for (int p = 0; p < plantState.length; p++) {
+                        plantState[p] = buffer.getInt();
+                    }
+                    int wordAccumulator = buffer.getInt();
+                    int[] words = readInts();
+                    int[] analogInputs = readInts();
+
+                    dictionary.clear();
+                    int definitions = buffer.getShort();
+                    for (int d = 0; d < definitions; d++) {
+                        int index = buffer.getShort();
+                        dictionary.put(index, readId());
+                    }
+
+                    Map<String, MemoryVariable> variables = new LinkedHashMap<>();
+                    int live = buffer.getShort();
+                    for (int v = 0; v < live; v++) {
+                        MemoryVariable variable = readVariable(dictionary);
+                        variable.timerElapsedMs = buffer.getInt();
+                        variables.put(variable.id, variable);
+                    }
+
+                    synced = true;
+                    TraceFrame frame = frame(scan, timeMs, elapsedMs, inputWords, outputWords, variables, plantState);
+                    frame.setWords(words, analogInputs, wordAccumulator);
+                    if (!visitor.test(frame)) {
+                        return;
+                    }
+                }
+                case TraceFormat.DELTA -> {
+                    int elapsedMs = buffer.getInt();
+                    int mask = buffer.get();
+                    if ((mask & TraceFormat.INPUTS_CHANGED) != 0) {
+                        readWords(inputWords);
+                    }
+                    if ((mask & TraceFormat.OUTPUTS_CHANGED) != 0) {
+                        readWords(outputWords);
+                    }
+                    if (!synced) {
+                        continue;
+                    }
+
+                    timeMs += elapsedMs;
+                    Map<String, MemoryVariable> variables = new LinkedHashMap<>();
+                    int changes = buffer.getShort();
+                    for (int c = 0; c < changes; c++) {
+                        MemoryVariable variable = readVariable(dictionary);
+                        variables.put(variable.id, variable);
+                    }
+                    if (!visitor.test(frame(scan, timeMs, elapsedMs, inputWords, outputWords, variables, null))) {
+                        return;
+                    }
+                }
+                default ->
+                    throw new IllegalArgumentException("Trace corrompido na posição " + position + "!");
+            }
+        }
+    }
+
+    private String readId() {
+        byte[] id = new byte[buffer.get()];
+        buffer.get(id);
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    private MemoryVariable readVariable(Map<Integer, String> dictionary) {
+        int index = buffer.getShort();
+        MemoryVariable variable = new MemoryVariable(dictionary.getOrDefault(index, "?" + index));
+        TraceFormat.decodeState(buffer.get(), variable);
+        variable.counter = buffer.getInt();
+        variable.maxTimer = buffer.getInt();
+        return variable;
+    }
+
+    private int[] readInts() {
+        int[] values = new int[buffer.getShort()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getInt();
+        }
+        return values;
+    }
+
+    private void readWords(long[] words) {
+        for (int w = 0; w < words.length; w++) {
+            words[w] = buffer.getLong();
+        }
+    }
+
+    private TraceFrame frame(long scan, long timeMs, int elapsedMs, long[] inputWords, long[] outputWords,
+            Map<String, MemoryVariable> variables, int[] plantState) {
+        Map<String, Boolean> inputs = new LinkedHashMap<>();
+        Map<String, Boolean> outputs = new LinkedHashMap<>();
+        TraceFormat.unpack(inputWords, inputIds, inputs);
+        TraceFormat.unpack(outputWords, outputIds, outputs);
+        return new TraceFrame(scan, timeMs, elapsedMs, plantState != null, inputs, outputs, variables,
+                plantState);
+    }
+}
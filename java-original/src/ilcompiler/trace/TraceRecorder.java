@@ -0,0 +1,408 @@
+package ilcompiler.trace;
+
+import ilcompiler.input.InputActions;
+import ilcompiler.io.IoMap;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.output.OutputActions;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.ScanListener;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Grava cada varredura em um arquivo circular mapeado em memória.
+// Só as diferenças são gravadas; um quadro completo (keyframe) é escrito periodicamente
+// para que o trecho mais antigo continue legível depois que o anel der a volta.
+// Os dados ficam no cache de páginas do sistema, então sobrevivem a uma queda da JVM.
+public class TraceRecorder implements ScanListener, Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int dataStart;
+    private final int capacity;
+    private final int keyframeInterval;
+
+    private int head;
+    private int tail;
+    private int count;
+
+    private final IoMap ioMap;
+    private final String[] inputIds;
+    private final String[] outputIds;
+    private final long[] inputWords;
+    private final long[] outputWords;
+    private final long[] lastInputWords;
+    private final long[] lastOutputWords;
+
+    // Dicionário de memórias: o índice é o que vai para os registros
+    private final Map<String, Integer> registry = new HashMap<>();
+    private byte[][] idBytes = new byte[16][];
+    private byte[] lastState = new byte[16];
+    private int[] lastCounter = new int[16];
+    private int[] lastPreset = new int[16];
+    private int idBytesTotal;
+
+    // Cache das memórias vivas, refeito só quando o contexto muda de versão
+    private Map<String, MemoryVariable> cachedMap;
+    private int cachedVersion = -1;
+    private MemoryVariable[] variables = new MemoryVariable[0];
+    private int[] variableIndex = new int[0];
+    private int[] changed = new int[0];
+
+    private int[] plantState = new int[0];
+
+    private boolean keyframePending = true;
+    private long lastKeyframeScan;
+
+    private TraceRecorder(FileChannel channel, MappedByteBuffer buffer, int dataStart, int capacity,
+            int keyframeInterval) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.dataStart = dataStart;
+        this.capacity = capacity;
+        this.keyframeInterval = keyframeInterval;
+        this.ioMap = IoMap.getCurrent();
+        this.inputIds = ioMap.getInputIds().toArray(new String[0]);
+        this.outputIds = ioMap.getOutputIds().toArray(new String[0]);
+        this.inputWords = new long[TraceFormat.words(inputIds.length)];
+        this.outputWords = new long[TraceFormat.words(outputIds.length)];
+        this.lastInputWords = new long[inputWords.length];
+        this.lastOutputWords = new long[outputWords.length];
+    }
+
+    // Abre o arquivo de trace; um anel existente e compatível é continuado, senão é recriado
+    public static TraceRecorder open(Path file, int capacity, int keyframeInterval) throws IOException {
+        if (capacity < 4096) {
+            throw new IllegalArgumentException("Tamanho do trace deve ser de pelo menos 4096 bytes!");
+        }
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Intervalo entre quadros completos deve ser positivo!");
+        }
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        byte[] ids = encodeIds(InputActions.getIds(), OutputActions.getIds());
+        int dataStart = (TraceFormat.IDS_OFFSET + 2 + ids.length + 7) & ~7;
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) dataStart + capacity);
+
+        TraceRecorder recorder = new TraceRecorder(channel, buffer, dataStart, capacity, keyframeInterval);
+        if (!recorder.resume(ids)) {
+            recorder.initialize(ids);
+        }
+        return recorder;
+    }
+
+    private static byte[] encodeIds(List<String> inputs, List<String> outputs) {
+        StringBuilder text = new StringBuilder();
+        for (String id : inputs) {
+            text.append(id).append(' ');
+        }
+        text.append('|');
+        for (String id : outputs) {
+            text.append(' ').append(id);
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private boolean resume(byte[] ids) {
+        if (buffer.getInt(TraceFormat.MAGIC_OFFSET) != TraceFormat.MAGIC
+                || buffer.getInt(TraceFormat.VERSION_OFFSET) != TraceFormat.VERSION
+                || buffer.getInt(TraceFormat.DATA_START_OFFSET) != dataStart
+                || buffer.getInt(TraceFormat.CAPACITY_OFFSET) != capacity) {
+            return false;
+        }
+        if (buffer.getShort(TraceFormat.IDS_OFFSET) != ids.length) {
+            return false;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (buffer.get(TraceFormat.IDS_OFFSET + 2 + i) != ids[i]) {
+                return false;
+            }
+        }
+
+        head = buffer.getInt(TraceFormat.HEAD_OFFSET);
+        tail = buffer.getInt(TraceFormat.TAIL_OFFSET);
+        count = buffer.getInt(TraceFormat.COUNT_OFFSET);
+        return head >= 0 && head < capacity && tail >= 0 && tail < capacity && count >= 0;
+    }
+
+    private void initialize(byte[] ids) {
+        buffer.putInt(TraceFormat.MAGIC_OFFSET, TraceFormat.MAGIC);
+        buffer.putInt(TraceFormat.VERSION_OFFSET, TraceFormat.VERSION);
+        buffer.putInt(TraceFormat.DATA_START_OFFSET, dataStart);
+        buffer.putInt(TraceFormat.CAPACITY_OFFSET, capacity);
+        buffer.putInt(TraceFormat.KEYFRAME_INTERVAL_OFFSET, keyframeInterval);
+        buffer.putShort(TraceFormat.IDS_OFFSET, (short) ids.length);
+        buffer.put(TraceFormat.IDS_OFFSET + 2, ids, 0, ids.length);
+        head = 0;
+        tail = 0;
+        count = 0;
+        writeHeader(0);
+    }
+
+    // Força um quadro completo na próxima varredura (início de execução, troca de programa)
+    public void requestKeyframe() {
+        keyframePending = true;
+    }
+
+    @Override
+    public void scanCompleted(ScanEngine engine) {
+        PlcContext context = engine.getContext();
+        long scan = engine.getScanCount();
+
+        if (context.getMemoryVariables() != cachedMap || context.getMemoryVersion() != cachedVersion) {
+            refreshVariables(context, scan);
+        }
+
+        TraceFormat.pack(context.getInputImage(), ioMap, inputIds, inputWords);
+        TraceFormat.pack(context.getOutputImage(), ioMap, outputIds, outputWords);
+
+        if (keyframePending || scan - lastKeyframeScan >= keyframeInterval) {
+            writeKeyframe(engine, scan);
+        } else {
+            writeDelta(scan, engine.getLastElapsedMs());
+        }
+        writeHeader(scan);
+    }
+
+    // Fora do caminho comum: só roda quando memórias são criadas ou removidas
+    private void refreshVariables(PlcContext context, long scan) {
+        Map<String, MemoryVariable> memory = context.getMemoryVariables();
+        variables = memory.values().toArray(new MemoryVariable[0]);
+        variableIndex = new int[variables.length];
+        changed = new int[variables.length];
+
+        for (int i = 0; i < variables.length; i++) {
+            Integer index = registry.get(variables[i].id);
+            if (index == null) {
+                index = define(variables[i].id);
+                if (!keyframePending) {
+                    writeDefine(scan, index);
+                }
+            }
+            variableIndex[i] = index;
+        }
+
+        cachedMap = memory;
+        cachedVersion = context.getMemoryVersion();
+    }
+
+    private int define(String id) {
+        int index = registry.size();
+        if (index == idBytes.length) {
+            int size = index * 2;
+            idBytes = Arrays.copyOf(idBytes, size);
+            lastState = Arrays.copyOf(lastState, size);
+            lastCounter = Arrays.copyOf(lastCounter, size);
+            lastPreset = Arrays.copyOf(lastPreset, size);
+        }
+        idBytes[index] = id.getBytes(StandardCharsets.US_ASCII);
+        idBytesTotal += idBytes[index].length;
+        // Estado inicial inválido garante que a memória nova apareça no próximo delta
+        lastState[index] = -1;
+        registry.put(id, index);
+        return index;
+    }
+
+    private void writeDefine(long scan, int index) {
+        int size = TraceFormat.RECORD_PREFIX + 2 + 1 + idBytes[index].length;
+        beginRecord(TraceFormat.DEFINE, size, scan);
+        buffer.putShort((short) index);
+        buffer.put((byte) idBytes[index].length);
+        buffer.put(idBytes[index]);
+    }
+
+    private void writeKeyframe(ScanEngine engine, long scan) {
+        int plantSize = engine.getPlant() == null ? 0 : engine.getPlant().getStateSize();
+        if (plantState.length != plantSize) {
+            plantState = new int[plantSize];
+        }
+        if (plantSize > 0) {
+            engine.getPlant().saveState(plantState);
+        }
+
+        int definitions = registry.size();
+        int size = TraceFormat.RECORD_PREFIX + 8 + 4
+                + 8 * (inputWords.length + outputWords.length)
+                + 2 + 4 * plantSize
+                + 4 + 2 + 4 * PlcContext.WORD_MEMORY_SIZE + 2 + 4 * PlcContext.ANALOG_INPUTS
+                + 2 + definitions * 3 + idBytesTotal
+                + 2 + variables.length * (2 + 1 + 4 + 4 + 4);
+        beginRecord(TraceFormat.KEYFRAME, size, scan);
+        buffer.putLong(engine.getTimeMs());
+        buffer.putInt(engine.getLastElapsedMs());
+        putWords(inputWords, lastInputWords);
+        putWords(outputWords, lastOutputWords);
+
+        buffer.putShort((short) plantSize);
+        for (int value : plantState) {
+            buffer.putInt(value);
+        }
+
+        PlcContext context = engine.getContext();
+        buffer.putInt(context.getWordAccumulator());
+        putInts(context.getWords());
+        putInts(context.getAnalogInputs());
+
+        buffer.putShort((short) definitions);
+        for (int index = 0; index < definitions; index++) {
+            buffer.putShort((short) index);
+            buffer.put((byte) idBytes[index].length);
+            buffer.put(idBytes[index]);
+        }
+
+        buffer.putShort((short) variables.length);
+        for (int i = 0; i < variables.length; i++) {
+            MemoryVariable variable = variables[i];
+            int index = variableIndex[i];
+            byte state = TraceFormat.encodeState(variable);
+            buffer.putShort((short) index);
+            buffer.put(state);
+            buffer.putInt(variable.counter);
+            buffer.putInt(variable.maxTimer);
+            buffer.putInt(variable.timerElapsedMs);
+            lastState[index] = state;
+            lastCounter[index] = variable.counter;
+            lastPreset[index] = variable.maxTimer;
+        }
+
+        keyframePending = false;
+        lastKeyframeScan = scan;
+    }
+
+    private void putInts(int[] values) {
+        buffer.putShort((short) values.length);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+    }
+
+    private void writeDelta(long scan, int elapsedMs) {
+        int mask = 0;
+        if (!Arrays.equals(inputWords, lastInputWords)) {
+            mask |= TraceFormat.INPUTS_CHANGED;
+        }
+        if (!Arrays.equals(outputWords, lastOutputWords)) {
+            mask |= TraceFormat.OUTPUTS_CHANGED;
+        }
+
+        int changes = 0;
+        for (int i = 0; i < variables.length; i++) {
+            MemoryVariable variable = variables[i];
+            int index = variableIndex[i];
+            if (TraceFormat.encodeState(variable) != lastState[index]
+                    || variable.counter != lastCounter[index]
+                    || variable.maxTimer != lastPreset[index]) {
+                changed[changes++] = i;
+            }
+        }
+
+        int size = TraceFormat.RECORD_PREFIX + 4 + 1 + 2 + changes * (2 + 1 + 4 + 4);
+        if ((mask & TraceFormat.INPUTS_CHANGED) != 0) {
+            size += 8 * inputWords.length;
+        }
+        if ((mask & TraceFormat.OUTPUTS_CHANGED) != 0) {
+            size += 8 * outputWords.length;
+        }
+
+        beginRecord(TraceFormat.DELTA, size, scan);
+        buffer.putInt(elapsedMs);
+        buffer.put((byte) mask);
+        if ((mask & TraceFormat.INPUTS_CHANGED) != 0) {
+            putWords(inputWords, lastInputWords);
+        }
+        if ((mask & TraceFormat.OUTPUTS_CHANGED) != 0) {
+            putWords(outputWords, lastOutputWords);
+        }
+
+        buffer.putShort((short) changes);
+        for (int c = 0; c < changes; c++) {
+            MemoryVariable variable = variables[changed[c]];
+            int index = variableIndex[changed[c]];
+            byte state = TraceFormat.encodeState(variable);
+            buffer.putShort((short) index);
+            buffer.put(state);
+            buffer.putInt(variable.counter);
+            buffer.putInt(variable.maxTimer);
+            lastState[index] = state;
+            lastCounter[index] = variable.counter;
+            lastPreset[index] = variable.maxTimer;
+        }
+    }
+
+    private void putWords(long[] words, long[] last) {
+        for (int w = 0; w < words.length; w++) {
+            buffer.putLong(words[w]);
+            last[w] = words[w];
+        }
+    }
+
+    // Reserva espaço no anel descartando os registros mais antigos e posiciona o buffer
+    private void beginRecord(byte type, int size, long scan) {
+        if (size >= capacity / 2) {
+            throw new IllegalStateException("Registro de trace maior que o anel: " + size + " bytes");
+        }
+
+        if (head + size >= capacity) {
+            // O fim do anel fica sem uso: marca o salto e volta ao início
+            while (count > 0 && tail >= head) {
+                dropOldest();
+            }
+            buffer.put(dataStart + head, TraceFormat.WRAP);
+            head = 0;
+        }
+        while (count > 0 && tail >= head && tail <= head + size) {
+            dropOldest();
+        }
+        if (count == 0) {
+            tail = head;
+        }
+
+        buffer.position(dataStart + head);
+        buffer.put(type);
+        buffer.putInt(size);
+        buffer.putLong(scan);
+        head += size;
+        count++;
+    }
+
+    private void dropOldest() {
+        tail += buffer.getInt(dataStart + tail + 1);
+        count--;
+        if (tail >= capacity || buffer.get(dataStart + tail) == TraceFormat.WRAP) {
+            tail = 0;
+        }
+    }
+
+    private void writeHeader(long scan) {
+        buffer.putInt(TraceFormat.HEAD_OFFSET, head);
+        buffer.putInt(TraceFormat.TAIL_OFFSET, tail);
+        buffer.putInt(TraceFormat.COUNT_OFFSET, count);
+        buffer.putLong(TraceFormat.LAST_SCAN_OFFSET, scan);
+    }
+
+    public int getRecordCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,151 @@
+package ilcompiler.trace;
+
+import Models.ExecutionMode;
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.TaskScheduler;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import plant.PlantModel;
+import plant.PlantModels;
+
+// Reexecuta um trace gravado sob tempo virtual: as entradas gravadas alimentam o programa
+// (e o modelo de processo, que gera os próprios sensores) e as saídas de cada varredura são
+// conferidas bit a bit. O estado inicial vem do quadro completo mais próximo antes da varredura pedida.
+public class TraceReplayer {
+
+    private final CompiledProgram program;
+    private final String plantName;
+    private TaskScheduler scheduler;
+    private List<String> plantAddresses = List.of();
+
+    public TraceReplayer(CompiledProgram program, String plantName) {
+        this.program = program;
+        this.plantName = plantName;
+    }
+
+    // Motor usado no último replay, com o estado da última varredura reexecutada
+    public ScanEngine getEngine() {
+        return scheduler == null ? null : scheduler.getEngine();
+    }
+
+    public ReplayReport replay(TraceReader reader, long fromScan, long toScan) {
+        ReplayReport report = new ReplayReport();
+        scheduler = null;
+        long start = System.nanoTime();
+
+        reader.forEachFrom(fromScan, frame -> {
+            if (scheduler == null) {
+                restore(frame);
+                report.setCheckpointScan(frame.getScan());
+                return frame.getScan() < toScan;
+            }
+
+            // Quadro completo fora da sequência de tempo: o CLP foi reiniciado, talvez com outro programa
+            if (frame.isKeyframe() && frame.getTimeMs() != scheduler.getNowMs() + frame.getElapsedMs()) {
+                report.setSessionBreakScan(frame.getScan());
+                return false;
+            }
+
+            applyInputs(frame);
+            scheduler.tick(frame.getElapsedMs());
+            report.countScan(frame.getScan());
+
+            PlcContext context = scheduler.getEngine().getContext();
+            if (context.getMode() != ExecutionMode.RUNNING) {
+                report.setError(context.getLastError());
+                return false;
+            }
+
+            compare(frame, report);
+            return frame.getScan() < toScan;
+        });
+
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private void restore(TraceFrame frame) {
+        ScanEngine engine = new ScanEngine(new PlcContext());
+        plantAddresses = List.of();
+
+        if (plantName != null) {
+            PlantModel plant = PlantModels.create(plantName);
+            if (frame.getPlantState().length != plant.getStateSize()) {
+                throw new IllegalArgumentException("Trace não tem o estado do modelo " + plantName + "!");
+            }
+            plant.restoreState(frame.getPlantState());
+            engine.setPlant(plant);
+            plantAddresses = plant.getWriteAddresses();
+        }
+
+        PlcContext context = engine.getContext();
+        context.getInputs().putAll(frame.getInputs());
+        context.getOutputs().putAll(frame.getOutputs());
+        context.latchImages();
+        System.arraycopy(frame.getWords(), 0, context.getWords(), 0,
+                Math.min(frame.getWords().length, context.getWords().length));
+        // Com modelo de processo as entradas analógicas são regeradas por ele a cada varredura
+        if (plantName == null) {
+            System.arraycopy(frame.getAnalogInputs(), 0, context.getAnalogInputs(), 0,
+                    Math.min(frame.getAnalogInputs().length, context.getAnalogInputs().length));
+        }
+
+        scheduler = new TaskScheduler(engine);
+        scheduler.load(program);
+        context.setMemoryVariables(new HashMap<>(frame.getVariables()));
+        scheduler.restore(frame.getTimeMs());
+        context.setWordAccumulator(frame.getWordAccumulator());
+        context.setMode(ExecutionMode.RUNNING);
+    }
+
+    // Sensores do modelo de processo não são impostos: o modelo os recalcula e eles são conferidos
+    private void applyInputs(TraceFrame frame) {
+        Map<String, Boolean> inputs = scheduler.getEngine().getContext().getInputs();
+        for (Map.Entry<String, Boolean> input : frame.getInputs().entrySet()) {
+            if (!plantAddresses.contains(input.getKey())) {
+                inputs.put(input.getKey(), input.getValue());
+            }
+        }
+    }
+
+    private void compare(TraceFrame frame, ReplayReport report) {
+        PlcContext context = scheduler.getEngine().getContext();
+
+        for (Map.Entry<String, Boolean> output : frame.getOutputs().entrySet()) {
+            Boolean actual = context.getOutputs().get(output.getKey());
+            if (!output.getValue().equals(actual)) {
+                report.addMismatch(frame.getScan(), output.getKey(), bit(output.getValue()), bit(actual));
+            }
+        }
+
+        for (String address : plantAddresses) {
+            Boolean expected = frame.getInputs().get(address);
+            Boolean actual = context.getInputs().get(address);
+            if (expected != null && !expected.equals(actual)) {
+                report.addMismatch(frame.getScan(), address, bit(expected), bit(actual));
+            }
+        }
+
+        for (MemoryVariable expected : frame.getVariables().values()) {
+            MemoryVariable actual = context.getMemoryVariables().get(expected.id);
+            if (actual == null) {
+                report.addMismatch(frame.getScan(), expected.id, describe(expected), "inexistente");
+            } else if (TraceFormat.encodeState(expected) != TraceFormat.encodeState(actual)
+                    || expected.counter != actual.counter || expected.maxTimer != actual.maxTimer) {
+                report.addMismatch(frame.getScan(), expected.id, describe(expected), describe(actual));
+            }
+        }
+    }
+
+    private static int bit(Boolean value) {
+        return Boolean.TRUE.equals(value) ? 1 : 0;
+    }
+
+    private static String describe(MemoryVariable variable) {
+        return bit(variable.currentValue) + "/" + variable.counter;
+    }
+}
@@ -0,0 +1,293 @@
+package ilcompiler.trace;
+
+import ilcompiler.input.InputActions;
+import ilcompiler.memoryvariable.MemoryVariable;
+import ilcompiler.output.OutputActions;
+import ilcompiler.runtime.PlcContext;
+import ilcompiler.runtime.ScanEngine;
+import ilcompiler.runtime.ScanListener;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Exporta a evolução das entradas, saídas, memórias M e acumuladores de T/C como Value Change Dump.
+// Só as mudanças são escritas, por um buffer único despejado no canal quando enche: o histórico
+// não fica na memória. Os sinais são declarados na primeira varredura, com as memórias existentes.
+public class VcdWriter implements ScanListener, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Maior linha possível: "b" + 32 bits + espaço + identificador + quebra de linha
+    private static final int MAX_LINE = 64;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    private boolean declared;
+    private long timeMs;
+
+    private String[] inputIds;
+    private String[] outputIds;
+    private String[] memoryIds;
+    private boolean[] memoryIsCounter;
+    private byte[][] codes;
+    private boolean[] lastBits;
+    private int[] lastValues;
+
+    private Map<String, MemoryVariable> cachedMap;
+    private int cachedVersion = -1;
+    private MemoryVariable[] memoryRefs;
+
+    private VcdWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static VcdWriter open(Path file) throws IOException {
+        return new VcdWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    @Override
+    public void scanCompleted(ScanEngine engine) {
+        PlcContext context = engine.getContext();
+        try {
+            if (!declared) {
+                declare(context);
+                refreshMemory(context);
+                dumpAll(context);
+                return;
+            }
+
+            timeMs += engine.getLastElapsedMs();
+            if (context.getMemoryVariables() != cachedMap || context.getMemoryVersion() != cachedVersion) {
+                refreshMemory(context);
+            }
+            dumpChanges(context);
+        } catch (IOException ex) {
+            context.reportError("Falha ao gravar o arquivo VCD: " + ex.getMessage());
+        }
+    }
+
+    private void declare(PlcContext context) throws IOException {
+        inputIds = InputActions.getIds().toArray(new String[0]);
+        outputIds = OutputActions.getIds().toArray(new String[0]);
+
+        List<String> memory = new ArrayList<>();
+        for (String id : new TreeSet<>(context.getMemoryVariables().keySet())) {
+            char type = id.charAt(0);
+            if (type == 'M' || type == 'T' || type == 'C') {
+                memory.add(id);
+            }
+        }
+        memoryIds = memory.toArray(new String[0]);
+        memoryIsCounter = new boolean[memoryIds.length];
+
+        int signals = inputIds.length + outputIds.length + memoryIds.length;
+        codes = new byte[signals][];
+        for (int i = 0; i < signals; i++) {
+            codes[i] = code(i);
+        }
+        lastBits = new boolean[signals];
+        lastValues = new int[signals];
+
+        StringBuilder header = new StringBuilder();
+        header.append("$version Simulador CLP $end\n");
+        header.append("$timescale 1 ms $end\n");
+        header.append("$scope module clp $end\n");
+
+        int signal = 0;
+        header.append("$scope module entradas $end\n");
+        for (String id : inputIds) {
+            appendVar(header, "wire 1", signal++, id);
+        }
+        header.append("$upscope $end\n");
+
+        header.append("$scope module saidas $end\n");
+        for (String id : outputIds) {
+            appendVar(header, "wire 1", signal++, id);
+        }
+        header.append("$upscope $end\n");
+
+        header.append("$scope module memorias $end\n");
+        for (int m = 0; m < memoryIds.length; m++) {
+            memoryIsCounter[m] = memoryIds[m].charAt(0) != 'M';
+            appendVar(header, memoryIsCounter[m] ? "integer 32" : "wire 1", signal++, memoryIds[m]);
+        }
+        header.append("$upscope $end\n");
+
+        header.append("$upscope $end\n");
+        header.append("$enddefinitions $end\n");
+
+        byte[] bytes = header.toString().getBytes(StandardCharsets.US_ASCII);
+        for (int offset = 0; offset < bytes.length; offset += BUFFER_SIZE / 2) {
+            ensure(BUFFER_SIZE / 2);
+            buffer.put(bytes, offset, Math.min(BUFFER_SIZE / 2, bytes.length - offset));
+        }
+        declared = true;
+    }
+
+    // O ponto separa hierarquia nos visualizadores, então "I0.0" vira "I0_0"
+    private void appendVar(StringBuilder header, String type, int signal, String id) {
+        header.append("$var ").append(type).append(' ')
+                .append(new String(codes[signal], StandardCharsets.US_ASCII)).append(' ')
+                .append(id.replace('.', '_')).append(" $end\n");
+    }
+
+    // Identificadores curtos em base 94 com os caracteres imprimíveis de '!' a '~'
+    private static byte[] code(int index) {
+        StringBuilder code = new StringBuilder();
+        do {
+            code.append((char) ('!' + index % 94));
+            index = index / 94 - 1;
+        } while (index >= 0);
+        return code.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void refreshMemory(PlcContext context) {
+        memoryRefs = new MemoryVariable[memoryIds.length];
+        for (int m = 0; m < memoryIds.length; m++) {
+            memoryRefs[m] = context.getMemoryVariables().get(memoryIds[m]);
+        }
+        cachedMap = context.getMemoryVariables();
+        cachedVersion = context.getMemoryVersion();
+    }
+
+    private void dumpAll(PlcContext context) throws IOException {
+        writeTime();
+        putAscii("$dumpvars\n");
+
+        int signal = 0;
+        for (String id : inputIds) {
+            writeBit(signal++, Boolean.TRUE.equals(context.getInputs().get(id)));
+        }
+        for (String id : outputIds) {
+            writeBit(signal++, Boolean.TRUE.equals(context.getOutputs().get(id)));
+        }
+        for (int m = 0; m < memoryIds.length; m++, signal++) {
+            MemoryVariable variable = memoryRefs[m];
+            if (memoryIsCounter[m]) {
+                writeValue(signal, variable == null ? 0 : variable.counter);
+            } else {
+                writeBit(signal, variable != null && Boolean.TRUE.equals(variable.currentValue));
+            }
+        }
+
+        putAscii("$end\n");
+    }
+
+    private void dumpChanges(PlcContext context) throws IOException {
+        boolean timeWritten = false;
+
+        int signal = 0;
+        for (String id : inputIds) {
+            boolean value = Boolean.TRUE.equals(context.getInputs().get(id));
+            if (value != lastBits[signal]) {
+                timeWritten = timeWritten || writeTime();
+                writeBit(signal, value);
+            }
+            signal++;
+        }
+        for (String id : outputIds) {
+            boolean value = Boolean.TRUE.equals(context.getOutputs().get(id));
+            if (value != lastBits[signal]) {
+                timeWritten = timeWritten || writeTime();
+                writeBit(signal, value);
+            }
+            signal++;
+        }
+        for (int m = 0; m < memoryIds.length; m++, signal++) {
+            MemoryVariable variable = memoryRefs[m];
+            if (variable == null) {
+                continue;
+            }
+            if (memoryIsCounter[m]) {
+                if (variable.counter != lastValues[signal]) {
+                    timeWritten = timeWritten || writeTime();
+                    writeValue(signal, variable.counter);
+                }
+            } else {
+                boolean value = Boolean.TRUE.equals(variable.currentValue);
+                if (value != lastBits[signal]) {
+                    timeWritten = timeWritten || writeTime();
+                    writeBit(signal, value);
+                }
+            }
+        }
+    }
+
+    private boolean writeTime() throws IOException {
+        ensure(MAX_LINE);
+        buffer.put((byte) '#');
+        putDecimal(timeMs);
+        buffer.put((byte) '\n');
+        return true;
+    }
+
+    private void writeBit(int signal, boolean value) throws IOException {
+        ensure(MAX_LINE);
+        buffer.put((byte) (value ? '1' : '0'));
+        buffer.put(codes[signal]);
+        buffer.put((byte) '\n');
+        lastBits[signal] = value;
+    }
+
+    // Vetor binário sem zeros à esquerda; negativos saem em complemento de dois com 32 bits
+    private void writeValue(int signal, int value) throws IOException {
+        ensure(MAX_LINE);
+        buffer.put((byte) 'b');
+        int bits = value == 0 ? 1 : 32 - Integer.numberOfLeadingZeros(value);
+        for (int bit = bits - 1; bit >= 0; bit--) {
+            buffer.put((byte) (((value >>> bit) & 1) == 0 ? '0' : '1'));
+        }
+        buffer.put((byte) ' ');
+        buffer.put(codes[signal]);
+        buffer.put((byte) '\n');
+        lastValues[signal] = value;
+    }
+
+    private void putDecimal(long value) {
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    private void putAscii(String text) throws IOException {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
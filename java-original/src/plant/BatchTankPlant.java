@@ -0,0 +1,137 @@
+package plant;
+
+import java.util.List;
+import java.util.Map;
+
+// Modelo do processo batch: tanque enchido pela pump1 e esvaziado pela pump3
+@PlantName(BatchTankPlant.NAME)
+public class BatchTankPlant implements PlantModel {
+
+    public static final String NAME = "BATCH";
+
+    public static final String PUMP1 = "Q0.1";
+    public static final String PUMP3 = "Q0.3";
+    public static final String HI_LEVEL = "I1.0";
+    public static final String LO_LEVEL = "I1.1";
+    // Nível do tanque, de 0 a MAX_LEVEL, na entrada analógica IW0
+    public static final int LEVEL_INPUT = 0;
+
+    public static final int MAX_LEVEL = 220;
+    public static final int LOW_LEVEL = 3;
+
+    // Cada bomba move 2 unidades de nível a cada 50 ms
+    public static final int STEP_MS = 50;
+    private static final int LEVEL_PER_STEP = 2;
+
+    // Bomba ligada sem poder operar por mais que isso é uma falha
+    public static final int HAZARD_MS = 1500;
+    public static final String OVERFLOW_HAZARD = "A bomba de enchimento, pump1 (Q0.1), permaneceu ligada mesmo após "
+            + "o tanque atingir sua capacidade máxima, resultando em um transbordamento que inundou a fábrica.";
+    public static final String DRY_RUN_HAZARD = "Não havia líquido para o esvaziamento. A bomba, pump3 (Q0.3), explodiu.";
+
+    private int level;
+    private int pendingMs;
+    private int overflowMs;
+    private int dryRunMs;
+    private String hazard;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<String> getReadAddresses() {
+        return List.of(PUMP1, PUMP3);
+    }
+
+    @Override
+    public List<String> getWriteAddresses() {
+        return List.of(HI_LEVEL, LO_LEVEL);
+    }
+
+    @Override
+    public void reset() {
+        level = 0;
+        pendingMs = 0;
+        overflowMs = 0;
+        dryRunMs = 0;
+        hazard = null;
+    }
+
+    @Override
+    public void step(Map<String, Boolean> inputs, Map<String, Boolean> outputs, int elapsedMs) {
+        pendingMs += elapsedMs;
+        int steps = pendingMs / STEP_MS;
+        pendingMs %= STEP_MS;
+
+        boolean pump1 = outputs.getOrDefault(PUMP1, false);
+        boolean pump3 = outputs.getOrDefault(PUMP3, false);
+
+        int delta = 0;
+        if (pump1) {
+            delta += LEVEL_PER_STEP;
+        }
+        if (pump3) {
+            delta -= LEVEL_PER_STEP;
+        }
+
+        level = Math.max(0, Math.min(MAX_LEVEL, level + delta * steps));
+
+        overflowMs = pump1 && isAtHighLevel() ? overflowMs + elapsedMs : 0;
+        dryRunMs = pump3 && !isAtLowLevel() ? dryRunMs + elapsedMs : 0;
+        if (hazard == null && overflowMs > HAZARD_MS) {
+            hazard = OVERFLOW_HAZARD;
+        } else if (hazard == null && dryRunMs > HAZARD_MS) {
+            hazard = DRY_RUN_HAZARD;
+        }
+
+        inputs.put(HI_LEVEL, isAtHighLevel());
+        inputs.put(LO_LEVEL, isAtLowLevel());
+    }
+
+    @Override
+    public void writeAnalogInputs(int[] analogInputs) {
+        analogInputs[LEVEL_INPUT] = level;
+    }
+
+    @Override
+    public String getHazard() {
+        return hazard;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 5;
+    }
+
+    @Override
+    public void saveState(int[] state) {
+        state[0] = level;
+        state[1] = pendingMs;
+        state[2] = overflowMs;
+        state[3] = dryRunMs;
+        state[4] = hazard == null ? 0 : hazard.equals(OVERFLOW_HAZARD) ? 1 : 2;
+    }
+
+    @Override
+    public void restoreState(int[] state) {
+        level = state[0];
+        pendingMs = state[1];
+        overflowMs = state[2];
+        dryRunMs = state[3];
+        hazard = state[4] == 0 ? null : state[4] == 1 ? OVERFLOW_HAZARD : DRY_RUN_HAZARD;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isAtHighLevel() {
+        return level >= MAX_LEVEL;
+    }
+
+    public boolean isAtLowLevel() {
+        return level >= LOW_LEVEL;
+    }
+}
@@ -0,0 +1,46 @@
+package plant;
+
+import java.util.List;
+import java.util.Map;
+
+// Interface (SPI) dos modelos de processo simulados.
+// Implementações não podem depender de Swing: o passo de simulação é separado do desenho
+// para que os modelos possam rodar sem interface gráfica.
+public interface PlantModel {
+
+    // Nome usado para localizar o modelo (ex.: "BATCH"), o mesmo da anotação @PlantName da classe
+    String getName();
+
+    // Saídas do CLP (Q) lidas pelo modelo
+    List<String> getReadAddresses();
+
+    // Entradas do CLP (I) escritas pelo modelo (sensores)
+    List<String> getWriteAddresses();
+
+    // Volta o modelo ao estado inicial
+    void reset();
+
+    // Avança o modelo em elapsedMs, lendo as saídas e escrevendo nos sensores
+    void step(Map<String, Boolean> inputs, Map<String, Boolean> outputs, int elapsedMs);
+
+    // Entradas analógicas (IW) escritas pelo modelo depois de cada passo, ex.: nível do tanque
+    default void writeAnalogInputs(int[] analogInputs) {
+    }
+
+    // Situação perigosa ocorrida desde o último reset (ex.: transbordamento), ou null.
+    // Medida no tempo do próprio modelo, para valer igual com ou sem interface gráfica.
+    default String getHazard() {
+        return null;
+    }
+
+    // Estado interno em inteiros, gravado nos quadros completos do trace para permitir replay
+    default int getStateSize() {
+        return 0;
+    }
+
+    default void saveState(int[] state) {
+    }
+
+    default void restoreState(int[] state) {
+    }
+}
@@ -0,0 +1,44 @@
+package plant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+// Descobre os modelos de processo registrados em META-INF/services/plant.PlantModel.
+// O nome de cada modelo vem da anotação @PlantName: só create instancia o modelo.
+public class PlantModels {
+
+    private static Map<String, ServiceLoader.Provider<PlantModel>> providers;
+
+    private static synchronized Map<String, ServiceLoader.Provider<PlantModel>> getProviders() {
+        if (providers == null) {
+            providers = new LinkedHashMap<>();
+            ServiceLoader.load(PlantModel.class).stream()
+                    .forEach(provider -> providers.put(nameOf(provider.type()), provider));
+        }
+        return providers;
+    }
+
+    private static String nameOf(Class<? extends PlantModel> type) {
+        PlantName name = type.getAnnotation(PlantName.class);
+        if (name == null) {
+            throw new IllegalArgumentException("Modelo de processo sem @PlantName: " + type.getName() + "!");
+        }
+        return name.value();
+    }
+
+    public static List<String> getNames() {
+        return new ArrayList<>(getProviders().keySet());
+    }
+
+    // Cria uma nova instância do modelo; cada chamada devolve um objeto independente
+    public static PlantModel create(String name) {
+        ServiceLoader.Provider<PlantModel> provider = getProviders().get(name);
+        if (provider == null) {
+            throw new IllegalArgumentException("Modelo de processo não encontrado: " + name);
+        }
+        return provider.get();
+    }
+}
@@ -0,0 +1,14 @@
+package plant;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Nome do modelo de processo, lido da classe pelo PlantModels sem criar uma instância
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PlantName {
+
+    String value();
+}
@@ -5,42 +5,161 @@
 package save;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
 
+// Leitura e gravação dos programas em UTF-8, por partes, sem passar pelo editor linha a linha.
+// Arquivos que não são UTF-8 válido foram gravados pelas versões anteriores no charset da
+// plataforma (FileWriter) e são lidos nele; o que ainda não decodificar vira '\uFFFD'.
 public class Save {
 
+    // Partes lidas e gravadas de uma vez
+    private static final int CHUNK_CHARS = 1 << 16;
+    // Cada inserção num PlainDocument copia a lista de linhas: o documento recebe partes grandes
+    private static final int DOCUMENT_CHUNK_CHARS = 1 << 22;
+
     public static void save(String name, List<String> memory) throws IOException {
-        FileWriter arq = new FileWriter(name + ".txt");
-        PrintWriter gravarArq = new PrintWriter(arq);
+        try (Writer writer = open(name)) {
+            for (String line : memory) {
+                writer.write(line);
+            }
+        }
+    }
 
-        for (int i = 0; i < memory.size(); i++) {
-            gravarArq.printf(memory.get(i));
+    // Grava o texto do documento por partes, sem montar uma String com tudo
+    public static void save(String name, Document document) throws IOException {
+        try (Writer writer = open(name)) {
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            int offset = 0;
+            while (offset < document.getLength()) {
+                document.getText(offset, Math.min(CHUNK_CHARS, document.getLength() - offset), segment);
+                writer.write(segment.array, segment.offset, segment.count);
+                offset += segment.count;
+            }
+        } catch (BadLocationException ex) {
+            throw new IOException(ex);
         }
+    }
 
-        arq.close();
-        // System.out.println("arquivo salvo");
+    private static Writer open(String name) throws IOException {
+        Path file = Path.of(name.endsWith(".txt") ? name : name + ".txt");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), CHUNK_CHARS);
     }
 
     public static List<String> load(String name) throws IOException {
-        BufferedReader buffRead = new BufferedReader(new FileReader(name));
         List<String> texto = new ArrayList<>();
-        String linha = "";
-        while (true) {
-            if (linha != null) {
-                if (linha != "")
-                    texto.add(linha);
-            } else
-                break;
-            linha = buffRead.readLine();
+        forEachLine(name, texto::add);
+        return texto;
+    }
+
+    // Lê o arquivo linha a linha, sem guardar o texto
+    public static void forEachLine(String name, Consumer<String> action) throws IOException {
+        try (BufferedReader reader = open(Path.of(name))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                action.accept(line);
+            }
         }
-        buffRead.close();
+    }
 
-        return texto;
+    // Lê o arquivo no documento vazio, em poucas inserções grandes e com as quebras de linha
+    // convertidas para '\n'. Chame fora da EDT com um documento ainda não exibido.
+    public static void loadDocument(String name, Document document) throws IOException {
+        try (Reader reader = open(Path.of(name))) {
+            char[] buffer = new char[CHUNK_CHARS];
+            StringBuilder chunk = new StringBuilder();
+            boolean carriageReturn = false;
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    char character = buffer[i];
+                    if (character == '\r') {
+                        chunk.append('\n');
+                    } else if (character != '\n' || !carriageReturn) {
+                        chunk.append(character);
+                    }
+                    carriageReturn = character == '\r';
+                }
+                if (chunk.length() >= DOCUMENT_CHUNK_CHARS) {
+                    document.insertString(document.getLength(), chunk.toString(), null);
+                    chunk.setLength(0);
+                }
+            }
+            document.insertString(document.getLength(), chunk.toString(), null);
+        } catch (BadLocationException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private static BufferedReader open(Path file) throws IOException {
+        CharsetDecoder decoder = charsetOf(file).newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), decoder), CHUNK_CHARS);
+    }
+
+    // UTF-8 se o arquivo inteiro decodifica sem erro; senão o charset da plataforma
+    private static Charset charsetOf(Path file) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        ByteBuffer bytes = ByteBuffer.allocate(CHUNK_CHARS);
+        // UTF-8 nunca dá mais caracteres que bytes: o buffer de saída não transborda
+        CharBuffer chars = CharBuffer.allocate(CHUNK_CHARS);
+        try (ReadableByteChannel channel = Files.newByteChannel(file)) {
+            while (channel.read(bytes) >= 0) {
+                bytes.flip();
+                if (decoder.decode(bytes, chars, false).isError()) {
+                    return Charset.defaultCharset();
+                }
+                chars.clear();
+                bytes.compact();
+            }
+        }
+        bytes.flip();
+        if (decoder.decode(bytes, chars, true).isError() || decoder.flush(chars).isError()) {
+            return Charset.defaultCharset();
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    // Linhas do documento como o editor as entrega: cada uma com o seu '\n', menos a última
+    public static List<String> lines(Document document) {
+        Element root = document.getDefaultRootElement();
+        List<String> lines = new ArrayList<>(root.getElementCount());
+        try {
+            for (int i = 0; i < root.getElementCount(); i++) {
+                Element line = root.getElement(i);
+                int end = Math.min(line.getEndOffset(), document.getLength());
+                lines.add(document.getText(line.getStartOffset(), end - line.getStartOffset()));
+            }
+        } catch (BadLocationException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return lines;
     }
 
 }
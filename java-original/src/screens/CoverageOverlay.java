@@ -0,0 +1,62 @@
+package screens;
+
+import ilcompiler.compiler.CompiledProgram;
+import ilcompiler.compiler.CompiledTask;
+import ilcompiler.compiler.Instruction;
+import ilcompiler.coverage.Coverage;
+import java.awt.Color;
+
+// Cobertura na margem do editor: vermelho nunca executou, amarelo condição que só viu um valor
+// do acumulador (ou ST que nunca mudou o alvo), verde coberta
+public class CoverageOverlay implements EditorGutter.LineOverlay {
+
+    private static final Color NOT_EXECUTED = new Color(230, 60, 60);
+    private static final Color PARTIAL = new Color(240, 200, 40);
+    private static final Color COVERED = new Color(60, 200, 90);
+
+    private final Coverage coverage;
+    private final Instruction[] instructions;
+
+    public CoverageOverlay(Coverage coverage, CompiledProgram program) {
+        this.coverage = coverage;
+        this.instructions = new Instruction[Coverage.lineCount(program)];
+        for (CompiledTask task : program.getTasks()) {
+            for (Instruction instruction : task.getCode()) {
+                instructions[instruction.getLine()] = instruction;
+            }
+        }
+    }
+
+    @Override
+    public Color colorOf(int line) {
+        Instruction instruction = line < instructions.length ? instructions[line] : null;
+        if (instruction == null) {
+            return null;
+        }
+        if (coverage.getExecutions(line) == 0) {
+            return NOT_EXECUTED;
+        }
+        if (Coverage.isCondition(instruction)) {
+            return coverage.getAccumulatorTrue(line) > 0 && coverage.getAccumulatorFalse(line) > 0
+                    ? COVERED : PARTIAL;
+        }
+        if (instruction.getWordOperand() != Instruction.WordOperand.NONE) {
+            return COVERED;
+        }
+        switch (instruction.getOperator()) {
+            case "ST", "STN":
+                return coverage.getChanges(line) > 0 ? COVERED : PARTIAL;
+            default:
+                return COVERED;
+        }
+    }
+
+    @Override
+    public String describe(int line) {
+        if (line >= instructions.length || instructions[line] == null) {
+            return null;
+        }
+        return coverage.getExecutions(line) + " execuções, acumulador verdadeiro " + coverage.getAccumulatorTrue(line)
+                + " / falso " + coverage.getAccumulatorFalse(line) + ", alterações " + coverage.getChanges(line);
+    }
+}
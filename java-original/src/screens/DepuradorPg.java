@@ -0,0 +1,183 @@
+package screens;
+
+import Controllers.HomePageController;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.IOException;
+import java.util.function.Supplier;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
+
+// Tela do depurador: volta no tempo pelo histórico de varreduras e execução passo a passo.
+// Só opera com o CLP parado. Também define os endereços observados (watchpoints) e liga a
+// cobertura e o perfil exibidos na margem do editor.
+public class DepuradorPg extends JFrame {
+
+    private final HomePageController controller;
+    private final JSpinner scanSpinner = new JSpinner(new SpinnerNumberModel(0L, 0L, Long.MAX_VALUE, 1L));
+    private final JLabel statusLabel = new JLabel();
+    private final JTextField watchField = new JTextField(16);
+    private final JCheckBox coverageBox = new JCheckBox("Cobertura");
+    private final JCheckBox profileBox = new JCheckBox("Perfil, 1 amostra a cada");
+    private final JSpinner sampleSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 1000, 1));
+
+    public DepuradorPg(HomePageController controller) {
+        this.controller = controller;
+
+        setTitle("Depurador");
+        setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        setResizable(false);
+
+        JButton jumpBt = new JButton("Ir para varredura");
+        jumpBt.addActionListener(e -> run(() -> controller.debugJumpTo((Long) scanSpinner.getValue())));
+
+        JButton backBt = new JButton("◀ Voltar varredura");
+        backBt.addActionListener(e -> run(controller::debugStepBack));
+
+        JButton instructionBt = new JButton("Instrução ▶");
+        instructionBt.addActionListener(e -> run(controller::debugStepInstruction));
+
+        JButton scanBt = new JButton("Varredura ▶");
+        scanBt.addActionListener(e -> run(controller::debugStepScan));
+
+        JButton watchBt = new JButton("Observar");
+        watchBt.addActionListener(e -> {
+            try {
+                controller.setWatches(watchField.getText());
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage());
+            }
+        });
+
+        coverageBox.addActionListener(e -> {
+            controller.setCoverageEnabled(coverageBox.isSelected());
+            showStatus(controller.getCoverageSummary());
+        });
+
+        JButton saveCoverageBt = new JButton("Salvar relatório");
+        saveCoverageBt.addActionListener(e -> coverageFile(true));
+
+        JButton openCoverageBt = new JButton("Abrir relatório");
+        openCoverageBt.addActionListener(e -> coverageFile(false));
+
+        profileBox.addActionListener(e -> {
+            if (profileBox.isSelected()) {
+                controller.startProfiling((Integer) sampleSpinner.getValue());
+            } else {
+                controller.stopProfiling();
+            }
+        });
+
+        JButton foldedBt = new JButton("Exportar folded");
+        foldedBt.addActionListener(e -> exportFolded());
+
+        JPanel jumpPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        jumpPanel.add(new JLabel("Varredura:"));
+        jumpPanel.add(scanSpinner);
+        jumpPanel.add(jumpBt);
+
+        JPanel stepPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        stepPanel.add(backBt);
+        stepPanel.add(instructionBt);
+        stepPanel.add(scanBt);
+
+        JPanel watchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        watchPanel.add(new JLabel("Parar ao escrever em:"));
+        watchPanel.add(watchField);
+        watchPanel.add(watchBt);
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 8, 8));
+
+        JPanel coveragePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        coveragePanel.add(coverageBox);
+        coveragePanel.add(saveCoverageBt);
+        coveragePanel.add(openCoverageBt);
+
+        JPanel profilePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        profilePanel.add(profileBox);
+        profilePanel.add(sampleSpinner);
+        profilePanel.add(new JLabel("instruções"));
+        profilePanel.add(foldedBt);
+
+        JPanel toolsPanel = new JPanel(new BorderLayout());
+        toolsPanel.add(coveragePanel, BorderLayout.NORTH);
+        toolsPanel.add(profilePanel, BorderLayout.SOUTH);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(watchPanel, BorderLayout.NORTH);
+        bottomPanel.add(toolsPanel, BorderLayout.CENTER);
+        bottomPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        getContentPane().setLayout(new BorderLayout());
+        getContentPane().add(jumpPanel, BorderLayout.NORTH);
+        getContentPane().add(stepPanel, BorderLayout.CENTER);
+        getContentPane().add(bottomPanel, BorderLayout.SOUTH);
+        pack();
+        setLocation(1100, 420);
+    }
+
+    public void refresh() {
+        statusLabel.setText(controller.getDebugStatus());
+        scanSpinner.setValue(controller.getCurrentScan());
+        pack();
+    }
+
+    // Mensagem de parada em breakpoint; o start continua a execução
+    public void showStatus(String status) {
+        statusLabel.setText(status);
+        scanSpinner.setValue(controller.getCurrentScan());
+        pack();
+    }
+
+    // Relatório de cobertura em CSV; ao abrir, é somado à cobertura em andamento
+    private void coverageFile(boolean save) {
+        JFileChooser chooser = new JFileChooser();
+        int option = save ? chooser.showSaveDialog(this) : chooser.showOpenDialog(this);
+        if (option != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            if (save) {
+                controller.saveCoverageReport(chooser.getSelectedFile().toPath());
+            } else {
+                controller.loadCoverageReport(chooser.getSelectedFile().toPath());
+            }
+            showStatus(controller.getCoverageSummary());
+        } catch (IOException | IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage());
+        }
+    }
+
+    // Perfil em pilhas "folded" para flamegraph.pl ou speedscope
+    private void exportFolded() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            controller.exportFoldedStacks(chooser.getSelectedFile().toPath());
+            showStatus(controller.getProfileSummary());
+        } catch (IOException | IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage());
+        }
+    }
+
+    private void run(Supplier<String> action) {
+        try {
+            statusLabel.setText(action.get());
+            scanSpinner.setValue(controller.getCurrentScan());
+            pack();
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage());
+        }
+    }
+}
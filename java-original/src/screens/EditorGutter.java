@@ -0,0 +1,236 @@
+package screens;
+
+import ilcompiler.debug.BreakCondition;
+import ilcompiler.debug.Breakpoints;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import javax.swing.JComponent;
+import javax.swing.JOptionPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+// Margem do editor com os números das linhas, os breakpoints e uma faixa de marcação por linha
+// (cobertura, perfil). Clique liga/desliga o breakpoint da linha; clique direito edita a condição.
+public class EditorGutter extends JComponent {
+
+    // Marcação opcional das linhas: cor da faixa (null sem faixa) e dica ao passar o mouse
+    public interface LineOverlay {
+
+        Color colorOf(int line);
+
+        String describe(int line);
+    }
+
+    private static final int WIDTH = 48;
+    private static final int DOT_SIZE = 10;
+    private static final int OVERLAY_X = 16;
+    private static final int OVERLAY_WIDTH = 5;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 60);
+    private static final Color NUMBER_COLOR = new Color(220, 220, 220);
+    private static final Color BREAKPOINT_COLOR = new Color(220, 40, 40);
+    private static final Color CONDITIONAL_COLOR = new Color(255, 150, 0);
+
+    private final JTextArea editor;
+    private final Breakpoints breakpoints;
+    private LineOverlay overlay;
+
+    public EditorGutter(JTextArea editor, Breakpoints breakpoints) {
+        this.editor = editor;
+        this.breakpoints = breakpoints;
+        setOpaque(false);
+        setFont(editor.getFont().deriveFont(11f));
+        setToolTipText("");
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int line = lineAt(e.getY());
+                if (line < 0) {
+                    return;
+                }
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    editCondition(line);
+                } else {
+                    breakpoints.toggle(line);
+                }
+                repaint();
+            }
+        });
+
+        // Breakpoints acompanham as linhas quando o texto é editado
+        DocumentListener linesListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                int added = countLines(e);
+                if (added > 0) {
+                    int line = editor.getDocument().getDefaultRootElement().getElementIndex(e.getOffset());
+                    Element start = editor.getDocument().getDefaultRootElement().getElement(line);
+                    breakpoints.shiftLines(start.getStartOffset() == e.getOffset() ? line : line + 1, added);
+                }
+                revalidate();
+                repaint();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                int removed = countLines(e);
+                if (removed > 0) {
+                    int line = editor.getDocument().getDefaultRootElement().getElementIndex(e.getOffset());
+                    breakpoints.shiftLines(line + 1, -removed);
+                }
+                revalidate();
+                repaint();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        };
+        editor.getDocument().addDocumentListener(linesListener);
+
+        // Outro programa carregado: os breakpoints de linha não valem mais
+        editor.addPropertyChangeListener("document", e -> {
+            ((Document) e.getOldValue()).removeDocumentListener(linesListener);
+            ((Document) e.getNewValue()).addDocumentListener(linesListener);
+            for (int line : new ArrayList<>(breakpoints.getLines())) {
+                breakpoints.remove(line);
+            }
+            revalidate();
+            repaint();
+        });
+    }
+
+    public LineOverlay getOverlay() {
+        return overlay;
+    }
+
+    public void setOverlay(LineOverlay overlay) {
+        this.overlay = overlay;
+        repaint();
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int line = lineAt(e.getY());
+        if (line < 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder("Linha ").append(line + 1);
+        if (breakpoints.hasBreakpoint(line)) {
+            BreakCondition condition = breakpoints.getCondition(line);
+            text.append(" | breakpoint").append(condition == null ? "" : " se " + condition);
+        }
+        String description = overlay == null ? null : overlay.describe(line);
+        if (description != null) {
+            text.append(" | ").append(description);
+        }
+        return text.toString();
+    }
+
+    private static int countLines(DocumentEvent e) {
+        DocumentEvent.ElementChange change = e.getChange(e.getDocument().getDefaultRootElement());
+        return change == null ? 0 : Math.abs(change.getChildrenAdded().length - change.getChildrenRemoved().length);
+    }
+
+    private void editCondition(int line) {
+        BreakCondition current = breakpoints.getCondition(line);
+        String text = JOptionPane.showInputDialog(this,
+                "Condição do breakpoint da linha " + (line + 1) + " (ex.: Q0.1 && I1.0; vazio para sempre parar):",
+                current == null ? "" : current.toString());
+        if (text == null) {
+            return;
+        }
+        try {
+            breakpoints.setCondition(line, text);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage());
+        }
+    }
+
+    // Linha (base 0) na altura y, ou -1 abaixo da última
+    private int lineAt(int y) {
+        int offset = editor.viewToModel2D(new Point(0, y));
+        if (offset < 0) {
+            return -1;
+        }
+        int line = editor.getDocument().getDefaultRootElement().getElementIndex(offset);
+        Rectangle2D bounds = lineBounds(line);
+        return bounds != null && y <= bounds.getMaxY() ? line : -1;
+    }
+
+    // Área da linha no editor, incluindo as continuações da quebra automática
+    private Rectangle2D lineBounds(int line) {
+        try {
+            Rectangle2D start = editor.modelToView2D(editor.getLineStartOffset(line));
+            Rectangle2D end = editor.modelToView2D(Math.max(editor.getLineStartOffset(line),
+                    editor.getLineEndOffset(line) - 1));
+            return new Rectangle2D.Double(0, start.getY(), WIDTH, end.getMaxY() - start.getY());
+        } catch (BadLocationException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(WIDTH, editor.getPreferredSize().height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        Rectangle clip = g2d.getClipBounds();
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        FontMetrics metrics = g2d.getFontMetrics(getFont());
+        g2d.setFont(getFont());
+        int rowHeight = editor.getFontMetrics(editor.getFont()).getHeight();
+        int first = Math.max(0, lineAtOrAbove(clip.y));
+        for (int line = first; line < editor.getLineCount(); line++) {
+            Rectangle2D bounds = lineBounds(line);
+            if (bounds == null || bounds.getY() > clip.getMaxY()) {
+                break;
+            }
+            int top = (int) bounds.getY();
+
+            Color mark = overlay == null ? null : overlay.colorOf(line);
+            if (mark != null) {
+                g2d.setColor(mark);
+                g2d.fillRect(OVERLAY_X, top, OVERLAY_WIDTH, (int) Math.ceil(bounds.getHeight()));
+            }
+
+            if (breakpoints.hasBreakpoint(line)) {
+                g2d.setColor(breakpoints.getCondition(line) == null ? BREAKPOINT_COLOR : CONDITIONAL_COLOR);
+                g2d.fillOval(3, top + (rowHeight - DOT_SIZE) / 2, DOT_SIZE, DOT_SIZE);
+            }
+
+            String number = String.valueOf(line + 1);
+            g2d.setColor(NUMBER_COLOR);
+            g2d.drawString(number, WIDTH - 4 - metrics.stringWidth(number),
+                    top + (rowHeight + metrics.getAscent() - metrics.getDescent()) / 2);
+        }
+        g2d.dispose();
+    }
+
+    private int lineAtOrAbove(int y) {
+        int offset = editor.viewToModel2D(new Point(0, y));
+        return offset < 0 ? 0 : editor.getDocument().getDefaultRootElement().getElementIndex(offset);
+    }
+}
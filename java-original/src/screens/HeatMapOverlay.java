@@ -0,0 +1,34 @@
+package screens;
+
+import ilcompiler.profiler.Profiler;
+import java.awt.Color;
+
+// Mapa de calor do perfil na margem do editor: do azul (pouco tempo) ao vermelho (linha mais cara)
+public class HeatMapOverlay implements EditorGutter.LineOverlay {
+
+    private final Profiler profiler;
+
+    public HeatMapOverlay(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Color colorOf(int line) {
+        if (profiler.getExecutions(line) == 0) {
+            return null;
+        }
+        long max = Math.max(1, profiler.getMaxNanos());
+        float heat = (float) profiler.getEstimatedNanos(line) / max;
+        return new Color(Color.HSBtoRGB(0.66f * (1 - heat), 0.85f, 1f));
+    }
+
+    @Override
+    public String describe(int line) {
+        if (profiler.getExecutions(line) == 0) {
+            return null;
+        }
+        long total = Math.max(1, profiler.getTotalNanos());
+        return String.format("%d execuções, %.3f ms (%.1f%% do tempo)", profiler.getExecutions(line),
+                profiler.getEstimatedNanos(line) / 1e6, 100.0 * profiler.getEstimatedNanos(line) / total);
+    }
+}
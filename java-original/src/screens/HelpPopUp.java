@@ -2,6 +2,7 @@ package screens;
 
 import java.awt.Desktop;
 import java.net.URI;
+import java.nio.file.Path;
 import javax.swing.JEditorPane;
 import javax.swing.JOptionPane;
 import javax.swing.JScrollPane;
@@ -10,7 +11,7 @@ import javax.swing.event.HyperlinkListener;
 
 public class HelpPopUp {
 
-    public static void showHelp() {
+    public static void showHelp(Path traceFile) {
         String htmlContent = """
     <html>
     <head>
@@ -67,21 +68,62 @@ public class HelpPopUp {
         <ul>
             <li><strong>LD:</strong> Load – Carrega um valor para o acumulador.</li>
             <li><strong>LDN:</strong> Load Negado – Carrega um valor negado para o acumulador.</li>
+            <li><strong>R_TRIG:</strong> Borda de subida – Carrega no acumulador se a entrada ou saída indicada ligou desde a varredura anterior.</li>
+            <li><strong>F_TRIG:</strong> Borda de descida – Carrega no acumulador se a entrada ou saída indicada desligou desde a varredura anterior.</li>
             <li><strong>ST:</strong> Store – Armazena o conteúdo do acumulador no local especificado.</li>
             <li><strong>STN:</strong> Store Negado – Armazena o conteúdo negado do acumulador no local especificado.</li>
             <li><strong>AND:</strong> AND – Função booleana AND entre o operando indicado e o valor do acumulador.</li>
             <li><strong>ANDN:</strong> AND Negado – Função booleana AND entre o operando indicado negado e o valor do acumulador.</li>
             <li><strong>OR:</strong> OR – Função booleana OR entre o operando indicado e o valor do acumulador.</li>
             <li><strong>ORN:</strong> OR Negado – Função booleana OR entre o operando indicado negado e o valor do acumulador.</li>
+            <li><strong>AND(:</strong> AND com parênteses – Guarda o acumulador e faz AND com o resultado da expressão até o ")" (ex.: AND( I0.1).</li>
+            <li><strong>ANDN(:</strong> AND Negado com parênteses – Como AND(, usando o resultado negado da expressão.</li>
+            <li><strong>OR(:</strong> OR com parênteses – Guarda o acumulador e faz OR com o resultado da expressão até o ")".</li>
+            <li><strong>ORN(:</strong> OR Negado com parênteses – Como OR(, usando o resultado negado da expressão.</li>
+            <li><strong>):</strong> Fecha parênteses – Combina o resultado da expressão com o valor guardado pelo AND(, ANDN(, OR( ou ORN( correspondente (até 8 níveis).</li>
             <li><strong>TON:</strong> Temporizador ON Delay – Ativa após um intervalo de tempo definido.</li>
             <li><strong>TOF:</strong> Temporizador OFF Delay – Desativa após um intervalo de tempo definido.</li>
+            <li><strong>TP:</strong> Temporizador de pulso – Ao ligar, ativa a saída pelo tempo definido, mesmo que a entrada desligue antes.</li>
+            <li><strong>TONR:</strong> Temporizador retentivo – Conta enquanto ligado e guarda o tempo ao desligar; zere com RES.</li>
+            <li><strong>RES:</strong> Reset – Zera o temporizador ou contador indicado quando o acumulador é verdadeiro (ex.: RES T1).</li>
             <li><strong>CTU:</strong> Count Up – Contador crescente.</li>
             <li><strong>CTD:</strong> Count Down – Contador decrescente.</li>
+            <li><strong>ADD:</strong> Soma – Soma o operando (MW, IW ou constante) ao acumulador inteiro.</li>
+            <li><strong>SUB:</strong> Subtração – Subtrai o operando (MW, IW ou constante) do acumulador inteiro.</li>
+            <li><strong>MUL:</strong> Multiplicação – Multiplica o acumulador inteiro pelo operando (MW, IW ou constante).</li>
+            <li><strong>DIV:</strong> Divisão – Divide o acumulador inteiro pelo operando (MW, IW ou constante), descartando o resto.</li>
+            <li><strong>GT:</strong> Maior que – O acumulador recebe verdadeiro se o acumulador inteiro for maior que o operando.</li>
+            <li><strong>GE:</strong> Maior ou igual – O acumulador recebe verdadeiro se o acumulador inteiro for maior ou igual ao operando.</li>
+            <li><strong>EQ:</strong> Igual – O acumulador recebe verdadeiro se o acumulador inteiro for igual ao operando.</li>
+            <li><strong>NE:</strong> Diferente – O acumulador recebe verdadeiro se o acumulador inteiro for diferente do operando.</li>
+            <li><strong>LE:</strong> Menor ou igual – O acumulador recebe verdadeiro se o acumulador inteiro for menor ou igual ao operando.</li>
+            <li><strong>LT:</strong> Menor que – O acumulador recebe verdadeiro se o acumulador inteiro for menor que o operando.</li>
+            <li><strong>Rótulo (NOME:):</strong> Rótulo – Um nome seguido de dois pontos no início da linha marca o destino de um salto (ex.: FIM: LD I0.0).</li>
+            <li><strong>JMP:</strong> Jump – Salta para o rótulo indicado, na mesma seção.</li>
+            <li><strong>JMPC:</strong> Jump Condicional – Salta para o rótulo se o acumulador for verdadeiro.</li>
+            <li><strong>JMPCN:</strong> Jump Condicional Negado – Salta para o rótulo se o acumulador for falso.</li>
+            <li><strong>CAL:</strong> Call – Chama a função indicada (declarada com FUNCTION).</li>
+            <li><strong>CALC:</strong> Call Condicional – Chama a função se o acumulador for verdadeiro.</li>
+            <li><strong>CALCN:</strong> Call Condicional Negado – Chama a função se o acumulador for falso.</li>
+            <li><strong>RET:</strong> Return – Retorna da função para a linha seguinte ao CAL.</li>
+            <li><strong>RETC:</strong> Return Condicional – Retorna da função se o acumulador for verdadeiro.</li>
+            <li><strong>RETCN:</strong> Return Condicional Negado – Retorna da função se o acumulador for falso.</li>
+            <li><strong>TASK:</strong> Tarefa – Inicia uma seção executada com período (ms) e prioridade próprios (ex.: TASK RAPIDA, 10, 1). Prioridade menor executa primeiro.</li>
+            <li><strong>EVENT:</strong> Tarefa de evento – Seção executada imediatamente na borda de uma entrada (ex.: EVENT EMERGENCIA, I0.1, FALLING, 0).</li>
+            <li><strong>FUNCTION:</strong> Função – Inicia um bloco chamado com CAL de qualquer tarefa (ex.: FUNCTION ALARME). O fim do bloco também retorna.</li>
             <li><strong>T1, T2, T3...:</strong> Temporizadores – Referências aos temporizadores específicos.</li>
             <li><strong>I0.0, I1.7, I1.0...:</strong> Entradas – Endereços das entradas do sistema.</li>
             <li><strong>Q0.1, Q1.7, Q1.0...:</strong> Saídas – Endereços das saídas do sistema.</li>
             <li><strong>M1, M2, M3...:</strong> Memórias – Memórias booleanas locais disponíveis.</li>
+            <li><strong>MW0..MW255:</strong> Palavras – Memórias inteiras de 32 bits (ex.: LD MW0, ADD 1, ST MW0).</li>
+            <li><strong>IW0..IW15:</strong> Entradas analógicas – Valores inteiros escritos pelo modelo de processo (ex.: nível do tanque em IW0). Só leitura.</li>
         </ul>
+            <h3>Trace de Varreduras</h3>
+            <div class="footer">
+            As últimas varreduras desta janela são gravadas em {trace}
+            <br>
+            Abra com: java SimuladorClp trace &lt;arquivo&gt;
+            </div>
             <h3>Explicação/Exemplos</h3>
             <div class="footer">
             🎥 <a href='https://www.youtube.com/watch?v=e-C53fbtbfo'>Vídeo Complementar</a>
@@ -91,7 +133,7 @@ public class HelpPopUp {
             </div>
     </body>
     </html>
-""";
+""".replace("{trace}", traceFile != null ? traceFile.toString() : "(trace desativado)");
         JEditorPane editorPane = new JEditorPane("text/html", htmlContent);
         editorPane.setEditable(false);
         editorPane.setOpaque(false);
@@ -6,6 +6,7 @@ import screens.scenes.DefaultScenePanel;
 import Controllers.HomePageController;
 import Models.ExecutionMode;
 import Models.HomePageModel;
+import ilcompiler.compiler.Diagnostic;
 import ilcompiler.edit.Colors;
 import ilcompiler.edit.Language;
 import javax.swing.ImageIcon;
@@ -18,6 +19,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Image;
 import java.awt.event.MouseEvent;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -25,8 +27,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.swing.BorderFactory;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -34,30 +38,55 @@ import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.text.AbstractDocument;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+import save.Save;
 import screens.scenes.ScenesEnum;
 import screens.scenes.InputEventListener;
 
 public final class HomePg extends javax.swing.JFrame {
 
     private static final int CYCLE_DELAY_MS = 100;
+    private static final int CHECK_DELAY_MS = 400;
+    private static final int MAX_TOOLTIP_DIAGNOSTICS = 10;
+    private static final int MAX_UNDERLINED_DIAGNOSTICS = 1000;
+    // Acima disso o editor não quebra linhas: a quebra mede cada linha ao exibir o documento
+    private static final int WRAP_MAX_LINES = 10000;
+    private static final Color DEBUG_LINE_COLOR = new Color(255, 230, 120);
+    private static final Color DIAGNOSTIC_COLOR = new Color(255, 60, 60);
 
     private final HomePageController controller;
 
     private javax.swing.JScrollPane scrollCodigoCamp;
 
     private ListaDeVariaveisPg telaDataTable;
+    private DepuradorPg telaDepurador;
+    private Object debugHighlight;
+    private javax.swing.JButton debugBt;
+    private EditorGutter editorGutter;
     private boolean updating = false;
 
     private IScenePanel currentScenePanel;
     private ScenesEnum currentScene = ScenesEnum.DEFAULT;
     private InputEventListener sceneInputEventListener;
+    private Timer checkTimer;
+    private Timer runtimeErrorTimer;
+    private DocumentListener programListener;
+    // Erros de compilação do texto atual e o erro que parou a execução, sublinhados no editor
+    private List<Diagnostic> diagnostics = List.of();
+    private Diagnostic runtimeError;
+    private final List<Object> diagnosticHighlights = new ArrayList<>();
 
     @SuppressWarnings("unchecked")
     public HomePg() {
         controller = new HomePageController(this);
 
         initComponents();
+        initExtraComponents();
 
         ImageIcon iconCampo = new ImageIcon(getClass().getResource("/Assets/bloco_notas.png"));
         iconCampo.setImage(iconCampo.getImage().getScaledInstance(Codigo_Camp.getWidth(), Codigo_Camp.getHeight(), 1));
@@ -93,9 +122,33 @@ public final class HomePg extends javax.swing.JFrame {
         AbstractDocument doc = (AbstractDocument) Codigo_Camp.getDocument();
         doc.setDocumentFilter(new UpperCaseDocumentFilter());
 
+        // O programa editado é compilado em segundo plano; com a CLP rodando, também é trocado online
+        checkTimer = new Timer(CHECK_DELAY_MS, e -> checkProgram());
+        checkTimer.setRepeats(false);
+        runtimeErrorTimer = new Timer(CHECK_DELAY_MS, e -> paintDiagnostics());
+        runtimeErrorTimer.setRepeats(false);
+        programListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                programEdited(e);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                programEdited(e);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        };
+        doc.addDocumentListener(programListener);
+        controller.resetProgram(saveLines(new ArrayList<>()));
+
         HomePageModel.setInputsType(InputActions.createType(new HashMap<>()));
         HomePageModel.setInputs(InputActions.create(new HashMap<>()));
         HomePageModel.setOutputs(OutputActions.create(HomePageModel.getOutputs()));
+        HomePageModel.getContext().setErrorHandler(this::showRuntimeError);
 
         sceneInputEventListener = new InputEventListener() {
             @Override
@@ -127,6 +180,7 @@ public final class HomePg extends javax.swing.JFrame {
     }
 
     private void handleInputButtonPressed(String inputKey, java.awt.event.MouseEvent evt) {
+        var context = HomePageModel.getContext();
         var inputs = HomePageModel.getInputs();
         var types = HomePageModel.getInputsType();
         InputType inputType = types.get(inputKey);
@@ -134,12 +188,13 @@ public final class HomePg extends javax.swing.JFrame {
         if (evt.getButton() == java.awt.event.MouseEvent.BUTTON1) {
             switch (inputType) {
                 case SWITCH ->
-                    inputs.put(inputKey, !inputs.get(inputKey));
+                    context.setInput(inputKey, !inputs.get(inputKey));
                 case NO ->
-                    inputs.put(inputKey, true);
+                    context.setInput(inputKey, true);
                 case NC ->
-                    inputs.put(inputKey, false);
+                    context.setInput(inputKey, false);
             }
+            controller.dispatchInputEvents();
             updateSceneUI();
         } else if (evt.getButton() == java.awt.event.MouseEvent.BUTTON3) {
             int val = inputType.getValue() + 1;
@@ -148,7 +203,8 @@ public final class HomePg extends javax.swing.JFrame {
             }
             InputType newInputType = InputType.fromValue(val);
             types.put(inputKey, newInputType);
-            inputs.put(inputKey, newInputType == InputType.NC);
+            context.setInput(inputKey, newInputType == InputType.NC);
+            controller.dispatchInputEvents();
             updateSceneUI();
         }
     }
@@ -159,18 +215,127 @@ public final class HomePg extends javax.swing.JFrame {
             return;
         }
 
-        var inputs = HomePageModel.getInputs();
+        var context = HomePageModel.getContext();
         InputType inputType = HomePageModel.getInputsType().get(inputKey);
 
         if (inputType == InputType.NO) {
-            inputs.put(inputKey, false);
+            context.setInput(inputKey, false);
         } else if (inputType == InputType.NC) {
-            inputs.put(inputKey, true);
+            context.setInput(inputKey, true);
         }
 
+        controller.dispatchInputEvents();
         updateSceneUI();
     }
 
+    // Só as linhas tocadas pela edição vão ao compilador: a mesma linha, ou as linhas que
+    // substituíram as removidas quando a edição muda a quantidade de linhas
+    private void programEdited(DocumentEvent e) {
+        Element root = Codigo_Camp.getDocument().getDefaultRootElement();
+        DocumentEvent.ElementChange change = e.getChange(root);
+        int first = change == null ? root.getElementIndex(e.getOffset()) : change.getIndex();
+        int removed = change == null ? 1 : change.getChildrenRemoved().length;
+        int count = change == null ? 1 : change.getChildrenAdded().length;
+
+        List<String> added = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            added.add(lineText(first + i));
+        }
+        controller.editProgram(first, removed, added);
+        checkTimer.restart();
+    }
+
+    private void checkProgram() {
+        controller.checkProgram(HomePageModel.isRunning(), this::showDiagnostics);
+    }
+
+    // Erros do texto atual; com erros, a edição online não acontece e o programa anterior continua
+    public void showDiagnostics(List<Diagnostic> list) {
+        diagnostics = list;
+        paintDiagnostics();
+    }
+
+    // Erro durante a varredura: a execução para e a linha da instrução é marcada, sem diálogo
+    // modal. Só o primeiro erro da varredura é mostrado, pintado no máximo uma vez por
+    // CHECK_DELAY_MS
+    private void showRuntimeError(String message) {
+        if (runtimeError != null && !HomePageModel.isRunning()) {
+            return;
+        }
+        HomePageModel.setMode(ExecutionMode.IDLE);
+        int line = HomePageModel.getContext().getCurrentLine();
+        runtimeError = Diagnostic.at(line, lineText(line), message);
+        if (!runtimeErrorTimer.isRunning()) {
+            runtimeErrorTimer.start();
+        }
+    }
+
+    private String lineText(int line) {
+        if (line < 0 || line >= Codigo_Camp.getLineCount()) {
+            return "";
+        }
+        try {
+            int start = Codigo_Camp.getLineStartOffset(line);
+            return Codigo_Camp.getText(start, Codigo_Camp.getLineEndOffset(line) - start);
+        } catch (BadLocationException ex) {
+            return "";
+        }
+    }
+
+    private void clearRuntimeError() {
+        runtimeError = null;
+        paintDiagnostics();
+    }
+
+    private void paintDiagnostics() {
+        for (Object highlight : diagnosticHighlights) {
+            Codigo_Camp.getHighlighter().removeHighlight(highlight);
+        }
+        diagnosticHighlights.clear();
+
+        List<Diagnostic> shown = new ArrayList<>(diagnostics);
+        if (runtimeError != null) {
+            shown.add(0, runtimeError);
+        }
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (int i = 0; i < shown.size(); i++) {
+            Diagnostic diagnostic = shown.get(i);
+            if (i < MAX_TOOLTIP_DIAGNOSTICS) {
+                tooltip.append(i == 0 ? "" : "<br>").append(diagnostic.getMessage().replace("&", "&amp;")
+                        .replace("<", "&lt;").replace(">", "&gt;"));
+            }
+            if (i < MAX_UNDERLINED_DIAGNOSTICS) {
+                underline(diagnostic);
+            }
+        }
+        if (shown.size() > MAX_TOOLTIP_DIAGNOSTICS) {
+            tooltip.append("<br>... mais ").append(shown.size() - MAX_TOOLTIP_DIAGNOSTICS).append(" erro(s)");
+        }
+
+        Codigo_Camp.setToolTipText(shown.isEmpty() ? null : tooltip.toString());
+        scrollCodigoCamp.setBorder(shown.isEmpty() ? null : BorderFactory.createLineBorder(Color.RED, 2));
+    }
+
+    // O texto pode ter mudado desde a compilação: o trecho é limitado à linha atual
+    private void underline(Diagnostic diagnostic) {
+        int line = diagnostic.getLine();
+        if (line < 0 || line >= Codigo_Camp.getLineCount()) {
+            return;
+        }
+        try {
+            int lineStart = Codigo_Camp.getLineStartOffset(line);
+            int lineEnd = Codigo_Camp.getLineEndOffset(line);
+            int start = Math.min(lineStart + diagnostic.getColumn(), lineEnd);
+            int end = Math.min(start + Math.max(diagnostic.getLength(), 1), lineEnd);
+            if (start < end) {
+                diagnosticHighlights.add(Codigo_Camp.getHighlighter().addHighlight(start, end,
+                        new SquigglePainter(DIAGNOSTIC_COLOR)));
+            }
+        } catch (BadLocationException ex) {
+            Logger.getLogger(HomePg.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
     public void setColor(Boolean value, JLabel label) {
         if (value) {
             label.setForeground(Color.green);
@@ -209,6 +374,7 @@ public final class HomePg extends javax.swing.JFrame {
         }
 
         currentScenePanel.initInputs(HomePageModel.getInputsType(), HomePageModel.getInputs());
+        controller.setPlant(currentScenePanel.getPlant());
 
         var currentSceneJPanel = (JPanel) currentScenePanel;
 
@@ -247,7 +413,6 @@ public final class HomePg extends javax.swing.JFrame {
 
         refreshBt.setEnabled(!isRunningMode);
         simulationsComboBox.setEnabled(!isRunningMode);
-        Codigo_Camp.setEditable(!isRunningMode);
 
         String iconPath = isRunningMode ? "/Assets/start_green.png" : "/Assets/start.png";
         ImageIcon startBtIcon = new ImageIcon(getClass().getResource(iconPath));
@@ -296,29 +461,124 @@ public final class HomePg extends javax.swing.JFrame {
                         Contagem_parada_10));
     }
 
-    public static void showErrorMessage(String message) {
-        HomePageModel.setMode(ExecutionMode.IDLE);
-        JOptionPane.showMessageDialog(null, message);
+    // Controles que não estão no HomePg.form ficam fora do initComponents, que o NetBeans regenera
+    private void initExtraComponents() {
+        Arquivar_BT.addItem("Exportar VCD");
+
+        debugBt = new javax.swing.JButton();
+        debugBt.setText("Depurar");
+        debugBt.setName("debug_bt"); // NOI18N
+        debugBt.setPreferredSize(new java.awt.Dimension(90, 50));
+        debugBt.addActionListener(this::debugBtActionPerformed);
+        jPanel3.add(debugBt);
+
+        editorGutter = new EditorGutter(Codigo_Camp, controller.getBreakpoints());
+        scrollCodigoCamp.setRowHeaderView(editorGutter);
+        scrollCodigoCamp.getRowHeader().setOpaque(false);
+    }
+
+    // Destaca no editor a linha da próxima instrução do depurador (-1 remove o destaque)
+    public void highlightLine(int line) {
+        if (debugHighlight != null) {
+            Codigo_Camp.getHighlighter().removeHighlight(debugHighlight);
+            debugHighlight = null;
+        }
+        if (line < 0 || line >= Codigo_Camp.getLineCount()) {
+            return;
+        }
+        try {
+            int start = Codigo_Camp.getLineStartOffset(line);
+            int end = Codigo_Camp.getLineEndOffset(line);
+            debugHighlight = Codigo_Camp.getHighlighter().addHighlight(start, end,
+                    new DefaultHighlighter.DefaultHighlightPainter(DEBUG_LINE_COLOR));
+            Codigo_Camp.setCaretPosition(start);
+        } catch (BadLocationException ex) {
+            Logger.getLogger(HomePg.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    // Marcação das linhas na margem do editor (cobertura, perfil); null remove
+    public void setLineOverlay(EditorGutter.LineOverlay overlay) {
+        editorGutter.setOverlay(overlay);
+    }
+
+    public EditorGutter.LineOverlay getLineOverlay() {
+        return editorGutter.getOverlay();
+    }
+
+    public void refreshLineOverlay() {
+        if (editorGutter.getOverlay() != null) {
+            editorGutter.repaint();
+        }
+    }
+
+    // Parada em breakpoint ou watchpoint: mostra a linha e abre o depurador com a situação
+    public void showBreakpointHit(String status) {
+        highlightLine(controller.getNextLine());
+        updateMode();
+        updateSceneUI();
+        updateMemoryVariables();
+        openDebugger();
+        telaDepurador.showStatus(status);
+    }
+
+    // Liga ou desliga a exportação VCD das varreduras em execução
+    public void toggleVcdExport() {
+        if (controller.isExportingVcd()) {
+            controller.stopVcdExport();
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            controller.startVcdExport(chooser.getSelectedFile().toPath());
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Não foi possível criar o arquivo VCD: " + ex.getMessage());
+        }
     }
 
     public List<String> saveLines(List<String> lineList) {
         int quant = Codigo_Camp.getLineCount();
 
         for (int i = 0; i < quant; i++) {
-            try {
-                Integer start = Codigo_Camp.getLineStartOffset(i);
-                Integer end = Codigo_Camp.getLineEndOffset(i);
-                String line = Codigo_Camp.getText(start, end - start);
-                lineList.add(line);
-            } catch (BadLocationException ex) {
-                Logger.getLogger(HomePg.class.getName()).log(Level.SEVERE, null, ex);
-            }
+            lineList.add(lineText(i));
         }
 
         // System.out.println("Lista de linhas: " + lineList);
         return lineList;
     }
 
+    // Abre o arquivo fora da EDT; o editor recebe o documento pronto de uma vez
+    public void loadProgram(String file) {
+        PlainDocument document = new PlainDocument();
+        document.setDocumentFilter(new UpperCaseDocumentFilter());
+        controller.loadProgram(file, document, lines -> installProgram(document, lines));
+    }
+
+    private void installProgram(PlainDocument document, List<String> lines) {
+        Codigo_Camp.getDocument().removeDocumentListener(programListener);
+        Codigo_Camp.getHighlighter().removeAllHighlights();
+        debugHighlight = null;
+        diagnosticHighlights.clear();
+        diagnostics = List.of();
+        runtimeError = null;
+
+        document.addDocumentListener(programListener);
+        Codigo_Camp.setLineWrap(lines.size() <= WRAP_MAX_LINES);
+        Codigo_Camp.setDocument(document);
+        Codigo_Camp.setCaretPosition(0);
+        controller.resetProgram(lines);
+        paintDiagnostics();
+        checkTimer.restart();
+    }
+
+    public void saveProgram(String file) throws IOException {
+        Save.save(file, Codigo_Camp.getDocument());
+    }
+
     @SuppressWarnings("unchecked")
     // <editor-fold defaultstate="collapsed" desc="Generated
     // <editor-fold defaultstate="collapsed" desc="Generated
@@ -894,7 +1154,7 @@ public final class HomePg extends javax.swing.JFrame {
     }// GEN-LAST:event_Sobre_BTActionPerformed
 
     private void Help_BTActionPerformed(java.awt.event.ActionEvent evt) {
-        HelpPopUp.showHelp();
+        HelpPopUp.showHelp(controller.getTraceFile());
     }
 
     private void Editar_BTActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_Editar_BTActionPerformed
@@ -931,11 +1191,16 @@ public final class HomePg extends javax.swing.JFrame {
 
     private void startBtActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_startBtActionPerformed
         if (!HomePageModel.isRunning()) {
+            boolean wasStopped = HomePageModel.isStopped();
             HomePageModel.setMode(ExecutionMode.RUNNING);
+            clearRuntimeError();
 
-            Timer timer = new Timer(CYCLE_DELAY_MS, e -> controller.runCycle(e));
-            timer.setInitialDelay(0);
-            timer.start();
+            // Parado num breakpoint, o start continua a varredura interrompida
+            if (wasStopped && controller.isPausedInScan()) {
+                startTimer(controller.resumeCycle());
+            } else {
+                controller.startCycle(CYCLE_DELAY_MS, this::startTimer);
+            }
 
         } else {
             HomePageModel.setMode(ExecutionMode.STOPPED);
@@ -945,6 +1210,12 @@ public final class HomePg extends javax.swing.JFrame {
         }
     }// GEN-LAST:event_startBtActionPerformed
 
+    private void startTimer(int tickMs) {
+        Timer timer = new Timer(tickMs, e -> controller.runCycle(e));
+        timer.setInitialDelay(0);
+        timer.start();
+    }
+
     public void clickPauseButton() {
         pauseBt.doClick();
     }
@@ -957,6 +1228,18 @@ public final class HomePg extends javax.swing.JFrame {
         updateMode();
     }// GEN-LAST:event_pauseBtActionPerformed
 
+    private void debugBtActionPerformed(java.awt.event.ActionEvent evt) {
+        openDebugger();
+        telaDepurador.refresh();
+    }
+
+    private void openDebugger() {
+        if (telaDepurador == null) {
+            telaDepurador = new DepuradorPg(controller);
+        }
+        telaDepurador.setVisible(true);
+    }
+
     private void dataTableBtActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_dataTableBtActionPerformed
         telaDataTable.setVisible(true);
         telaDataTable.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -976,9 +1259,11 @@ public final class HomePg extends javax.swing.JFrame {
         Arquivar_BT.removeItemAt(0);
         Arquivar_BT.removeItemAt(0);
         Arquivar_BT.removeItemAt(0);
+        Arquivar_BT.removeItemAt(0);
         Arquivar_BT.insertItemAt(aux.getItemAt(0).toString(), 0);
         Arquivar_BT.insertItemAt(aux.getItemAt(1).toString(), 1);
         Arquivar_BT.insertItemAt(aux.getItemAt(2).toString(), 2);
+        Arquivar_BT.insertItemAt(aux.getItemAt(3).toString(), 3);
         Arquivar_BT.setSelectedIndex(0);
         updating = false;
 
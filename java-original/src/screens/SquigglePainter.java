@@ -0,0 +1,48 @@
+package screens;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.LayeredHighlighter;
+import javax.swing.text.Position;
+import javax.swing.text.View;
+
+// Sublinhado ondulado dos diagnósticos no editor; pintado por trecho de linha, inclusive nas
+// continuações da quebra automática
+public class SquigglePainter extends LayeredHighlighter.LayerPainter {
+
+    private static final int STEP = 2;
+
+    private final Color color;
+
+    public SquigglePainter(Color color) {
+        this.color = color;
+    }
+
+    @Override
+    public void paint(Graphics g, int offs0, int offs1, Shape bounds, JTextComponent c) {
+        // Só a pintura em camadas é usada (DefaultHighlighter desenha por trecho de view)
+    }
+
+    @Override
+    public Shape paintLayer(Graphics g, int offs0, int offs1, Shape bounds, JTextComponent c, View view) {
+        Rectangle area;
+        try {
+            Shape shape = view.modelToView(offs0, Position.Bias.Forward, offs1, Position.Bias.Backward, bounds);
+            area = shape instanceof Rectangle rectangle ? rectangle : shape.getBounds();
+        } catch (BadLocationException ex) {
+            return null;
+        }
+
+        g.setColor(color);
+        int base = area.y + area.height - STEP;
+        for (int x = area.x; x < area.x + area.width; x += 2 * STEP) {
+            g.drawLine(x, base + STEP, x + STEP, base);
+            g.drawLine(x + STEP, base, x + 2 * STEP, base + STEP);
+        }
+        return area;
+    }
+}
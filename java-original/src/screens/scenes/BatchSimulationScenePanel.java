@@ -1,7 +1,6 @@
 package screens.scenes;
 
 import Controllers.BatchSimulatorController;
-import Models.HomePageModel;
 import ilcompiler.input.Input.InputType;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
@@ -11,6 +10,8 @@ import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JPanel;
+import plant.BatchTankPlant;
+import plant.PlantModel;
 
 public class BatchSimulationScenePanel extends javax.swing.JPanel implements IScenePanel {
 
@@ -21,7 +22,7 @@ public class BatchSimulationScenePanel extends javax.swing.JPanel implements ISc
     private final Image backgroundImage;
 
     private final BatchSimulatorController controller;
-    private final BatchSimulatorController.FillHeight tankFillHeightWrapper;
+    private final BatchTankPlant plant;
 
     private final PushButton startBt, stopBt;
     private final PushButton[] buttons;
@@ -31,19 +32,13 @@ public class BatchSimulationScenePanel extends javax.swing.JPanel implements ISc
 
     private final RedIndicator[] indicators;
 
-    private Long hiLevelActivationTime = null;
     private boolean alertShown = false;
 
-    private Long loLevelActivationTime = null;
-    private boolean pump3AlertShown = false;
-
-     private static final int timerForPumpsWarning = 1500;
-
     public BatchSimulationScenePanel() {
         backgroundImage = new ImageIcon(getClass().getResource("/Assets/batch_bg.png")).getImage();
 
-        controller = new BatchSimulatorController(this);
-        tankFillHeightWrapper = new BatchSimulatorController.FillHeight(0);
+        plant = new BatchTankPlant();
+        controller = new BatchSimulatorController(plant);
 
         startBt = new PushButton("I0.0", InputType.NO);
         stopBt = new PushButton("I0.1", InputType.NC, PushButton.ButtonPalette.RED);
@@ -67,6 +62,12 @@ public class BatchSimulationScenePanel extends javax.swing.JPanel implements ISc
         initComponents();
     }
 
+    // Os sensores de nível são escritos pelo modelo, avançado no ciclo de varredura
+    @Override
+    public PlantModel getPlant() {
+        return plant;
+    }
+
     @Override
     public void setOnCriticalFailureCallback(Runnable callback) {
         this.onCriticalFailureCallback = callback;
@@ -98,106 +99,47 @@ public class BatchSimulationScenePanel extends javax.swing.JPanel implements ISc
 
             indicator.setActive(updatedValue);
         }
-        boolean isRunning = HomePageModel.isRunning();
-
-        boolean pump1On = outputs.getOrDefault(pump1Indicator.getKey(), false);
-        boolean hiLevel = tankFillHeightWrapper.isAtHighLevel();
-        boolean pump3On = outputs.getOrDefault(pump3Indicator.getKey(), false);
-        boolean loLevel = tankFillHeightWrapper.isAtLowLevel();
-
-        if (isRunning && pump1On) {
-            controller.startFilling(tankFillHeightWrapper);
-        } else {
-            controller.stopFilling();
-        }
-
-        if (isRunning && pump3On) {
-            controller.startDraining(tankFillHeightWrapper);
-        } else {
-            controller.stopDraining();
-        }
+        boolean hiLevel = plant.isAtHighLevel();
+        boolean loLevel = plant.isAtLowLevel();
 
         hiLevelIndicator.setActive(hiLevel);
         loLevelIndicator.setActive(loLevel);
 
-        pump1IsOpened(pump1On, hiLevel);
+        showHazard(plant.getHazard());
 
-        pump3IsOpened(pump3On, loLevel);
-
-        inputs.put(hiLevelIndicator.getKey(), hiLevelIndicator.isActive());
-        inputs.put(loLevelIndicator.getKey(), loLevelIndicator.isActive());
-
-    }
-
-    private void pump3IsOpened(boolean pump3On, boolean loLevel) {
-        if (!loLevel && pump3On) {
-            if (loLevelActivationTime == null) {
-                loLevelActivationTime = System.currentTimeMillis();
-            } else {
-                long elapsed = System.currentTimeMillis() - loLevelActivationTime;
-                if (elapsed > timerForPumpsWarning && !pump3AlertShown) {
-                    pump3AlertShown = true;
-                    javax.swing.SwingUtilities.invokeLater(() -> {
-                        javax.swing.JOptionPane.showMessageDialog(
-                                this,
-                                "Não havia líquido para o esvaziamento. A bomba, pump3 (Q0.3), explodiu.",
-                                "Falha Crítica",
-                                javax.swing.JOptionPane.WARNING_MESSAGE
-                        );
-
-                        if (onCriticalFailureCallback != null) {
-                            onCriticalFailureCallback.run();
-                        }
-
-                        this.resetUIState();
-                    });
-                }
-            }
-        } else {
-            loLevelActivationTime = null;
-            pump3AlertShown = false;
-        }
+        repaint();
     }
 
-    private void pump1IsOpened(boolean pump1On, boolean hiLevel) {
-
-        if (hiLevel && pump1On) {
-            if (hiLevelActivationTime == null) {
-                hiLevelActivationTime = System.currentTimeMillis();
-            } else {
-                long elapsed = System.currentTimeMillis() - hiLevelActivationTime;
-                if (elapsed > timerForPumpsWarning && !alertShown) {
-                    alertShown = true;
-                    javax.swing.SwingUtilities.invokeLater(() -> {
-                        javax.swing.JOptionPane.showMessageDialog(
-                                this,
-                                "A bomba de enchimento, pump1 (Q0.1), permaneceu ligada mesmo após o tanque atingir sua capacidade máxima, resultando em um transbordamento que inundou a fábrica.",
-                                "Alerta de Segurança",
-                                javax.swing.JOptionPane.WARNING_MESSAGE
-                        );
-
-                        if (onCriticalFailureCallback != null) {
-                            onCriticalFailureCallback.run();
-                        }
-                        this.resetUIState();
-                    });
-                }
-            }
-        } else {
-            hiLevelActivationTime = null;
+    // Falhas são detectadas pelo próprio modelo, no tempo da simulação (BatchTankPlant.HAZARD_MS)
+    private void showHazard(String hazard) {
+        if (hazard == null) {
             alertShown = false;
+            return;
+        }
+        if (alertShown) {
+            return;
         }
 
+        alertShown = true;
+        String title = hazard.equals(BatchTankPlant.OVERFLOW_HAZARD) ? "Alerta de Segurança" : "Falha Crítica";
+        javax.swing.SwingUtilities.invokeLater(() -> {
+            javax.swing.JOptionPane.showMessageDialog(
+                    this,
+                    hazard,
+                    title,
+                    javax.swing.JOptionPane.WARNING_MESSAGE
+            );
+
+            if (onCriticalFailureCallback != null) {
+                onCriticalFailureCallback.run();
+            }
+            this.resetUIState();
+        });
     }
 
     @Override
     public void stop() {
-        loLevelActivationTime = null;
-        pump3AlertShown = false;
-        hiLevelActivationTime = null;
         alertShown = false;
-        controller.stopFilling();
-        controller.stopDraining();
     }
 
     @Override
@@ -207,13 +149,12 @@ public class BatchSimulationScenePanel extends javax.swing.JPanel implements ISc
         Graphics2D g2d = (Graphics2D) g;
         g2d.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
 
-        controller.drawTankFill(g2d, tankFillHeightWrapper.value);
+        controller.drawTankFill(g2d);
     }
 
     @Override
     public void resetUIState() {
         controller.reset();
-        tankFillHeightWrapper.value = 0;
 
         for (RedIndicator indicator : indicators) {
             indicator.setActive(false);
@@ -2,6 +2,7 @@ package screens.scenes;
 
 import ilcompiler.input.Input.InputType;
 import java.util.Map;
+import plant.PlantModel;
 
 public interface IScenePanel {
 
@@ -17,4 +18,9 @@ public interface IScenePanel {
     public void setOnCriticalFailureCallback(Runnable callback);
 
     public void stop();
+
+    // Modelo de processo da cena, avançado pelo ciclo de varredura; null se a cena não tem processo
+    public default PlantModel getPlant() {
+        return null;
+    }
 }
\ No newline at end of file
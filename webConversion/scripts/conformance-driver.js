@@ -0,0 +1,156 @@
+/**
+ * Conformance driver for the Java differential harness
+ * (java -jar SimuladorClp.jar conform ...).
+ *
+ * Runs IL programs through the web interpreter (services/scanCycle.ts) in virtual time.
+ * The TypeScript services are transpiled once at startup with the project's `typescript`
+ * dev dependency, so `npm install` must have been run in webConversion.
+ *
+ * Protocol: one case per line on stdin, one result per line on stdout, in the same order.
+ *   request:  <id>\t<period ms>\t<scans>\t<program lines joined by '|'>\t<changes>
+ *             changes: comma-separated <scan>:<address>:<0|1>, applied before that scan
+ *   response: <id>\tOK\t<number of states>\t<states>
+ *             <id>\tERROR\t<number of states>\t<states>\t<message>   (scans completed before the error)
+ *   states:   one per scan, separated by ';' - the addresses that are ON (outputs, M bits and
+ *             timer/counter done bits), sorted, followed by C<n>=<accumulated> for each counter
+ */
+
+import fs from 'fs';
+import os from 'os';
+import path from 'path';
+import readline from 'readline';
+import { createRequire } from 'module';
+import { fileURLToPath } from 'url';
+
+const __filename = fileURLToPath(import.meta.url);
+const __dirname = path.dirname(__filename);
+const webRoot = path.join(__dirname, '..');
+
+const SOURCES = [
+  'types/plc.ts',
+  'utils/constants.ts',
+  'services/memory.ts',
+  'services/interpreter.ts',
+  'services/scanCycle.ts',
+];
+
+function loadTypeScript() {
+  try {
+    return createRequire(path.join(webRoot, 'package.json'))('typescript');
+  } catch (error) {
+    process.stderr.write(
+      `conformance-driver: cannot load the typescript package from ${webRoot} (${error.message}).\n` +
+        'Run `npm install` in webConversion first.\n'
+    );
+    process.exit(2);
+  }
+}
+
+function loadServices() {
+  const ts = loadTypeScript();
+  const outDir = fs.mkdtempSync(path.join(os.tmpdir(), 'plc-conformance-'));
+  fs.writeFileSync(path.join(outDir, 'package.json'), '{ "type": "commonjs" }');
+
+  for (const source of SOURCES) {
+    const text = fs.readFileSync(path.join(webRoot, 'src', source), 'utf8');
+    const { outputText } = ts.transpileModule(text, {
+      compilerOptions: { module: ts.ModuleKind.CommonJS, target: ts.ScriptTarget.ES2020 },
+    });
+    const target = path.join(outDir, source.replace(/\.ts$/, '.js'));
+    fs.mkdirSync(path.dirname(target), { recursive: true });
+    fs.writeFileSync(target, outputText);
+  }
+
+  const load = createRequire(path.join(outDir, 'index.js'));
+  process.on('exit', () => fs.rmSync(outDir, { recursive: true, force: true }));
+  return {
+    ...load('./types/plc'),
+    ...load('./services/interpreter'),
+    ...load('./services/scanCycle'),
+  };
+}
+
+// Virtual clock: timers read Date.now()
+let now = 0;
+Date.now = () => now;
+
+// The services log every scan; keep stdout for the protocol and remember the last error
+let lastError = '';
+console.log = () => {};
+console.warn = () => {};
+console.error = (...args) => {
+  const error = args.find((arg) => arg instanceof Error);
+  lastError = error ? error.message : args.map(String).join(' ');
+};
+
+const { createInitialPLCState, ExecutionMode, Interpreter, ScanCycleService } = loadServices();
+Interpreter.DEBUG_MODE = false;
+
+function encode(state) {
+  const on = [];
+  for (const [address, value] of Object.entries(state.outputs)) {
+    if (value) on.push(address);
+  }
+  const counters = [];
+  for (const variable of Object.values(state.memoryVariables)) {
+    const bit = variable.id.startsWith('M') ? variable.currentValue : variable.done;
+    if (bit) on.push(variable.id);
+    if (variable.id.startsWith('C')) counters.push(variable.id);
+  }
+  on.sort();
+  counters.sort();
+  for (const id of counters) {
+    on.push(`${id}=${state.memoryVariables[id].accumulated}`);
+  }
+  return on.join(' ');
+}
+
+function runCase(periodMs, scans, program, changes) {
+  now = 0;
+  lastError = '';
+  let state = ScanCycleService.start({
+    ...createInitialPLCState(),
+    programText: program,
+    program: [],
+  });
+
+  const states = [];
+  let next = 0;
+  for (let scan = 0; scan < scans; scan++) {
+    if (scan > 0) now += periodMs;
+    const inputs = { ...state.inputs };
+    while (next < changes.length && changes[next].scan === scan) {
+      inputs[changes[next].address] = changes[next].value;
+      next++;
+    }
+    state = ScanCycleService.executeCycle({ ...state, inputs });
+    if (state.mode !== ExecutionMode.RUNNING) {
+      return { states, error: lastError || 'execution stopped' };
+    }
+    states.push(encode(state));
+  }
+  return { states, error: null };
+}
+
+function parseChanges(text) {
+  if (!text) return [];
+  return text.split(',').map((change) => {
+    const [scan, address, value] = change.split(':');
+    return { scan: Number(scan), address, value: value === '1' };
+  });
+}
+
+const input = readline.createInterface({ input: process.stdin, terminal: false });
+input.on('line', (line) => {
+  if (line.trim() === '') return;
+  const [id, periodMs, scans, program, changes] = line.split('\t');
+  let result;
+  try {
+    result = runCase(Number(periodMs), Number(scans), program.split('|').join('\n'), parseChanges(changes));
+  } catch (error) {
+    result = { states: [], error: error instanceof Error ? error.message : String(error) };
+  }
+  const message = result.error === null ? '' : `\t${result.error.replace(/[\t\r\n]+/g, ' ')}`;
+  const status = result.error === null ? 'OK' : 'ERROR';
+  process.stdout.write(`${id}\t${status}\t${result.states.length}\t${result.states.join(';')}${message}\n`);
+});